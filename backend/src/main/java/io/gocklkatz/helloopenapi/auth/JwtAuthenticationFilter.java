@@ -13,32 +13,62 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * Authenticates requests carrying a valid {@code Authorization: Bearer} token. Without the header,
+ * {@code GET /readings/stream} is also authenticated by a {@link StreamTickets} ticket in the
+ * {@code ticket} query parameter, because a browser's {@code EventSource} cannot set headers. The
+ * token itself is never taken from the URL.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/readings/stream";
+    private static final String TICKET_PARAMETER = "ticket";
+
     private final JwtService jwtService;
+    private final StreamTickets streamTickets;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, StreamTickets streamTickets) {
         this.jwtService = jwtService;
+        this.streamTickets = streamTickets;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null) {
+            String ticket = ticket(request);
+            if (ticket != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                streamTickets.redeem(ticket).ifPresent(username -> authenticate(request, username));
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!authHeader.startsWith("Bearer ")) {
             chain.doFilter(request, response);
             return;
         }
 
         String token = authHeader.substring(7);
         if (jwtService.isTokenValid(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String username = jwtService.extractUsername(token);
-            UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(username, null, List.of());
-            auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(auth);
+            authenticate(request, jwtService.extractUsername(token));
         }
         chain.doFilter(request, response);
     }
+
+    private static void authenticate(HttpServletRequest request, String username) {
+        UsernamePasswordAuthenticationToken auth =
+                new UsernamePasswordAuthenticationToken(username, null, List.of());
+        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    private static String ticket(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("GET".equals(request.getMethod()) && STREAM_PATH.equals(path)) {
+            return request.getParameter(TICKET_PARAMETER);
+        }
+        return null;
+    }
 }
@@ -0,0 +1,111 @@
+package io.gocklkatz.helloopenapi.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Short-lived, single-use tickets for opening {@code GET /readings/stream}. A browser's
+ * {@code EventSource} cannot set the {@code Authorization} header, and the token itself must not go
+ * into a URL, where access logs and browser history keep it. So an authenticated client first asks
+ * for a ticket, then passes that as the {@code ticket} query parameter.
+ *
+ * <p>A ticket is 32 random bytes, valid for {@code app.readings-stream.ticket-ttl} and redeemed at
+ * most once. At most {@code app.readings-stream.max-tickets} are outstanding; beyond that the oldest
+ * are forgotten first. Tickets are kept in memory only, like the readings they give access to.
+ */
+@Component
+public class StreamTickets {
+
+    private static final int TICKET_BYTES = 32;
+
+    private record Entry(String username, Instant issuedAt) {}
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final int maxTickets;
+    private final SecureRandom random = new SecureRandom();
+
+    /** In the order tickets were issued, so the oldest entry is always first. */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public StreamTickets(@Value("${app.readings-stream.ticket-ttl:PT30S}") Duration ttl,
+                         @Value("${app.readings-stream.max-tickets:1000}") int maxTickets) {
+        this(Clock.systemUTC(), ttl, maxTickets);
+    }
+
+    StreamTickets(Clock clock, Duration ttl, int maxTickets) {
+        this.clock = clock;
+        this.ttl = ttl;
+        this.maxTickets = maxTickets;
+    }
+
+    /** A new ticket for {@code username}. */
+    public String issue(String username) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            forgetExpired(now);
+            entries.put(ticket, new Entry(username, now));
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (entries.size() > maxTickets) {
+                oldest.next();
+                oldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return ticket;
+    }
+
+    /**
+     * The user {@code ticket} was issued to, if it is known and has not expired. Either way the
+     * ticket cannot be redeemed again.
+     */
+    public Optional<String> redeem(String ticket) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(ticket);
+            if (entry == null || !entry.issuedAt().isAfter(clock.instant().minus(ttl))) {
+                return Optional.empty();
+            }
+            return Optional.of(entry.username());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops tickets older than the ttl from the front. */
+    private void forgetExpired(Instant now) {
+        Instant cutoff = now.minus(ttl);
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext() && !oldest.next().issuedAt().isAfter(cutoff)) {
+            oldest.remove();
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package io.gocklkatz.helloopenapi.config;
 
+import io.gocklkatz.helloopenapi.service.IdempotencyKeyException;
+import io.gocklkatz.helloopenapi.service.ImageQualityException;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -16,8 +21,51 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
     }
 
+    /**
+     * A request parameter outside the bounds declared in the API, such as {@code points} on the
+     * series endpoint.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConstraintViolation(ConstraintViolationException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(ImageQualityException.class)
+    public ResponseEntity<Map<String, String>> handleImageQuality(ImageQualityException ex) {
+        return ResponseEntity.unprocessableContent().body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * A retried upload whose first attempt is still running, or a key reused for another upload.
+     */
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKey(IdempotencyKeyException ex) {
+        HttpStatus status = ex.getReason() == IdempotencyKeyException.Reason.IN_PROGRESS
+                ? HttpStatus.CONFLICT
+                : HttpStatus.UNPROCESSABLE_CONTENT;
+        return ResponseEntity.status(status).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * Background work is queued to its limit, such as spooled uploads waiting to be stored.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecution(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<Map<String, String>> handleBadCredentials(BadCredentialsException ex) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", ex.getMessage()));
     }
+
+    /**
+     * Raised while the multipart request is parsed, before any controller code runs. When the
+     * client sends a Content-Length the container rejects the body without reading it.
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, String>> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+        return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE)
+                .body(Map.of("error", "Upload exceeds the maximum allowed size"));
+    }
 }
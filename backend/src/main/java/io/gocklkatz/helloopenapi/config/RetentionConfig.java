@@ -0,0 +1,29 @@
+package io.gocklkatz.helloopenapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.retention")
+public class RetentionConfig {
+
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Applies to readings older than {@code olderThan}. Of those, only the earliest reading in each
+     * {@code keepOnePer} interval is kept; without {@code keepOnePer} they are all deleted. When
+     * several rules match a reading, the one with the longest {@code olderThan} wins.
+     */
+    public record Rule(Period olderThan, Duration keepOnePer) {}
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+}
@@ -0,0 +1,115 @@
+package io.gocklkatz.helloopenapi.config;
+
+import io.gocklkatz.helloopenapi.service.SerializedReadings;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link SerializedReadings} as the JSON it already holds, gzipped when the request's
+ * {@code Accept-Encoding} allows it, or as its CBOR when that is the negotiated type. Registered
+ * ahead of Jackson, which would otherwise encode the list again. Any other list of readings still
+ * goes through Jackson.
+ */
+public class SerializedReadingsConverter extends AbstractHttpMessageConverter<SerializedReadings> {
+
+    public SerializedReadingsConverter() {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SerializedReadings.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SerializedReadings readInternal(Class<? extends SerializedReadings> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Serialized readings are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(SerializedReadings readings, MediaType contentType) {
+        if (isCbor(contentType)) {
+            return (long) readings.cborLength();
+        }
+        return (long) (acceptsGzip() ? readings.gzipLength() : readings.jsonLength());
+    }
+
+    @Override
+    protected void writeInternal(SerializedReadings readings, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        outputMessage.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (isCbor(outputMessage.getHeaders().getContentType())) {
+            readings.writeCbor(outputMessage.getBody());
+        } else if (acceptsGzip()) {
+            outputMessage.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            readings.writeGzip(outputMessage.getBody());
+        } else {
+            readings.writeJson(outputMessage.getBody());
+        }
+    }
+
+    private static boolean isCbor(MediaType contentType) {
+        return contentType != null && MediaType.APPLICATION_CBOR.isCompatibleWith(contentType);
+    }
+
+    private static boolean acceptsGzip() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} value allows gzip with a non-zero quality. An entry for
+     * gzip itself decides, so {@code gzip;q=0} refuses it whatever {@code *} says; {@code *} only
+     * counts when gzip is not listed.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double wildcard = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = Math.max(gzip, quality(parts));
+            } else if (name.equals("*")) {
+                wildcard = Math.max(wildcard, quality(parts));
+            }
+        }
+        return (gzip >= 0 ? gzip : wildcard) > 0;
+    }
+
+    /** The {@code q} parameter of an {@code Accept-Encoding} entry; 1 if absent, 0 if malformed. */
+    private static double quality(String[] parts) {
+        double quality = 1;
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    quality = Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    quality = 0;
+                }
+            }
+        }
+        return quality;
+    }
+}
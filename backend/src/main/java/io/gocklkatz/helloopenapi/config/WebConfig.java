@@ -2,8 +2,11 @@ package io.gocklkatz.helloopenapi.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -11,9 +14,21 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${app.image-storage.base-path:/data/images}")
     private String imageBasePath;
 
+    private final CBORMapper cborMapper;
+
+    public WebConfig(CBORMapper cborMapper) {
+        this.cborMapper = cborMapper;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/images/**")
                 .addResourceLocations("file:" + imageBasePath + "/");
     }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.addCustomConverter(new SerializedReadingsConverter());
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper));
+    }
 }
@@ -0,0 +1,24 @@
+package io.gocklkatz.helloopenapi.controller;
+
+import com.example.api.AlertsApi;
+import com.example.model.Alert;
+import io.gocklkatz.helloopenapi.series.AnomalyDetector;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class AlertController implements AlertsApi {
+
+    private final AnomalyDetector anomalyDetector;
+
+    public AlertController(AnomalyDetector anomalyDetector) {
+        this.anomalyDetector = anomalyDetector;
+    }
+
+    @Override
+    public ResponseEntity<List<Alert>> getAlerts() {
+        return ResponseEntity.ok(anomalyDetector.alerts());
+    }
+}
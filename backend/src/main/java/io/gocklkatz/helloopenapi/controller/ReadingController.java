@@ -1,8 +1,14 @@
 package io.gocklkatz.helloopenapi.controller;
 
 import com.example.api.ReadingsApi;
+import com.example.model.Consumption;
+import com.example.model.Crossing;
 import com.example.model.Reading;
+import com.example.model.ReadingChanges;
+import com.example.model.SeriesPoint;
+import io.gocklkatz.helloopenapi.service.IdempotencyKeys;
 import io.gocklkatz.helloopenapi.service.ReadingService;
+import io.gocklkatz.helloopenapi.service.SerializedReadings;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,9 +21,11 @@ import java.util.List;
 public class ReadingController implements ReadingsApi {
 
     private final ReadingService readingService;
+    private final IdempotencyKeys idempotencyKeys;
 
-    public ReadingController(ReadingService readingService) {
+    public ReadingController(ReadingService readingService, IdempotencyKeys idempotencyKeys) {
         this.readingService = readingService;
+        this.idempotencyKeys = idempotencyKeys;
     }
 
     @Override
@@ -29,12 +37,45 @@ public class ReadingController implements ReadingsApi {
 
     @Override
     public ResponseEntity<List<Reading>> getAllReadings() {
-        return ResponseEntity.ok(readingService.getAllReadings());
+        List<Reading> readings = readingService.getAllReadings();
+        if (readings instanceof SerializedReadings serialized) {
+            return ResponseEntity.ok().eTag(serialized.etag()).body(readings);
+        }
+        return ResponseEntity.ok(readings);
     }
 
     @Override
-    public ResponseEntity<Reading> createReading(MultipartFile image, OffsetDateTime timestamp) {
-        Reading reading = readingService.createReading(image, timestamp);
-        return ResponseEntity.status(HttpStatus.CREATED).body(reading);
+    public ResponseEntity<ReadingChanges> getReadingChanges(Long since) {
+        return ResponseEntity.ok(readingService.getChanges(since));
+    }
+
+    @Override
+    public ResponseEntity<List<SeriesPoint>> getReadingSeries(OffsetDateTime from, OffsetDateTime to, Integer points) {
+        return ResponseEntity.ok(readingService.getSeries(from, to, points));
+    }
+
+    @Override
+    public ResponseEntity<Consumption> getConsumption(OffsetDateTime from, OffsetDateTime to) {
+        return ResponseEntity.ok(readingService.getConsumption(from, to));
+    }
+
+    @Override
+    public ResponseEntity<Crossing> getCrossing(Double value) {
+        return readingService.getCrossing(value)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Override
+    public ResponseEntity<Reading> createReading(MultipartFile image, OffsetDateTime timestamp, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            Reading reading = readingService.createReading(image, timestamp);
+            return ResponseEntity.status(HttpStatus.CREATED).body(reading);
+        }
+        IdempotencyKeys.Outcome outcome = idempotencyKeys.execute(idempotencyKey, timestamp.toInstant().toString(),
+                () -> readingService.createReading(image, timestamp));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.reading());
     }
 }
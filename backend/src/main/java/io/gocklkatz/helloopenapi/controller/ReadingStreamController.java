@@ -0,0 +1,49 @@
+package io.gocklkatz.helloopenapi.controller;
+
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
+import io.gocklkatz.helloopenapi.service.ReadingStream;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * {@code GET /readings/stream} and {@code POST /readings/stream/ticket}. Not part of
+ * {@code api.yaml}: the generated interfaces cannot return an {@link SseEmitter}, so the mappings
+ * are declared here.
+ *
+ * <p>A ticket opens the stream once, so a browser reconnects with a new one rather than letting
+ * {@code EventSource} retry the old URL. It then cannot set {@code Last-Event-ID} itself and passes
+ * the last id it saw as the {@code lastEventId} query parameter instead; the header wins if both are
+ * given.
+ */
+@RestController
+public class ReadingStreamController {
+
+    /** A ticket for opening the stream once, as {@code /readings/stream?ticket=...}. */
+    public record StreamTicket(String ticket) {}
+
+    private final ReadingStream readingStream;
+    private final StreamTickets streamTickets;
+
+    public ReadingStreamController(ReadingStream readingStream, StreamTickets streamTickets) {
+        this.readingStream = readingStream;
+        this.streamTickets = streamTickets;
+    }
+
+    @GetMapping(path = "/readings/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamReadings(@RequestHeader(name = "Last-Event-ID", required = false) Integer lastEventId,
+                                     @RequestParam(name = "lastEventId", required = false) Integer lastEventIdParam) {
+        return readingStream.subscribe(lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+
+    @PostMapping(path = "/readings/stream/ticket", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamTicket createStreamTicket() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return new StreamTicket(streamTickets.issue(username));
+    }
+}
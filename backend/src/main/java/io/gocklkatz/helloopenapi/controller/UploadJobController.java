@@ -0,0 +1,40 @@
+package io.gocklkatz.helloopenapi.controller;
+
+import com.example.api.UploadJobsApi;
+import com.example.model.UploadJob;
+import io.gocklkatz.helloopenapi.service.UploadJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+@RestController
+public class UploadJobController implements UploadJobsApi {
+
+    private final UploadJobService uploadJobService;
+
+    public UploadJobController(UploadJobService uploadJobService) {
+        this.uploadJobService = uploadJobService;
+    }
+
+    @Override
+    public ResponseEntity<UploadJob> createUploadJob(MultipartFile image, OffsetDateTime timestamp) {
+        UploadJob job = uploadJobService.submit(image, timestamp);
+        return ResponseEntity.accepted().location(URI.create("/readings/jobs/" + job.getId())).body(job);
+    }
+
+    @Override
+    public ResponseEntity<UploadJob> getUploadJob(String jobId, Integer wait) {
+        try {
+            return uploadJobService.find(jobId, Duration.ofSeconds(wait))
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for upload job " + jobId, e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.DigitSegmenter.GlyphBox;
+import io.gocklkatz.helloopenapi.recognition.DigitSegmenter.Segmentation;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nearest-template digit classifier. Every glyph is resampled into a fixed {@value #GRID_WIDTH}x
+ * {@value #GRID_HEIGHT} grid, keeping its aspect ratio, and compared by Pearson correlation against
+ * templates, so no model file or native library is needed.
+ *
+ * <p>The templates are fixed bitmaps in {@value #TEMPLATE_SHEET}: one column per digit, one row per
+ * glyph style, each cell {@value #CELL_WIDTH}x{@value #CELL_HEIGHT} pixels holding a dark glyph on
+ * white. They go through the same labelling and normalisation as a photographed glyph. Loading
+ * them needs no fonts, so results do not depend on what the host has installed.
+ */
+final class DigitClassifier {
+
+    static final int GRID_WIDTH = 16;
+    static final int GRID_HEIGHT = 24;
+    static final String TEMPLATE_SHEET = "/recognition/digit-templates.png";
+    static final int CELL_WIDTH = 80;
+    static final int CELL_HEIGHT = 104;
+    private static final int SUBSAMPLES = 3;
+
+    private final List<float[]>[] templates;
+
+    DigitClassifier() {
+        try (InputStream in = DigitClassifier.class.getResourceAsStream(TEMPLATE_SHEET)) {
+            if (in == null) {
+                throw new IllegalStateException("Digit templates " + TEMPLATE_SHEET + " are missing");
+            }
+            templates = loadTemplates(ImageIO.read(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read digit templates " + TEMPLATE_SHEET, e);
+        }
+    }
+
+    /**
+     * Correlation of each segmented glyph with its best template for every digit, as
+     * {@code scores[position][digit]} in {@code [-1, 1]}.
+     */
+    double[][] score(Segmentation segmentation) {
+        List<GlyphBox> digits = segmentation.digits();
+        double[][] scores = new double[digits.size()][10];
+        for (int position = 0; position < digits.size(); position++) {
+            float[] glyph = normalize(segmentation.labels(), segmentation.width(), digits.get(position));
+            for (int digit = 0; digit < 10; digit++) {
+                double best = -1;
+                for (float[] template : templates[digit]) {
+                    best = Math.max(best, dot(glyph, template));
+                }
+                scores[position][digit] = best;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Softmax of {@link #score} per position: {@code probabilities[position][digit]}, each row
+     * summing to one. A lower {@code temperature} makes the best match more dominant.
+     */
+    double[][] probabilities(Segmentation segmentation, double temperature) {
+        double[][] scores = score(segmentation);
+        for (double[] position : scores) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (double score : position) {
+                max = Math.max(max, score);
+            }
+            double sum = 0;
+            for (int digit = 0; digit < position.length; digit++) {
+                position[digit] = Math.exp((position[digit] - max) / temperature);
+                sum += position[digit];
+            }
+            for (int digit = 0; digit < position.length; digit++) {
+                position[digit] /= sum;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Area-samples the pixels carrying {@code box.label()} into the grid, then centres the vector
+     * and scales it to unit length so a dot product gives the Pearson correlation.
+     */
+    static float[] normalize(int[] labels, int width, GlyphBox box) {
+        float[] grid = new float[GRID_WIDTH * GRID_HEIGHT];
+        double scale = (double) GRID_HEIGHT / box.height();
+        int scaledWidth = Math.max(1, Math.min(GRID_WIDTH, (int) Math.round(box.width() * scale)));
+        double xScale = (double) box.width() / scaledWidth;
+        double yScale = (double) box.height() / GRID_HEIGHT;
+        int offset = (GRID_WIDTH - scaledWidth) / 2;
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            for (int gx = 0; gx < scaledWidth; gx++) {
+                int hits = 0;
+                for (int sy = 0; sy < SUBSAMPLES; sy++) {
+                    int y = box.y() + (int) ((gy + (sy + 0.5) / SUBSAMPLES) * yScale);
+                    for (int sx = 0; sx < SUBSAMPLES; sx++) {
+                        int x = box.x() + (int) ((gx + (sx + 0.5) / SUBSAMPLES) * xScale);
+                        if (labels[y * width + x] == box.label()) {
+                            hits++;
+                        }
+                    }
+                }
+                grid[gy * GRID_WIDTH + gx + offset] = (float) hits / (SUBSAMPLES * SUBSAMPLES);
+            }
+        }
+        standardize(grid);
+        return grid;
+    }
+
+    private static void standardize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v;
+        }
+        float mean = (float) (sum / vector.length);
+        double squares = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] -= mean;
+            squares += vector[i] * vector[i];
+        }
+        float norm = (float) Math.sqrt(squares);
+        if (norm > 0) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Cuts {@code sheet} into cells and normalises the largest glyph of each; empty cells are
+     * skipped.
+     */
+    @SuppressWarnings("unchecked")
+    static List<float[]>[] loadTemplates(BufferedImage sheet) {
+        if (sheet.getWidth() != 10 * CELL_WIDTH || sheet.getHeight() % CELL_HEIGHT != 0) {
+            throw new IllegalStateException("Digit template sheet has unexpected size "
+                    + sheet.getWidth() + "x" + sheet.getHeight());
+        }
+        List<float[]>[] templates = new List[10];
+        for (int digit = 0; digit < 10; digit++) {
+            templates[digit] = new ArrayList<>();
+            for (int y = 0; y < sheet.getHeight(); y += CELL_HEIGHT) {
+                float[] template = cellTemplate(sheet.getSubimage(digit * CELL_WIDTH, y, CELL_WIDTH, CELL_HEIGHT));
+                if (template != null) {
+                    templates[digit].add(template);
+                }
+            }
+            if (templates[digit].isEmpty()) {
+                throw new IllegalStateException("Digit template sheet has no template for " + digit);
+            }
+        }
+        return templates;
+    }
+
+    private static float[] cellTemplate(BufferedImage cell) {
+        GrayImage gray = GrayImageDecoder.toGray(cell);
+        byte[] mask = PixelKernels.threshold(gray.pixels(), 127, false);
+        int[] labels = new int[mask.length];
+        GlyphBox largest = null;
+        for (GlyphBox box : DigitSegmenter.label(mask, labels, cell.getWidth(), cell.getHeight())) {
+            if (largest == null || box.pixelCount() > largest.pixelCount()) {
+                largest = box;
+            }
+        }
+        return largest == null ? null : normalize(labels, cell.getWidth(), largest);
+    }
+}
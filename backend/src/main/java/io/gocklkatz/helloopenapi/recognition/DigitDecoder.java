@@ -0,0 +1,108 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+/**
+ * Turns per-position digit probabilities into a digit string, either independently per position
+ * or as the most probable string whose value lies in a given range.
+ */
+final class DigitDecoder {
+
+    private DigitDecoder() {
+    }
+
+    /** The most probable digit at each position. */
+    static int[] argmax(double[][] probabilities) {
+        int[] digits = new int[probabilities.length];
+        for (int position = 0; position < probabilities.length; position++) {
+            int best = 0;
+            for (int digit = 1; digit < 10; digit++) {
+                if (probabilities[position][digit] > probabilities[position][best]) {
+                    best = digit;
+                }
+            }
+            digits[position] = best;
+        }
+        return digits;
+    }
+
+    /**
+     * The digit string with the highest joint probability among those whose value, read as an
+     * integer, lies in {@code [min, max]}; {@code null} if the range contains no value with that
+     * many digits. A digit DP over (position, still equal to min's prefix, still equal to max's
+     * prefix), so it costs {@code O(positions * 10)} however wide the range is.
+     */
+    static int[] constrained(double[][] probabilities, long min, long max) {
+        int n = probabilities.length;
+        long limit = (long) Math.pow(10, n) - 1;
+        min = Math.max(0, min);
+        max = Math.min(limit, max);
+        if (min > max) {
+            return null;
+        }
+        int[] low = digitsOf(min, n);
+        int[] high = digitsOf(max, n);
+
+        // best[pos][tightLow][tightHigh]: best log-probability of positions pos..n-1
+        double[][][] best = new double[n + 1][2][2];
+        int[][][] choice = new int[n][2][2];
+        for (int pos = n - 1; pos >= 0; pos--) {
+            for (int tl = 0; tl < 2; tl++) {
+                for (int th = 0; th < 2; th++) {
+                    int from = tl == 1 ? low[pos] : 0;
+                    int to = th == 1 ? high[pos] : 9;
+                    double bestScore = Double.NEGATIVE_INFINITY;
+                    int bestDigit = -1;
+                    for (int digit = from; digit <= to; digit++) {
+                        int nextLow = tl == 1 && digit == low[pos] ? 1 : 0;
+                        int nextHigh = th == 1 && digit == high[pos] ? 1 : 0;
+                        double score = Math.log(Math.max(probabilities[pos][digit], Double.MIN_NORMAL)) + best[pos + 1][nextLow][nextHigh];
+                        if (score > bestScore || bestDigit < 0) {
+                            bestScore = score;
+                            bestDigit = digit;
+                        }
+                    }
+                    best[pos][tl][th] = bestScore;
+                    choice[pos][tl][th] = bestDigit;
+                }
+            }
+        }
+        int[] digits = new int[n];
+        int tl = 1;
+        int th = 1;
+        for (int pos = 0; pos < n; pos++) {
+            int digit = choice[pos][tl][th];
+            if (digit < 0) {
+                return null;
+            }
+            digits[pos] = digit;
+            tl = tl == 1 && digit == low[pos] ? 1 : 0;
+            th = th == 1 && digit == high[pos] ? 1 : 0;
+        }
+        return digits;
+    }
+
+    static long valueOf(int[] digits) {
+        long value = 0;
+        for (int digit : digits) {
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /** Joint probability of {@code digits}. */
+    static double probability(double[][] probabilities, int[] digits) {
+        double p = 1;
+        for (int position = 0; position < digits.length; position++) {
+            p *= probabilities[position][digits[position]];
+        }
+        return p;
+    }
+
+    private static int[] digitsOf(long value, int n) {
+        int[] digits = new int[n];
+        for (int position = n - 1; position >= 0; position--) {
+            digits[position] = (int) (value % 10);
+            value /= 10;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,216 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds the row of odometer digits in a grayscale image.
+ *
+ * <p>The image is binarised with Otsu's threshold in both polarities, since digits may be light on
+ * dark wheels or dark on a light face. Connected components whose size, aspect ratio and stroke
+ * density look like a glyph become candidates, and the digit row is the run of
+ * {@code expectedDigits} candidates with similar height, a shared baseline and the most even
+ * spacing.
+ */
+final class DigitSegmenter {
+
+    private static final double MIN_ASPECT = 1.0;
+    private static final double MAX_ASPECT = 8.0;
+    private static final double MIN_FILL = 0.12;
+    private static final double MAX_FILL = 0.85;
+    private static final double HEIGHT_TOLERANCE = 0.2;
+    private static final double BASELINE_TOLERANCE = 0.25;
+    private static final double MAX_PITCH_VARIATION = 0.25;
+
+    /** Bounding box of one connected component; {@code label} identifies its pixels in the label map. */
+    record GlyphBox(int label, int x, int y, int width, int height, int pixelCount) {
+        double centerX() {
+            return x + width / 2.0;
+        }
+
+        double centerY() {
+            return y + height / 2.0;
+        }
+    }
+
+    /**
+     * The chosen digit boxes, left to right, with the label map they refer to and whether the
+     * digits were lighter than their background.
+     */
+    record Segmentation(int[] labels, int width, int height, List<GlyphBox> digits, boolean lightForeground) {}
+
+    private final int expectedDigits;
+
+    DigitSegmenter(int expectedDigits) {
+        this.expectedDigits = expectedDigits;
+    }
+
+    Optional<Segmentation> segment(GrayImage image) {
+        return segment(image, new boolean[]{true, false});
+    }
+
+    /**
+     * Segments with a known polarity only, e.g. when it was learned from an earlier photo of the
+     * same meter; halves the work of {@link #segment(GrayImage)}.
+     */
+    Optional<Segmentation> segment(GrayImage image, boolean lightForeground) {
+        return segment(image, new boolean[]{lightForeground});
+    }
+
+    private Optional<Segmentation> segment(GrayImage image, boolean[] polarities) {
+        int threshold = PixelKernels.otsuThreshold(image.pixels());
+        Segmentation best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (boolean lightForeground : polarities) {
+            byte[] mask = PixelKernels.threshold(image.pixels(), threshold, lightForeground);
+            int[] labels = new int[mask.length];
+            List<GlyphBox> candidates = label(mask, labels, image.width(), image.height()).stream()
+                    .filter(box -> looksLikeGlyph(box, image.height()))
+                    .sorted(Comparator.comparingInt(GlyphBox::x))
+                    .toList();
+            Row row = findRow(candidates);
+            if (row != null && row.score() > bestScore) {
+                bestScore = row.score();
+                best = new Segmentation(labels, image.width(), image.height(), row.boxes(), lightForeground);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static boolean looksLikeGlyph(GlyphBox box, int imageHeight) {
+        int minHeight = Math.max(8, imageHeight / 100);
+        if (box.height() < minHeight || box.height() > imageHeight / 2) {
+            return false;
+        }
+        double aspect = (double) box.height() / box.width();
+        double fill = (double) box.pixelCount() / ((long) box.width() * box.height());
+        return aspect >= MIN_ASPECT && aspect <= MAX_ASPECT && fill >= MIN_FILL && fill <= MAX_FILL;
+    }
+
+    private record Row(List<GlyphBox> boxes, double score) {}
+
+    /**
+     * Tries every candidate as the seed of a row and keeps the most evenly spaced run of
+     * {@code expectedDigits} boxes that line up with it.
+     */
+    private Row findRow(List<GlyphBox> candidates) {
+        Row best = null;
+        for (GlyphBox seed : candidates) {
+            List<GlyphBox> aligned = new ArrayList<>();
+            for (GlyphBox box : candidates) {
+                if (Math.abs(box.height() - seed.height()) <= HEIGHT_TOLERANCE * seed.height()
+                        && Math.abs(box.centerY() - seed.centerY()) <= BASELINE_TOLERANCE * seed.height()) {
+                    aligned.add(box);
+                }
+            }
+            for (int start = 0; start + expectedDigits <= aligned.size(); start++) {
+                List<GlyphBox> run = aligned.subList(start, start + expectedDigits);
+                double score = spacingScore(run, seed.height());
+                if (score > Double.NEGATIVE_INFINITY && (best == null || score > best.score())) {
+                    best = new Row(List.copyOf(run), score);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * One minus the coefficient of variation of the centre-to-centre pitch, or negative infinity
+     * when the boxes overlap, sit too far apart for one odometer or are unevenly spaced.
+     */
+    private static double spacingScore(List<GlyphBox> run, int height) {
+        if (run.size() == 1) {
+            return 0;
+        }
+        double[] pitches = new double[run.size() - 1];
+        double sum = 0;
+        for (int i = 1; i < run.size(); i++) {
+            GlyphBox previous = run.get(i - 1);
+            if (run.get(i).x() < previous.x() + previous.width()) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            pitches[i - 1] = run.get(i).centerX() - previous.centerX();
+            sum += pitches[i - 1];
+        }
+        double mean = sum / pitches.length;
+        if (mean > 2.5 * height) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double variance = 0;
+        for (double pitch : pitches) {
+            variance += (pitch - mean) * (pitch - mean);
+        }
+        double variation = Math.sqrt(variance / pitches.length) / mean;
+        return variation > MAX_PITCH_VARIATION ? Double.NEGATIVE_INFINITY : 1 - variation;
+    }
+
+    /**
+     * Labels 8-connected foreground regions of {@code mask} into {@code labels} (starting at 1) and
+     * returns their bounding boxes.
+     */
+    static List<GlyphBox> label(byte[] mask, int[] labels, int width, int height) {
+        List<GlyphBox> boxes = new ArrayList<>();
+        int[] stack = new int[mask.length];
+        int next = 0;
+        for (int start = 0; start < mask.length; start++) {
+            if (mask[start] == 0 || labels[start] != 0) {
+                continue;
+            }
+            int label = ++next;
+            int minX = width, minY = height, maxX = -1, maxY = -1, count = 0;
+            int top = 0;
+            stack[top++] = start;
+            labels[start] = label;
+            while (top > 0) {
+                int p = stack[--top];
+                int px = p % width;
+                int py = p / width;
+                count++;
+                minX = Math.min(minX, px);
+                maxX = Math.max(maxX, px);
+                minY = Math.min(minY, py);
+                maxY = Math.max(maxY, py);
+                boolean left = px > 0;
+                boolean right = px < width - 1;
+                if (py > 0) {
+                    int up = p - width;
+                    top = visit(mask, labels, stack, top, up, label);
+                    if (left) {
+                        top = visit(mask, labels, stack, top, up - 1, label);
+                    }
+                    if (right) {
+                        top = visit(mask, labels, stack, top, up + 1, label);
+                    }
+                }
+                if (left) {
+                    top = visit(mask, labels, stack, top, p - 1, label);
+                }
+                if (right) {
+                    top = visit(mask, labels, stack, top, p + 1, label);
+                }
+                if (py < height - 1) {
+                    int down = p + width;
+                    top = visit(mask, labels, stack, top, down, label);
+                    if (left) {
+                        top = visit(mask, labels, stack, top, down - 1, label);
+                    }
+                    if (right) {
+                        top = visit(mask, labels, stack, top, down + 1, label);
+                    }
+                }
+            }
+            boxes.add(new GlyphBox(label, minX, minY, maxX - minX + 1, maxY - minY + 1, count));
+        }
+        return boxes;
+    }
+
+    private static int visit(byte[] mask, int[] labels, int[] stack, int top, int q, int label) {
+        if (mask[q] != 0 && labels[q] == 0) {
+            labels[q] = label;
+            stack[top++] = q;
+        }
+        return top;
+    }
+}
@@ -0,0 +1,167 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.DigitSegmenter.GlyphBox;
+import io.gocklkatz.helloopenapi.recognition.DigitSegmenter.Segmentation;
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * Where the digit row of a fixed camera's meter was last found, and a coarse picture of it to
+ * find it again. A later photo is decoded only around the remembered spot, the reference is
+ * matched against a {@value #COARSE}x downsampled copy by normalised cross-correlation, and only
+ * the aligned window is segmented and classified. The padding around the digit row absorbs the
+ * few pixels of error the coarse match leaves.
+ */
+final class DigitWindow {
+
+    static final int COARSE = 8;
+
+    /**
+     * @param area            padded digit row in source pixels
+     * @param template        the area downsampled by {@link #COARSE}, centred and scaled to unit length
+     * @param lightForeground whether the digits were lighter than their background
+     */
+    record Reference(int sourceWidth, int sourceHeight, int subsampling, Rectangle area,
+                     float[] template, int templateWidth, int templateHeight, boolean lightForeground) {}
+
+    /** Best match of a reference: its correlation in {@code [-1, 1]} and the matched area in image pixels. */
+    record Alignment(double score, Rectangle area) {}
+
+    private DigitWindow() {
+    }
+
+    /**
+     * Builds a reference from a full-frame decode and the digit boxes found in it. The row is
+     * padded by its height above and below and by half of it at the sides, so the window keeps
+     * some surrounding structure to align on and the digits stay small relative to it.
+     */
+    static Reference capture(Decoded frame, Segmentation segmentation) {
+        GrayImage image = frame.image();
+        List<GlyphBox> digits = segmentation.digits();
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = 0, maxY = 0;
+        for (GlyphBox box : digits) {
+            minX = Math.min(minX, box.x());
+            minY = Math.min(minY, box.y());
+            maxX = Math.max(maxX, box.x() + box.width());
+            maxY = Math.max(maxY, box.y() + box.height());
+        }
+        int rowHeight = maxY - minY;
+        Rectangle padded = new Rectangle(minX - rowHeight / 2, minY - rowHeight,
+                maxX - minX + rowHeight, 3 * rowHeight)
+                .intersection(new Rectangle(0, 0, image.width(), image.height()));
+        GrayImage coarse = PixelKernels.downsample(
+                image.crop(padded.x, padded.y, padded.width, padded.height), COARSE);
+        float[] template = new float[coarse.pixels().length];
+        double mean = 0;
+        for (int v : coarse.pixels()) {
+            mean += v;
+        }
+        mean /= template.length;
+        double squares = 0;
+        for (int i = 0; i < template.length; i++) {
+            template[i] = (float) (coarse.pixels()[i] - mean);
+            squares += template[i] * template[i];
+        }
+        float norm = (float) Math.sqrt(squares);
+        for (int i = 0; i < template.length; i++) {
+            template[i] /= norm;
+        }
+        int f = frame.subsampling();
+        Rectangle area = new Rectangle(frame.region().x + padded.x * f, frame.region().y + padded.y * f,
+                padded.width * f, padded.height * f);
+        return new Reference(frame.sourceWidth(), frame.sourceHeight(), f, area,
+                template, coarse.width(), coarse.height(), segmentation.lightForeground());
+    }
+
+    /**
+     * The source region to decode for a new photo: the reference area with {@code margin} times
+     * its height added on every side, to allow for the camera or meter having moved a little.
+     */
+    static Rectangle searchRegion(Reference reference, double margin) {
+        Rectangle area = reference.area();
+        int grow = (int) (area.height * margin);
+        Rectangle region = new Rectangle(area);
+        region.grow(grow, grow);
+        return region.intersection(new Rectangle(0, 0, reference.sourceWidth(), reference.sourceHeight()));
+    }
+
+    /**
+     * Slides the reference template over the coarse copy of {@code region} and returns the
+     * position with the highest normalised cross-correlation, or {@code null} if the decoded
+     * region is smaller than the template.
+     */
+    static Alignment align(Reference reference, Decoded region) {
+        GrayImage coarse = PixelKernels.downsample(region.image(), COARSE);
+        int tw = reference.templateWidth();
+        int th = reference.templateHeight();
+        int cw = coarse.width();
+        int ch = coarse.height();
+        if (cw < tw || ch < th) {
+            return null;
+        }
+        long[] sum = new long[(cw + 1) * (ch + 1)];
+        long[] squares = new long[(cw + 1) * (ch + 1)];
+        int[] px = coarse.pixels();
+        for (int y = 0; y < ch; y++) {
+            long rowSum = 0;
+            long rowSquares = 0;
+            for (int x = 0; x < cw; x++) {
+                int v = px[y * cw + x];
+                rowSum += v;
+                rowSquares += (long) v * v;
+                sum[(y + 1) * (cw + 1) + x + 1] = sum[y * (cw + 1) + x + 1] + rowSum;
+                squares[(y + 1) * (cw + 1) + x + 1] = squares[y * (cw + 1) + x + 1] + rowSquares;
+            }
+        }
+        float[] template = reference.template();
+        int n = tw * th;
+        double best = Double.NEGATIVE_INFINITY;
+        int bestX = 0;
+        int bestY = 0;
+        for (int oy = 0; oy + th <= ch; oy++) {
+            for (int ox = 0; ox + tw <= cw; ox++) {
+                double windowSum = boxSum(sum, cw + 1, ox, oy, tw, th);
+                double variance = boxSum(squares, cw + 1, ox, oy, tw, th) - windowSum * windowSum / n;
+                if (variance <= 0) {
+                    continue;
+                }
+                double dot = 0;
+                for (int ty = 0; ty < th; ty++) {
+                    int row = (oy + ty) * cw + ox;
+                    int templateRow = ty * tw;
+                    for (int tx = 0; tx < tw; tx++) {
+                        dot += template[templateRow + tx] * px[row + tx];
+                    }
+                }
+                double score = dot / Math.sqrt(variance);
+                if (score > best) {
+                    best = score;
+                    bestX = ox;
+                    bestY = oy;
+                }
+            }
+        }
+        return new Alignment(best, new Rectangle(bestX * COARSE, bestY * COARSE, tw * COARSE, th * COARSE));
+    }
+
+    private static double boxSum(long[] integral, int stride, int x, int y, int w, int h) {
+        return integral[(y + h) * stride + x + w] - integral[y * stride + x + w]
+                - integral[(y + h) * stride + x] + integral[y * stride + x];
+    }
+
+    /**
+     * Moves the reference to where it was found in {@code region}, keeping its template, so that
+     * slow drift of the camera is followed without a full-frame pass.
+     */
+    static Reference moveTo(Reference reference, Decoded region, Alignment alignment) {
+        int f = region.subsampling();
+        Rectangle area = new Rectangle(region.region().x + alignment.area().x * f,
+                region.region().y + alignment.area().y * f,
+                reference.area().width, reference.area().height);
+        return new Reference(reference.sourceWidth(), reference.sourceHeight(), f, area,
+                reference.template(), reference.templateWidth(), reference.templateHeight(),
+                reference.lightForeground());
+    }
+}
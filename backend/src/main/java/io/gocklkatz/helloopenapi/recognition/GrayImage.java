@@ -0,0 +1,28 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+/**
+ * An 8-bit grayscale image stored row by row, one {@code int} per pixel in {@code 0..255}.
+ */
+public record GrayImage(int width, int height, int[] pixels) {
+
+    public GrayImage {
+        if (pixels.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels but got " + pixels.length);
+        }
+    }
+
+    public int get(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    /**
+     * Copies the given rectangle, which must lie inside the image.
+     */
+    public GrayImage crop(int x, int y, int cropWidth, int cropHeight) {
+        int[] cropped = new int[cropWidth * cropHeight];
+        for (int row = 0; row < cropHeight; row++) {
+            System.arraycopy(pixels, (y + row) * width + x, cropped, row * cropWidth, cropWidth);
+        }
+        return new GrayImage(cropWidth, cropHeight, cropped);
+    }
+}
@@ -0,0 +1,86 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Decodes an encoded image straight into a {@link GrayImage}, subsampling rows and columns while
+ * decoding so that large camera photos never materialise at full resolution.
+ */
+public final class GrayImageDecoder {
+
+    /**
+     * A decoded image together with where it came from: {@code region} is the part of the
+     * {@code sourceWidth x sourceHeight} source that was decoded, every {@code subsampling}th pixel.
+     */
+    public record Decoded(GrayImage image, int sourceWidth, int sourceHeight, int subsampling, Rectangle region) {}
+
+    private GrayImageDecoder() {
+    }
+
+    /**
+     * @param maxDimension upper bound for the decoded width and height; the source is subsampled
+     *                     by the smallest integer factor that satisfies it
+     * @throws IOException if the bytes cannot be read or no ImageIO reader supports the format
+     */
+    public static GrayImage decode(InputStream encoded, int maxDimension) throws IOException {
+        return decode(encoded, maxDimension, null).image();
+    }
+
+    /**
+     * Decodes only {@code sourceRegion} (in source pixels, clipped to the image), or the whole
+     * image if it is {@code null}. The subsampling factor is chosen from the full source size, so
+     * a region decodes at the same scale as the whole frame would. Readers stop once the last row
+     * of the region is decoded, which makes regions near the top cheaper still.
+     */
+    public static Decoded decode(InputStream encoded, int maxDimension, Rectangle sourceRegion) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(encoded)) {
+            if (input == null) {
+                throw new IOException("Cannot create image input stream");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int factor = subsamplingFactor(width, height, maxDimension);
+                Rectangle region = new Rectangle(0, 0, width, height);
+                if (sourceRegion != null) {
+                    region = region.intersection(sourceRegion);
+                    if (region.isEmpty()) {
+                        throw new IOException("Region " + sourceRegion + " lies outside the " + width + "x" + height + " image");
+                    }
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return new Decoded(toGray(reader.read(0, param)), width, height, factor, region);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int subsamplingFactor(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        return Math.max(1, (longest + maxDimension - 1) / maxDimension);
+    }
+
+    public static GrayImage toGray(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+        return new GrayImage(width, height, PixelKernels.toGray(argb));
+    }
+}
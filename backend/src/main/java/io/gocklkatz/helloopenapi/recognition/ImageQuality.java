@@ -0,0 +1,44 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+
+/**
+ * Cheap measurements that tell whether a photo can be read at all, taken from a subsampled decode.
+ *
+ * @param sourceWidth    width of the encoded image
+ * @param sourceHeight   height of the encoded image
+ * @param sharpness      variance of the Laplacian of the decoded preview; drops as the photo blurs
+ * @param meanBrightness mean gray level in {@code [0, 255]}
+ * @param darkFraction   share of pixels at or below {@value #DARK}, crushed to black
+ * @param brightFraction share of pixels at or above {@value #BRIGHT}, blown out to white
+ */
+public record ImageQuality(int sourceWidth, int sourceHeight, double sharpness, double meanBrightness,
+                           double darkFraction, double brightFraction) {
+
+    static final int DARK = 8;
+    static final int BRIGHT = 247;
+
+    /**
+     * Measures a preview decoded with {@link GrayImageDecoder#decode(java.io.InputStream, int, java.awt.Rectangle)}.
+     * Sharpness depends on the preview's scale, so thresholds only carry over between previews
+     * decoded to the same size.
+     */
+    public static ImageQuality measure(Decoded preview) {
+        GrayImage image = preview.image();
+        int[] histogram = PixelKernels.histogram(image.pixels());
+        long sum = 0;
+        long dark = 0;
+        long bright = 0;
+        for (int level = 0; level < histogram.length; level++) {
+            sum += (long) level * histogram[level];
+            if (level <= DARK) {
+                dark += histogram[level];
+            } else if (level >= BRIGHT) {
+                bright += histogram[level];
+            }
+        }
+        double pixels = image.pixels().length;
+        return new ImageQuality(preview.sourceWidth(), preview.sourceHeight(),
+                PixelKernels.laplacianVariance(image), sum / pixels, dark / pixels, bright / pixels);
+    }
+}
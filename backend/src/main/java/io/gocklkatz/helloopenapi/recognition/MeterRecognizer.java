@@ -0,0 +1,209 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.DigitSegmenter.Segmentation;
+import io.gocklkatz.helloopenapi.recognition.DigitWindow.Alignment;
+import io.gocklkatz.helloopenapi.recognition.DigitWindow.Reference;
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Reads the odometer of a gas meter photo: decode to grayscale, binarise and segment the digit
+ * row, then classify each digit against fixed digit templates. Safe to call from several
+ * threads at once.
+ *
+ * <p>The camera is fixed, so once a photo has been read confidently the location of its digit
+ * row can be remembered in a caller's {@link RememberedWindow}. Later photos read with the same
+ * window decode and process only the area around it. The window is replaced by a full-frame pass
+ * whenever alignment or recognition confidence drops below the configured minimum. Without a
+ * window, or with {@code app.recognition.window.enabled=false}, every photo is read full-frame.
+ *
+ * <p>Callers can pass the {@link ValueRange} the meter can plausibly show. A reading outside it is
+ * replaced by the most probable digit string inside it. If that string is still doubtful, a
+ * window read falls back to the full frame.
+ */
+@Component
+public class MeterRecognizer {
+
+    /**
+     * Revision of the recognition algorithm. Bump it with every change that can alter results, so
+     * that cached results from the previous revision are no longer used.
+     */
+    static final int REVISION = 2;
+
+    /** Softmax temperature turning template correlations into per-digit probabilities. */
+    private static final double TEMPERATURE = 0.05;
+
+    /** Search margin around the remembered window, as a multiple of its height. */
+    private static final double SEARCH_MARGIN = 0.5;
+
+    private final int digitCount;
+    private final int fractionDigits;
+    private final int maxDimension;
+    private final boolean windowEnabled;
+    private final double minAlignment;
+    private final double minConfidence;
+    private final DigitSegmenter segmenter;
+    private final DigitClassifier classifier = new DigitClassifier();
+
+    private final Counter windowHits;
+    private final Counter windowMisses;
+    private final Counter priorPlausible;
+    private final Counter priorCorrected;
+
+    public MeterRecognizer(@Value("${app.recognition.digit-count:8}") int digitCount,
+                           @Value("${app.recognition.fraction-digits:3}") int fractionDigits,
+                           @Value("${app.recognition.max-dimension:1280}") int maxDimension,
+                           @Value("${app.recognition.window.enabled:true}") boolean windowEnabled,
+                           @Value("${app.recognition.window.min-alignment:0.6}") double minAlignment,
+                           @Value("${app.recognition.window.min-confidence:0.5}") double minConfidence,
+                           MeterRegistry meterRegistry) {
+        this.digitCount = digitCount;
+        this.fractionDigits = fractionDigits;
+        this.maxDimension = maxDimension;
+        this.windowEnabled = windowEnabled;
+        this.minAlignment = minAlignment;
+        this.minConfidence = minConfidence;
+        this.segmenter = new DigitSegmenter(digitCount);
+        this.windowHits = meterRegistry.counter("recognition.window", "result", "hit");
+        this.windowMisses = meterRegistry.counter("recognition.window", "result", "miss");
+        this.priorPlausible = meterRegistry.counter("recognition.prior", "result", "plausible");
+        this.priorCorrected = meterRegistry.counter("recognition.prior", "result", "corrected");
+    }
+
+    /**
+     * A result, and the per-position digit probabilities it was decoded from if the photo was read
+     * full-frame: empty if no digit row was found there, {@code null} if it was read in a window.
+     */
+    public record Outcome(RecognitionResult result, double[][] probabilities) {}
+
+    /**
+     * Identifies the algorithm revision and the settings that affect a full-frame read. Equal
+     * versions turn equal bytes into equal {@link Outcome#probabilities()}. Window reads depend on
+     * the window as well and are not covered.
+     */
+    public String version() {
+        return REVISION + "/" + digitCount + "." + fractionDigits + "/" + maxDimension;
+    }
+
+    /**
+     * @param plausible values the meter can show, or {@code null} if nothing is known
+     * @param window    where this caller's camera showed the digits before, updated by this read;
+     *                  {@code null} to read full-frame
+     * @throws IOException if the bytes are not an image ImageIO can decode
+     */
+    public Outcome read(InputStream encoded, ValueRange plausible, RememberedWindow window) throws IOException {
+        return read(encoded.readAllBytes(), plausible, window);
+    }
+
+    Outcome read(byte[] encoded, ValueRange plausible, RememberedWindow window) throws IOException {
+        Reference reference = windowEnabled && window != null ? window.reference() : null;
+        if (reference != null) {
+            RecognitionResult result = recognizeInWindow(encoded, reference, plausible, window);
+            if (result != null) {
+                windowHits.increment();
+                return new Outcome(result, null);
+            }
+            windowMisses.increment();
+        }
+        Decoded frame = GrayImageDecoder.decode(new ByteArrayInputStream(encoded), maxDimension, null);
+        Optional<Segmentation> segmentation = segmenter.segment(frame.image());
+        double[][] probabilities = segmentation.map(s -> classifier.probabilities(s, TEMPERATURE))
+                .orElse(new double[0][]);
+        RecognitionResult result = decode(probabilities, plausible);
+        if (windowEnabled && window != null && result.recognized() && result.confidence() >= minConfidence) {
+            window.remember(DigitWindow.capture(frame, segmentation.get()));
+        }
+        return new Outcome(result, probabilities);
+    }
+
+    /**
+     * Decodes and reads only the area around {@code reference}. Returns {@code null} if the
+     * photo does not match the reference closely enough or the digits read there are doubtful.
+     */
+    private RecognitionResult recognizeInWindow(byte[] encoded, Reference reference, ValueRange plausible,
+                                                RememberedWindow window) throws IOException {
+        Rectangle search = DigitWindow.searchRegion(reference, SEARCH_MARGIN);
+        Decoded region = GrayImageDecoder.decode(new ByteArrayInputStream(encoded), maxDimension, search);
+        if (region.sourceWidth() != reference.sourceWidth() || region.sourceHeight() != reference.sourceHeight()) {
+            return null;
+        }
+        Alignment alignment = DigitWindow.align(reference, region);
+        if (alignment == null || alignment.score() < minAlignment) {
+            return null;
+        }
+        Rectangle area = alignment.area();
+        GrayImage crop = region.image().crop(area.x, area.y, area.width, area.height);
+        RecognitionResult result = segmenter.segment(crop, reference.lightForeground())
+                .map(s -> decode(classifier.probabilities(s, TEMPERATURE), plausible))
+                .orElse(RecognitionResult.NOT_FOUND);
+        if (!result.recognized() || result.confidence() < minConfidence) {
+            return null;
+        }
+        window.remember(DigitWindow.moveTo(reference, region, alignment));
+        return result;
+    }
+
+    // Shorthands for tests and benchmarks; the application reads through read(InputStream, ...).
+
+    RecognitionResult recognize(InputStream encoded) throws IOException {
+        return read(encoded.readAllBytes(), null, null).result();
+    }
+
+    RecognitionResult recognize(byte[] encoded) throws IOException {
+        return read(encoded, null, null).result();
+    }
+
+    RecognitionResult recognize(byte[] encoded, ValueRange plausible, RememberedWindow window) throws IOException {
+        return read(encoded, plausible, window).result();
+    }
+
+    /**
+     * Full-frame recognition of an already decoded image.
+     */
+    RecognitionResult recognize(GrayImage image) {
+        return segmenter.segment(image)
+                .map(s -> decode(classifier.probabilities(s, TEMPERATURE), null))
+                .orElse(RecognitionResult.NOT_FOUND);
+    }
+
+    /**
+     * Reads the most probable digit at each position. If that value is not {@code plausible}, the
+     * most probable digit string inside the range is used instead; its lower joint probability
+     * becomes the confidence. Without any positions, no digit row was found.
+     */
+    public RecognitionResult decode(double[][] probabilities, ValueRange plausible) {
+        if (probabilities.length == 0) {
+            return RecognitionResult.NOT_FOUND;
+        }
+        int[] digits = DigitDecoder.argmax(probabilities);
+        double scale = Math.pow(10, fractionDigits);
+        if (plausible != null) {
+            if (plausible.contains(DigitDecoder.valueOf(digits) / scale)) {
+                priorPlausible.increment();
+            } else {
+                int[] constrained = DigitDecoder.constrained(probabilities,
+                        (long) Math.ceil(plausible.min() * scale - 1e-6),
+                        (long) Math.floor(plausible.max() * scale + 1e-6));
+                if (constrained != null) {
+                    priorCorrected.increment();
+                    digits = constrained;
+                }
+            }
+        }
+        StringBuilder text = new StringBuilder(digitCount);
+        for (int digit : digits) {
+            text.append(digit);
+        }
+        return new RecognitionResult(text.toString(), DigitDecoder.valueOf(digits) / scale,
+                DigitDecoder.probability(probabilities, digits));
+    }
+}
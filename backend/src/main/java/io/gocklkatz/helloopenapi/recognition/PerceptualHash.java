@@ -0,0 +1,63 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+/**
+ * Difference hash (dHash) of a photo: the image is area-averaged down to 9x8 cells and each bit
+ * records whether a cell is brighter than its right-hand neighbour. Photos of the same scene
+ * differ in a few bits at most, however they were scaled, compressed or exposed. Unrelated photos
+ * differ in about half of the 64 bits.
+ *
+ * <p>A cell only counts as brighter by more than {@value #TOLERANCE} gray levels. Without that
+ * margin, neighbouring cells on a plain meter housing flip on sensor noise and JPEG artefacts.
+ */
+public final class PerceptualHash {
+
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+    private static final double TOLERANCE = 2.0;
+
+    private PerceptualHash() {
+    }
+
+    public static long dHash(GrayImage image) {
+        double[] cells = resample(image);
+        long hash = 0;
+        for (int y = 0; y < ROWS; y++) {
+            for (int x = 0; x < COLUMNS - 1; x++) {
+                hash <<= 1;
+                if (cells[y * COLUMNS + x] > cells[y * COLUMNS + x + 1] + TOLERANCE) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /** Number of differing bits. */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * Averages the pixels falling into each cell. Cell edges are rounded to whole pixels, so
+     * every cell covers at least one pixel even for images smaller than the grid.
+     */
+    private static double[] resample(GrayImage image) {
+        double[] cells = new double[COLUMNS * ROWS];
+        for (int cy = 0; cy < ROWS; cy++) {
+            int y0 = cy * image.height() / ROWS;
+            int y1 = Math.max(y0 + 1, (cy + 1) * image.height() / ROWS);
+            for (int cx = 0; cx < COLUMNS; cx++) {
+                int x0 = cx * image.width() / COLUMNS;
+                int x1 = Math.max(x0 + 1, (cx + 1) * image.width() / COLUMNS);
+                long sum = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = x0; x < x1; x++) {
+                        sum += image.get(x, y);
+                    }
+                }
+                cells[cy * COLUMNS + cx] = (double) sum / ((y1 - y0) * (x1 - x0));
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,158 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+/**
+ * Inner-loop pixel operations of the recognition pipeline, over primitive arrays.
+ *
+ * <p>The per-pixel kernels run on {@link VectorKernels} when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and on the scalar loops here otherwise. Both produce
+ * identical results. Histogram and Otsu stay scalar; a histogram's scattered increments do not map
+ * onto vector lanes.
+ */
+final class PixelKernels {
+
+    /** Whether the Vector API module is resolved in this JVM. */
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private PixelKernels() {
+    }
+
+    /**
+     * Converts packed ARGB pixels to luma with the BT.601 weights in 8.8 fixed point.
+     */
+    static int[] toGray(int[] argb) {
+        return VECTORIZED ? VectorKernels.toGray(argb) : toGrayScalar(argb);
+    }
+
+    static int[] toGrayScalar(int[] argb) {
+        int[] gray = new int[argb.length];
+        for (int i = 0; i < argb.length; i++) {
+            int p = argb[i];
+            int r = (p >> 16) & 0xFF;
+            int g = (p >> 8) & 0xFF;
+            int b = p & 0xFF;
+            gray[i] = (77 * r + 150 * g + 29 * b) >> 8;
+        }
+        return gray;
+    }
+
+    static int[] histogram(int[] gray) {
+        int[] histogram = new int[256];
+        for (int v : gray) {
+            histogram[v]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Otsu's method: the threshold that maximises the between-class variance of the histogram.
+     * Pixels {@code <= threshold} form the dark class.
+     */
+    static int otsuThreshold(int[] gray) {
+        int[] histogram = histogram(gray);
+        long total = gray.length;
+        long weightedSum = 0;
+        for (int i = 0; i < 256; i++) {
+            weightedSum += (long) i * histogram[i];
+        }
+        long darkCount = 0;
+        long darkSum = 0;
+        double bestVariance = -1;
+        int best = 127;
+        for (int t = 0; t < 256; t++) {
+            darkCount += histogram[t];
+            if (darkCount == 0) {
+                continue;
+            }
+            long lightCount = total - darkCount;
+            if (lightCount == 0) {
+                break;
+            }
+            darkSum += (long) t * histogram[t];
+            double darkMean = (double) darkSum / darkCount;
+            double lightMean = (double) (weightedSum - darkSum) / lightCount;
+            double variance = (double) darkCount * lightCount * (darkMean - lightMean) * (darkMean - lightMean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Marks foreground pixels with {@code 1}: pixels above the threshold when {@code lightForeground},
+     * otherwise pixels at or below it.
+     */
+    static byte[] threshold(int[] gray, int threshold, boolean lightForeground) {
+        return VECTORIZED
+                ? VectorKernels.threshold(gray, threshold, lightForeground)
+                : thresholdScalar(gray, threshold, lightForeground);
+    }
+
+    static byte[] thresholdScalar(int[] gray, int threshold, boolean lightForeground) {
+        byte[] mask = new byte[gray.length];
+        for (int i = 0; i < gray.length; i++) {
+            boolean light = gray[i] > threshold;
+            mask[i] = (byte) (light == lightForeground ? 1 : 0);
+        }
+        return mask;
+    }
+
+    /**
+     * Averages {@code factor x factor} blocks; a partial block at the right or bottom edge is dropped.
+     */
+    static GrayImage downsample(GrayImage image, int factor) {
+        return VECTORIZED ? VectorKernels.downsample(image, factor) : downsampleScalar(image, factor);
+    }
+
+    static GrayImage downsampleScalar(GrayImage image, int factor) {
+        int width = image.width() / factor;
+        int height = image.height() / factor;
+        int[] src = image.pixels();
+        int[] dst = new int[width * height];
+        int area = factor * factor;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int sum = 0;
+                for (int dy = 0; dy < factor; dy++) {
+                    int row = (y * factor + dy) * image.width() + x * factor;
+                    for (int dx = 0; dx < factor; dx++) {
+                        sum += src[row + dx];
+                    }
+                }
+                dst[y * width + x] = sum / area;
+            }
+        }
+        return new GrayImage(width, height, dst);
+    }
+
+    /**
+     * Variance of the 4-neighbour Laplacian over the interior pixels: a sharpness score that
+     * drops as a photo gets blurrier, since blur flattens the second derivative at edges.
+     */
+    static double laplacianVariance(GrayImage image) {
+        return VECTORIZED ? VectorKernels.laplacianVariance(image) : laplacianVarianceScalar(image);
+    }
+
+    static double laplacianVarianceScalar(GrayImage image) {
+        int width = image.width();
+        int height = image.height();
+        if (width < 3 || height < 3) {
+            return 0;
+        }
+        int[] p = image.pixels();
+        long sum = 0;
+        long squares = 0;
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                int i = y * width + x;
+                int laplacian = 4 * p[i] - p[i - 1] - p[i + 1] - p[i - width] - p[i + width];
+                sum += laplacian;
+                squares += (long) laplacian * laplacian;
+            }
+        }
+        long count = (long) (width - 2) * (height - 2);
+        double mean = (double) sum / count;
+        return (double) squares / count - mean * mean;
+    }
+}
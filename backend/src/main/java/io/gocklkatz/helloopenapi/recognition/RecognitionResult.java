@@ -0,0 +1,17 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+/**
+ * Outcome of reading one meter photo.
+ *
+ * @param digits     recognised odometer digits, left to right, or {@code null} if no digit row was found
+ * @param value      the digits as a meter value with the configured number of fraction digits
+ * @param confidence product of the per-digit probabilities of the chosen digits, in {@code [0, 1]}
+ */
+public record RecognitionResult(String digits, Double value, double confidence) {
+
+    static final RecognitionResult NOT_FOUND = new RecognitionResult(null, null, 0);
+
+    public boolean recognized() {
+        return digits != null;
+    }
+}
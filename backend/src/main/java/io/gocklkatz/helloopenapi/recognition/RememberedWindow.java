@@ -0,0 +1,29 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.DigitWindow.Reference;
+
+/**
+ * Where {@link MeterRecognizer} last found the digit row of one fixed camera. It belongs to the
+ * caller, not to the recogniser, so a job reading old photos from another camera position cannot
+ * move the window that live uploads are read through. Safe to share between threads reading
+ * photos of the same camera.
+ */
+public final class RememberedWindow {
+
+    private volatile Reference reference;
+
+    Reference reference() {
+        return reference;
+    }
+
+    void remember(Reference reference) {
+        this.reference = reference;
+    }
+
+    /**
+     * Forgets the window, e.g. after the camera was moved, so the next photo is read full-frame.
+     */
+    public void reset() {
+        reference = null;
+    }
+}
@@ -0,0 +1,18 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+/**
+ * Meter values a photo can plausibly show, e.g. derived from the previous reading: the meter
+ * never runs backwards and only advances so far per day.
+ */
+public record ValueRange(double min, double max) {
+
+    public ValueRange {
+        if (min > max) {
+            throw new IllegalArgumentException("min " + min + " exceeds max " + max);
+        }
+    }
+
+    public boolean contains(double value) {
+        return value >= min && value <= max;
+    }
+}
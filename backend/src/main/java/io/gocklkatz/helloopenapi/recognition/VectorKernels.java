@@ -0,0 +1,168 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PixelKernels} written against the incubating Vector API, processing
+ * {@code IntVector.SPECIES_PREFERRED} pixels per instruction. Every method produces exactly the
+ * result of its scalar counterpart and finishes the last partial vector in scalar code.
+ *
+ * <p>Only loaded when {@link PixelKernels#VECTORIZED} is true, since referencing this class
+ * without {@code --add-modules jdk.incubator.vector} fails with a {@link NoClassDefFoundError}.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    /** Bytes with one lane per int lane, for narrowing masks; {@code null} below 64 bits. */
+    private static final VectorSpecies<Byte> BYTES = INTS.length() >= 8
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(INTS.length() * Byte.SIZE))
+            : null;
+
+    /** Vectors summed per lane before flushing; {@code 1024 * 1020^2} still fits in an int. */
+    private static final int FLUSH_VECTORS = 1024;
+
+    private VectorKernels() {
+    }
+
+    static int[] toGray(int[] argb) {
+        int[] gray = new int[argb.length];
+        int bound = INTS.loopBound(argb.length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            IntVector p = IntVector.fromArray(INTS, argb, i);
+            IntVector r = p.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+            IntVector g = p.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+            IntVector b = p.and(0xFF);
+            r.mul(77).add(g.mul(150)).add(b.mul(29))
+                    .lanewise(VectorOperators.ASHR, 8)
+                    .intoArray(gray, i);
+        }
+        for (; i < argb.length; i++) {
+            int p = argb[i];
+            gray[i] = (77 * ((p >> 16) & 0xFF) + 150 * ((p >> 8) & 0xFF) + 29 * (p & 0xFF)) >> 8;
+        }
+        return gray;
+    }
+
+    /**
+     * Computes {@code gray > threshold} as the sign bit of {@code threshold - gray}, exact for 8-bit
+     * pixels, and narrows the 0/1 ints to a byte species with the same lane count, a quarter of the
+     * width. A masked compare and blend is several times slower than the scalar loop on JDK 21.
+     * Falls back to the scalar loop with fewer than 8 int lanes, where no such byte species exists.
+     */
+    static byte[] threshold(int[] gray, int threshold, boolean lightForeground) {
+        if (BYTES == null) {
+            return PixelKernels.thresholdScalar(gray, threshold, lightForeground);
+        }
+        byte[] mask = new byte[gray.length];
+        int flip = lightForeground ? 0 : 1;
+        IntVector limit = IntVector.broadcast(INTS, threshold);
+        int bound = INTS.loopBound(gray.length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            limit.sub(IntVector.fromArray(INTS, gray, i))
+                    .lanewise(VectorOperators.LSHR, 31)
+                    .lanewise(VectorOperators.XOR, flip)
+                    .convertShape(VectorOperators.I2B, BYTES, 0)
+                    .reinterpretAsBytes()
+                    .intoArray(mask, i);
+        }
+        for (; i < gray.length; i++) {
+            mask[i] = (byte) ((gray[i] > threshold) == lightForeground ? 1 : 0);
+        }
+        return mask;
+    }
+
+    /**
+     * Sums each band of {@code factor} rows into one row with vector adds, then adds up the
+     * {@code factor}-wide blocks of that row in scalar code. The vertical pass touches every source
+     * pixel; the horizontal pass only {@code 1 / factor} of them.
+     */
+    static GrayImage downsample(GrayImage image, int factor) {
+        int srcWidth = image.width();
+        int width = srcWidth / factor;
+        int height = image.height() / factor;
+        int usedWidth = width * factor;
+        int[] src = image.pixels();
+        int[] dst = new int[width * height];
+        int[] band = new int[usedWidth];
+        int area = factor * factor;
+        int bound = INTS.loopBound(usedWidth);
+        for (int y = 0; y < height; y++) {
+            int top = y * factor * srcWidth;
+            int x = 0;
+            for (; x < bound; x += INTS.length()) {
+                IntVector sum = IntVector.fromArray(INTS, src, top + x);
+                for (int dy = 1; dy < factor; dy++) {
+                    sum = sum.add(IntVector.fromArray(INTS, src, top + dy * srcWidth + x));
+                }
+                sum.intoArray(band, x);
+            }
+            for (; x < usedWidth; x++) {
+                int sum = 0;
+                for (int dy = 0; dy < factor; dy++) {
+                    sum += src[top + dy * srcWidth + x];
+                }
+                band[x] = sum;
+            }
+            for (int bx = 0; bx < width; bx++) {
+                int sum = 0;
+                for (int dx = 0; dx < factor; dx++) {
+                    sum += band[bx * factor + dx];
+                }
+                dst[y * width + bx] = sum / area;
+            }
+        }
+        return new GrayImage(width, height, dst);
+    }
+
+    /**
+     * The Laplacian and its square are accumulated lane-wise in int vectors and reduced into long
+     * totals every {@value #FLUSH_VECTORS} vectors, before the squares could overflow an int.
+     */
+    static double laplacianVariance(GrayImage image) {
+        int width = image.width();
+        int height = image.height();
+        if (width < 3 || height < 3) {
+            return 0;
+        }
+        int[] p = image.pixels();
+        long sum = 0;
+        long squares = 0;
+        int bound = 1 + INTS.loopBound(width - 2);
+        for (int y = 1; y < height - 1; y++) {
+            int row = y * width;
+            int x = 1;
+            while (x < bound) {
+                int end = Math.min(bound, x + FLUSH_VECTORS * INTS.length());
+                IntVector blockSum = IntVector.zero(INTS);
+                IntVector blockSquares = IntVector.zero(INTS);
+                for (; x < end; x += INTS.length()) {
+                    int i = row + x;
+                    IntVector laplacian = IntVector.fromArray(INTS, p, i).mul(4)
+                            .sub(IntVector.fromArray(INTS, p, i - 1))
+                            .sub(IntVector.fromArray(INTS, p, i + 1))
+                            .sub(IntVector.fromArray(INTS, p, i - width))
+                            .sub(IntVector.fromArray(INTS, p, i + width));
+                    blockSum = blockSum.add(laplacian);
+                    blockSquares = blockSquares.add(laplacian.mul(laplacian));
+                }
+                sum += blockSum.reduceLanesToLong(VectorOperators.ADD);
+                squares += blockSquares.reduceLanesToLong(VectorOperators.ADD);
+            }
+            for (; x < width - 1; x++) {
+                int i = row + x;
+                int laplacian = 4 * p[i] - p[i - 1] - p[i + 1] - p[i - width] - p[i + width];
+                sum += laplacian;
+                squares += (long) laplacian * laplacian;
+            }
+        }
+        long count = (long) (width - 2) * (height - 2);
+        double mean = (double) sum / count;
+        return (double) squares / count - mean * mean;
+    }
+}
@@ -0,0 +1,91 @@
+package io.gocklkatz.helloopenapi.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The repository version, and the reading touched by each of the last {@code capacity} versions.
+ * Every save, update and delete records its reading's id and moves the version on by one.
+ * Recording and reading hold the same lock, so a reader never sees a version whose change has not
+ * been logged yet.
+ *
+ * <p>Entries sit in a ring indexed by version, so recording is O(1) and the oldest change is
+ * overwritten once the log is full.
+ */
+final class ChangeLog {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int capacity;
+    private final int[] ids;
+    private final boolean[] deleted;
+    private final long base;
+    private volatile long version;
+
+    /**
+     * @param base the version before the first change; later versions count up from it
+     */
+    ChangeLog(int capacity, long base) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.deleted = new boolean[capacity];
+        this.base = base;
+        this.version = base;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /** Logs a change to reading {@code id} and returns the new version. */
+    long record(int id, boolean removed) {
+        lock.lock();
+        try {
+            long next = version + 1;
+            int slot = slot(next);
+            ids[slot] = id;
+            deleted[slot] = removed;
+            version = next;
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The readings changed after version {@code since}, each listed once under its latest change.
+     * Empty if changes after {@code since} have already been overwritten, or {@code since} is not
+     * a version of this log.
+     */
+    Optional<ReadingRepository.Changes> since(long since) {
+        lock.lock();
+        try {
+            long current = version;
+            if (since > current || since < Math.max(base, current - capacity)) {
+                return Optional.empty();
+            }
+            Map<Integer, Boolean> latest = new LinkedHashMap<>();
+            for (long v = since + 1; v <= current; v++) {
+                int slot = slot(v);
+                latest.remove(ids[slot]);
+                latest.put(ids[slot], deleted[slot]);
+            }
+            List<Integer> saved = new ArrayList<>();
+            List<Integer> removed = new ArrayList<>();
+            latest.forEach((id, isDeleted) -> (isDeleted ? removed : saved).add(id));
+            return Optional.of(new ReadingRepository.Changes(current, saved, removed));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int slot(long version) {
+        return (int) Math.floorMod(version, (long) capacity);
+    }
+}
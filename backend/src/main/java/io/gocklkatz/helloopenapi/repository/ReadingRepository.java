@@ -2,11 +2,78 @@ package io.gocklkatz.helloopenapi.repository;
 
 import com.example.model.Reading;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ReadingRepository {
     Reading save(Reading reading);
     Optional<Reading> findById(Integer id);
     List<Reading> findAll();
+
+    /**
+     * Up to {@code limit} readings with an id greater than {@code afterId}, in id order; a cursor
+     * for walking all readings in pages. Readings become visible in id order, so a page holds every
+     * reading saved before its last one that has not been deleted since.
+     */
+    List<Reading> findAfterId(int afterId, int limit);
+
+    /**
+     * Applies {@code changes} to a copy of the stored reading and replaces it atomically, so
+     * readers never observe a half-updated reading. Returns the updated reading, or empty if no
+     * reading has that id.
+     */
+    Optional<Reading> update(Integer id, Consumer<Reading> changes);
+
+    /**
+     * {@link #update} for several readings in one call; ids without a reading are skipped.
+     */
+    void updateAll(Map<Integer, Consumer<Reading>> changes);
+
+    /**
+     * Readings with {@code from <= timestamp < to}, ordered by timestamp and then by id.
+     */
+    List<Reading> findByTimestampBetween(OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * The reading closest before {@code timestamp} that has a meter value read with at least
+     * {@code minConfidence}. Only recognised readings are searched, and of those only the
+     * {@value ReadingRepositoryImpl#MAX_RECOGNIZED_SKIPPED} nearest; empty if none of them qualifies.
+     */
+    Optional<Reading> findLatestRecognizedBefore(OffsetDateTime timestamp, double minConfidence);
+
+    /**
+     * The readings with a meter value, ordered by timestamp and then by id.
+     */
+    List<Reading> findRecognized();
+
+    /**
+     * Whether a reading with a meter value was taken after {@code timestamp}.
+     */
+    boolean hasRecognizedAfter(OffsetDateTime timestamp);
+
+    void deleteAllById(Collection<Integer> ids);
+
+    /**
+     * A counter that increases with every save, update and delete. Data derived from the readings
+     * is still current while this has not changed.
+     */
+    long version();
+
+    /**
+     * Ids of the readings saved, updated or deleted after version {@code since}, as of
+     * {@link Changes#version()}. Only recent changes are kept; empty if {@code since} is older than
+     * that, or is not a version of this repository at all, and the caller has to start again from
+     * {@link #findAll()}.
+     */
+    Optional<Changes> changesSince(long since);
+
+    /**
+     * @param saved ids of readings whose latest change was a save or update
+     * @param deleted ids of readings whose latest change was a delete
+     */
+    record Changes(long version, List<Integer> saved, List<Integer> deleted) {}
 }
@@ -1,26 +1,95 @@
 package io.gocklkatz.helloopenapi.repository;
 
 import com.example.model.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+/**
+ * Keeps readings in memory, by id and by timestamp, plus a second timestamp index of only the
+ * readings that have a meter value. Saves, updates and deletes hold one write lock while they
+ * change the maps, so two updates of the same reading cannot leave their copies in the timestamp
+ * indexes out of order, and a delete cannot race an update into bringing the reading back there.
+ * Reads go to the concurrent maps without the lock.
+ *
+ * <p>Each change is recorded in a {@link ChangeLog} of the last
+ * {@code app.readings-changes.window} versions. Versions start from the startup time in
+ * milliseconds times 1000. A version handed out before a restart is therefore lower than any
+ * current one, unless that run made more than a thousand changes per millisecond.
+ */
 @Repository
 public class ReadingRepositoryImpl implements ReadingRepository {
 
-    private final Map<Integer, Reading> store = new HashMap<>();
+    static final int DEFAULT_CHANGE_WINDOW = 10_000;
+
+    /**
+     * How many recognised readings {@link #findLatestRecognizedBefore} passes over for being
+     * doubtful before it gives up. A trusted value further back than that bounds little anyway.
+     */
+    static final int MAX_RECOGNIZED_SKIPPED = 64;
+
+    private final NavigableMap<Integer, Reading> store = new ConcurrentSkipListMap<>();
+    private final NavigableMap<TimestampKey, Reading> byTimestamp = new ConcurrentSkipListMap<>();
+    private final NavigableMap<TimestampKey, Reading> recognizedByTimestamp = new ConcurrentSkipListMap<>();
     private final AtomicInteger idSequence = new AtomicInteger(0);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ChangeLog changeLog;
+
+    public ReadingRepositoryImpl() {
+        this(DEFAULT_CHANGE_WINDOW);
+    }
+
+    @Autowired
+    public ReadingRepositoryImpl(@Value("${app.readings-changes.window:10000}") int changeWindow) {
+        this.changeLog = new ChangeLog(changeWindow, System.currentTimeMillis() * 1000);
+    }
+
+    /**
+     * Orders readings by instant, so readings taken at the same moment in different offsets sort
+     * together; the id keeps readings with identical timestamps apart.
+     */
+    private record TimestampKey(Instant at, int id) implements Comparable<TimestampKey> {
+        private static final Comparator<TimestampKey> ORDER =
+                Comparator.comparing(TimestampKey::at).thenComparingInt(TimestampKey::id);
+
+        static TimestampKey of(Reading reading) {
+            return new TimestampKey(reading.getTimestamp().toInstant(), reading.getId());
+        }
+
+        @Override
+        public int compareTo(TimestampKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
 
     @Override
     public Reading save(Reading reading) {
-        int id = idSequence.incrementAndGet();
-        Reading saved = new Reading(id, reading.getTimestamp(), reading.getImagePath());
-        store.put(id, saved);
+        Reading saved;
+        writeLock.lock();
+        try {
+            // assigned under the lock, so readings become visible in id order
+            int id = idSequence.incrementAndGet();
+            saved = copy(reading, id);
+            store.put(id, saved);
+            index(saved);
+            changeLog.record(id, false);
+        } finally {
+            writeLock.unlock();
+        }
         return saved;
     }
 
@@ -33,4 +102,114 @@ public class ReadingRepositoryImpl implements ReadingRepository {
     public List<Reading> findAll() {
         return new ArrayList<>(store.values());
     }
+
+    @Override
+    public List<Reading> findAfterId(int afterId, int limit) {
+        return store.tailMap(afterId, false).values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public Optional<Reading> update(Integer id, Consumer<Reading> changes) {
+        writeLock.lock();
+        try {
+            Reading current = store.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            Reading updated = copy(current, id);
+            changes.accept(updated);
+            store.put(id, updated);
+            unindex(current);
+            index(updated);
+            changeLog.record(id, false);
+            return Optional.of(updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateAll(Map<Integer, Consumer<Reading>> changes) {
+        changes.forEach(this::update);
+    }
+
+    @Override
+    public List<Reading> findByTimestampBetween(OffsetDateTime from, OffsetDateTime to) {
+        TimestampKey lower = new TimestampKey(from.toInstant(), Integer.MIN_VALUE);
+        TimestampKey upper = new TimestampKey(to.toInstant(), Integer.MIN_VALUE);
+        if (lower.compareTo(upper) >= 0) {
+            return List.of();
+        }
+        return new ArrayList<>(byTimestamp.subMap(lower, upper).values());
+    }
+
+    @Override
+    public Optional<Reading> findLatestRecognizedBefore(OffsetDateTime timestamp, double minConfidence) {
+        TimestampKey upper = new TimestampKey(timestamp.toInstant(), Integer.MIN_VALUE);
+        return recognizedByTimestamp.headMap(upper, false).descendingMap().values().stream()
+                .limit(MAX_RECOGNIZED_SKIPPED + 1L)
+                .filter(r -> (r.getConfidence() == null ? 0 : r.getConfidence()) >= minConfidence)
+                .findFirst();
+    }
+
+    @Override
+    public List<Reading> findRecognized() {
+        return new ArrayList<>(recognizedByTimestamp.values());
+    }
+
+    @Override
+    public boolean hasRecognizedAfter(OffsetDateTime timestamp) {
+        TimestampKey lower = new TimestampKey(timestamp.toInstant(), Integer.MAX_VALUE);
+        return !recognizedByTimestamp.tailMap(lower, false).isEmpty();
+    }
+
+    @Override
+    public void deleteAllById(Collection<Integer> ids) {
+        writeLock.lock();
+        try {
+            for (Integer id : ids) {
+                Reading removed = store.remove(id);
+                if (removed != null) {
+                    unindex(removed);
+                    changeLog.record(id, true);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long version() {
+        return changeLog.version();
+    }
+
+    @Override
+    public Optional<Changes> changesSince(long since) {
+        return changeLog.since(since);
+    }
+
+    /** Callers hold {@link #writeLock}. */
+    private void index(Reading reading) {
+        TimestampKey key = TimestampKey.of(reading);
+        byTimestamp.put(key, reading);
+        if (reading.getMeterValue() != null) {
+            recognizedByTimestamp.put(key, reading);
+        }
+    }
+
+    /** Callers hold {@link #writeLock}. */
+    private void unindex(Reading reading) {
+        TimestampKey key = TimestampKey.of(reading);
+        byTimestamp.remove(key);
+        recognizedByTimestamp.remove(key);
+    }
+
+    private static Reading copy(Reading reading, int id) {
+        Reading copy = new Reading(id, reading.getTimestamp(), reading.getImagePath());
+        copy.setChecksum(reading.getChecksum());
+        copy.setMeterValue(reading.getMeterValue());
+        copy.setConfidence(reading.getConfidence());
+        return copy;
+    }
 }
@@ -0,0 +1,191 @@
+package io.gocklkatz.helloopenapi.series;
+
+import com.example.model.Alert;
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Flags unusual consumption as readings are recognised. Each reading is compared with the nearest
+ * earlier recognised reading, and the interval between them is scored by its consumption rate in
+ * m³ per hour:
+ * <ul>
+ *   <li>{@code LEAK}: the interval lies within the night hours and the rate is above
+ *       {@code app.anomaly.night-max-rate}. Nothing should be burning then, so a steady flow
+ *       points to a leak.</li>
+ *   <li>{@code JUMP}: the rate is more than {@code app.anomaly.z-threshold} standard deviations
+ *       above the baseline for the interval's day of the week.</li>
+ * </ul>
+ *
+ * <p>The baselines are exponentially weighted moving averages and variances of the rate, with
+ * weight {@code app.anomaly.alpha}. There is one for each day of the week and one across all days.
+ * The overall one is used until a weekday has {@code app.anomaly.warmup} intervals of its own.
+ * Each reading costs two index lookups and a constant amount of arithmetic, and history is never
+ * re-read. That keeps the detector cheap during bulk backfills.
+ *
+ * <p>Readings are assumed to be recognised in timestamp order. A reading recognised after a later
+ * one, as when older photos are backfilled, is skipped: the consumption up to it was already
+ * scored and learned as part of the later reading's interval. Values rewritten by reprocessing
+ * are not scored again. The most recent {@code app.anomaly.capacity} alerts are kept in memory.
+ */
+@Component
+public class AnomalyDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(AnomalyDetector.class);
+
+    /** Rates within this fraction of the baseline are never unusual, however steady it has been. */
+    private static final double MIN_RELATIVE_SPREAD = 0.1;
+    private static final double MIN_SPREAD = 0.001;
+
+    /** Exponentially weighted mean and variance of a rate. */
+    private static final class Baseline {
+        long samples;
+        double mean;
+        double variance;
+
+        void add(double rate, double alpha) {
+            if (samples++ == 0) {
+                mean = rate;
+                return;
+            }
+            double diff = rate - mean;
+            double increment = alpha * diff;
+            mean += increment;
+            variance = (1 - alpha) * (variance + diff * increment);
+        }
+
+        double spread() {
+            return Math.max(Math.sqrt(variance), Math.max(MIN_RELATIVE_SPREAD * Math.abs(mean), MIN_SPREAD));
+        }
+    }
+
+    private final ReadingRepository readingRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double alpha;
+    private final double zThreshold;
+    private final int warmup;
+    private final Duration minInterval;
+    private final int nightStartHour;
+    private final int nightEndHour;
+    private final double nightMaxRate;
+    private final int capacity;
+
+    private final Baseline overall = new Baseline();
+    private final Baseline[] byWeekday = new Baseline[7];
+    private final Deque<Alert> alerts = new ArrayDeque<>();
+
+    public AnomalyDetector(ReadingRepository readingRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.anomaly.enabled:true}") boolean enabled,
+                           @Value("${app.anomaly.alpha:0.1}") double alpha,
+                           @Value("${app.anomaly.z-threshold:4}") double zThreshold,
+                           @Value("${app.anomaly.warmup:4}") int warmup,
+                           @Value("${app.anomaly.min-interval:PT1H}") Duration minInterval,
+                           @Value("${app.anomaly.night-start-hour:0}") int nightStartHour,
+                           @Value("${app.anomaly.night-end-hour:5}") int nightEndHour,
+                           @Value("${app.anomaly.night-max-rate:0.05}") double nightMaxRate,
+                           @Value("${app.anomaly.capacity:100}") int capacity) {
+        this.readingRepository = readingRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.alpha = alpha;
+        this.zThreshold = zThreshold;
+        this.warmup = warmup;
+        this.minInterval = minInterval;
+        this.nightStartHour = nightStartHour;
+        this.nightEndHour = nightEndHour;
+        this.nightMaxRate = nightMaxRate;
+        this.capacity = capacity;
+        for (int i = 0; i < byWeekday.length; i++) {
+            byWeekday[i] = new Baseline();
+        }
+    }
+
+    /**
+     * Scores the interval ending at a freshly recognised reading and learns from it. Intervals
+     * shorter than {@code app.anomaly.min-interval} and readings lower than the one before are
+     * skipped, since they are dominated by rounding and misreads. So are readings that already
+     * have a recognised successor.
+     */
+    public void accept(Reading reading) {
+        if (!enabled || reading.getMeterValue() == null) {
+            return;
+        }
+        if (readingRepository.hasRecognizedAfter(reading.getTimestamp())) {
+            log.debug("Reading {} was recognised after a later one; not scoring it", reading.getId());
+            return;
+        }
+        readingRepository.findLatestRecognizedBefore(reading.getTimestamp(), 0)
+                .ifPresent(previous -> accept(previous, reading));
+    }
+
+    private synchronized void accept(Reading previous, Reading reading) {
+        Duration interval = Duration.between(previous.getTimestamp(), reading.getTimestamp());
+        double used = reading.getMeterValue() - previous.getMeterValue();
+        if (interval.compareTo(minInterval) < 0 || used < 0) {
+            return;
+        }
+        double rate = used / (interval.toMillis() / (double) Duration.ofHours(1).toMillis());
+        OffsetDateTime midpoint = previous.getTimestamp().plus(interval.dividedBy(2))
+                .withOffsetSameInstant(reading.getTimestamp().getOffset());
+        Baseline weekday = byWeekday[midpoint.getDayOfWeek().ordinal()];
+
+        if (isNight(previous.getTimestamp(), reading.getTimestamp()) && rate > nightMaxRate) {
+            raise(Alert.TypeEnum.LEAK, reading, rate, nightMaxRate, String.format(Locale.ROOT,
+                    "Gas used during the night: %.3f m3/h between %s and %s",
+                    rate, previous.getTimestamp(), reading.getTimestamp()));
+        } else {
+            Baseline baseline = weekday.samples >= warmup ? weekday : overall;
+            if (baseline.samples >= warmup) {
+                double expected = baseline.mean + zThreshold * baseline.spread();
+                if (rate > expected) {
+                    raise(Alert.TypeEnum.JUMP, reading, rate, expected, String.format(Locale.ROOT,
+                            "Consumption of %.3f m3/h is far above the usual %.3f m3/h for a %s",
+                            rate, baseline.mean, midpoint.getDayOfWeek().name().toLowerCase(Locale.ROOT)));
+                }
+            }
+        }
+        weekday.add(rate, alpha);
+        overall.add(rate, alpha);
+    }
+
+    /**
+     * Whether the interval lies within a single night window, in the reading's own offset. The
+     * window may span midnight, such as 22 to 5.
+     */
+    private boolean isNight(OffsetDateTime from, OffsetDateTime to) {
+        OffsetDateTime nightEnd = to.toLocalDate().atTime(nightEndHour, 0).atOffset(to.getOffset());
+        if (to.isAfter(nightEnd)) {
+            nightEnd = nightEnd.plusDays(1);
+        }
+        OffsetDateTime nightStart = nightEnd.minusHours(Math.floorMod(nightEndHour - nightStartHour, 24));
+        return !from.isBefore(nightStart) && !to.isAfter(nightEnd);
+    }
+
+    private void raise(Alert.TypeEnum type, Reading reading, double rate, double expectedRate, String message) {
+        log.warn("Reading {}: {}", reading.getId(), message);
+        meterRegistry.counter("anomaly.alerts", "type", type.getValue().toLowerCase(Locale.ROOT)).increment();
+        alerts.addFirst(new Alert(type, reading.getId(), reading.getTimestamp(), rate, expectedRate, message));
+        while (alerts.size() > capacity) {
+            alerts.removeLast();
+        }
+    }
+
+    /** Recent alerts, newest first. */
+    public synchronized List<Alert> alerts() {
+        return new ArrayList<>(alerts);
+    }
+}
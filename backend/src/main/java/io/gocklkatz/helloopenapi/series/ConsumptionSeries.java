@@ -0,0 +1,135 @@
+package io.gocklkatz.helloopenapi.series;
+
+import com.example.model.Consumption;
+import com.example.model.Crossing;
+import com.example.model.Reading;
+import com.example.model.SeriesPoint;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The recognised meter values as a {@link TimeSeries}, for drawing charts and totalling periods
+ * without loading the readings for every request.
+ *
+ * <p>The series is built from the repository on first use. It is rebuilt the next time it is
+ * queried after {@link ReadingRepository#version()} has moved on. Concurrent queries share one
+ * rebuild; the lock is a {@link ReentrantLock}, so queries on virtual threads do not pin their
+ * carriers while they wait. Only recognised readings are included, taken from the repository's
+ * index of them.
+ */
+@Component
+public class ConsumptionSeries {
+
+    private record Snapshot(long version, TimeSeries series, OffsetDateTime[] timestamps) {}
+
+    private final ReadingRepository readingRepository;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public ConsumptionSeries(ReadingRepository readingRepository) {
+        this.readingRepository = readingRepository;
+    }
+
+    /**
+     * Meter values with {@code from <= timestamp < to}, reduced to at most {@code points} points
+     * with {@link TimeSeries#downsample}. A {@code null} bound leaves that end of the range open.
+     */
+    public List<SeriesPoint> query(OffsetDateTime from, OffsetDateTime to, int points) {
+        Snapshot current = current();
+        TimeSeries series = current.series();
+        int start = from == null ? 0 : series.lowerBound(from.toInstant().toEpochMilli());
+        int end = to == null ? series.size() : series.lowerBound(to.toInstant().toEpochMilli());
+        if (start >= end) {
+            return List.of();
+        }
+        double base = series.value(start);
+        List<SeriesPoint> result = new ArrayList<>();
+        for (int index : series.downsample(start, end, points)) {
+            result.add(new SeriesPoint(current.timestamps()[index], series.value(index),
+                    series.value(index) - base));
+        }
+        return result;
+    }
+
+    /**
+     * Gas used from {@code from} to {@code to}, from {@link TimeSeries#increase}. Two index lookups
+     * and an interpolation at each end, however many readings lie in between.
+     *
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public Consumption consumption(OffsetDateTime from, OffsetDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        TimeSeries series = current().series();
+        long start = from.toInstant().toEpochMilli();
+        long end = to.toInstant().toEpochMilli();
+        boolean complete = series.size() > 0
+                && series.millis(0) <= start && end <= series.millis(series.size() - 1);
+        return new Consumption(from, to, series.increase(start, end), complete);
+    }
+
+    /**
+     * When the meter passed {@code value}, from {@link TimeSeries#firstReaching}. Empty if no
+     * reading reaches the value, or if the first reading is already above it so the crossing
+     * happened before recording started.
+     */
+    public Optional<Crossing> crossing(double value) {
+        Snapshot current = current();
+        TimeSeries series = current.series();
+        int index = series.firstReaching(value);
+        if (index == series.size() || (index == 0 && series.value(0) > value)) {
+            return Optional.empty();
+        }
+        OffsetDateTime latest = current.timestamps()[index];
+        OffsetDateTime earliest = current.timestamps()[Math.max(index - 1, 0)];
+        OffsetDateTime at = OffsetDateTime.ofInstant(
+                Instant.ofEpochMilli(series.crossingMillis(index, value)), latest.getOffset());
+        return Optional.of(new Crossing(value, at, earliest, latest));
+    }
+
+    private Snapshot current() {
+        long version = readingRepository.version();
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            if (current == null || current.version() != readingRepository.version()) {
+                current = build();
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the version before the readings, so a change made while building leaves the
+     * snapshot marked as stale rather than hiding it.
+     */
+    private Snapshot build() {
+        long version = readingRepository.version();
+        List<Reading> recognised = readingRepository.findRecognized();
+        long[] millis = new long[recognised.size()];
+        double[] values = new double[recognised.size()];
+        OffsetDateTime[] timestamps = new OffsetDateTime[recognised.size()];
+        for (int i = 0; i < recognised.size(); i++) {
+            Reading reading = recognised.get(i);
+            millis[i] = reading.getTimestamp().toInstant().toEpochMilli();
+            values[i] = reading.getMeterValue();
+            timestamps[i] = reading.getTimestamp();
+        }
+        return new Snapshot(version, new TimeSeries(millis, values), timestamps);
+    }
+}
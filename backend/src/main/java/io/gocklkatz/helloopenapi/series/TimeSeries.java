@@ -0,0 +1,229 @@
+package io.gocklkatz.helloopenapi.series;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, time-ordered series of values in primitive arrays. Running sums of time and value
+ * are stored next to the points, so the mean of any run of points takes O(1).
+ *
+ * <p>For meter values, a running sum of the increases between consecutive points answers "how much
+ * between two instants" with two lookups, see {@link #increase}. Each lookup first finds the UTC
+ * day in a sorted index of the days that have points, then searches only that day's points. The
+ * index grows with the number of points, not with the calendar span, so a single reading with a
+ * mistyped year costs one entry.
+ *
+ * <p>A running maximum of the values is non-decreasing even when a misread dips below an earlier
+ * value, so "when was this value first reached" is a binary search, see {@link #firstReaching}.
+ *
+ * <p>Times are epoch milliseconds. Sums and triangle areas are calculated relative to the first
+ * point, which keeps decades of milliseconds well within double precision.
+ */
+public final class TimeSeries {
+
+    private static final long DAY = 86_400_000L;
+
+    private final long[] millis;
+    private final double[] values;
+    private final double[] timeSums;
+    private final double[] valueSums;
+    private final double[] increases;
+    private final double[] runningMax;
+    private final long[] days;
+    private final int[] dayStarts;
+
+    /**
+     * @param millis timestamps in ascending order
+     * @param values value at each timestamp
+     */
+    public TimeSeries(long[] millis, double[] values) {
+        if (millis.length != values.length) {
+            throw new IllegalArgumentException("millis and values differ in length");
+        }
+        this.millis = millis;
+        this.values = values;
+        this.timeSums = new double[millis.length + 1];
+        this.valueSums = new double[millis.length + 1];
+        this.increases = new double[millis.length];
+        this.runningMax = new double[millis.length];
+        for (int i = 0; i < millis.length; i++) {
+            runningMax[i] = i == 0 ? values[0] : Math.max(runningMax[i - 1], values[i]);
+            timeSums[i + 1] = timeSums[i] + x(i);
+            valueSums[i + 1] = valueSums[i] + values[i];
+            if (i > 0) {
+                increases[i] = increases[i - 1] + Math.max(0, values[i] - values[i - 1]);
+            }
+        }
+        int dayCount = 0;
+        for (int i = 0; i < millis.length; i++) {
+            if (i == 0 || Math.floorDiv(millis[i], DAY) != Math.floorDiv(millis[i - 1], DAY)) {
+                dayCount++;
+            }
+        }
+        this.days = new long[dayCount];
+        this.dayStarts = new int[dayCount + 1];
+        indexDays();
+    }
+
+    /**
+     * {@code days[d]} is the {@code d}-th UTC day with points, as days since the epoch, and
+     * {@code dayStarts[d]} the index of its first point. One extra entry in {@code dayStarts} holds
+     * {@link #size()}.
+     */
+    private void indexDays() {
+        int day = 0;
+        for (int i = 0; i < millis.length; i++) {
+            long epochDay = Math.floorDiv(millis[i], DAY);
+            if (i == 0 || epochDay != days[day - 1]) {
+                days[day] = epochDay;
+                dayStarts[day++] = i;
+            }
+        }
+        dayStarts[day] = millis.length;
+    }
+
+    public int size() {
+        return millis.length;
+    }
+
+    public long millis(int index) {
+        return millis[index];
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    /** Index of the first point at or after {@code at}, or {@link #size()} if there is none. */
+    public int lowerBound(long at) {
+        if (millis.length == 0 || at <= millis[0]) {
+            return 0;
+        }
+        if (at > millis[millis.length - 1]) {
+            return millis.length;
+        }
+        int day = Arrays.binarySearch(days, Math.floorDiv(at, DAY));
+        if (day < 0) {
+            return dayStarts[-day - 1];
+        }
+        int low = dayStarts[day];
+        int high = dayStarts[day + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (millis[mid] < at) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first point whose value reaches {@code value}, ignoring points that dip below
+     * an earlier maximum, or {@link #size()} if no point does. O(log n).
+     */
+    public int firstReaching(double value) {
+        int low = 0;
+        int high = runningMax.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (runningMax[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * When the value passed {@code value}, where {@code index} is {@link #firstReaching} for it.
+     * Interpolates linearly from the point before {@code index} to the point at {@code index}. The
+     * earlier point counts at the running maximum, since the meter cannot have been lower.
+     */
+    public long crossingMillis(int index, double value) {
+        if (index == 0) {
+            return millis[0];
+        }
+        double below = runningMax[index - 1];
+        double fraction = (value - below) / (values[index] - below);
+        return millis[index - 1] + Math.round(fraction * (millis[index] - millis[index - 1]));
+    }
+
+    /**
+     * How much the value rose between {@code from} and {@code to}. Between two points the value is
+     * interpolated linearly; before the first and after the last point it is held constant.
+     * Decreases between consecutive points count as zero, so a misread dip or a replaced meter
+     * starting again from zero does not subtract from the total.
+     */
+    public double increase(long from, long to) {
+        return increaseAt(to) - increaseAt(from);
+    }
+
+    private double increaseAt(long at) {
+        int next = lowerBound(at);
+        if (next == millis.length) {
+            return millis.length == 0 ? 0 : increases[next - 1];
+        }
+        if (next == 0 || millis[next] == at) {
+            return increases[next];
+        }
+        int previous = next - 1;
+        double fraction = (double) (at - millis[previous]) / (millis[next] - millis[previous]);
+        return increases[previous] + fraction * (increases[next] - increases[previous]);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets: picks at most {@code threshold} of the points in
+     * {@code [from, to)} so that a line through them keeps the shape of the full series. The first
+     * and last point are always kept. Each bucket in between contributes the point forming the
+     * largest triangle with the point chosen before it and the mean of the next bucket.
+     *
+     * <p>Bucket means come from the running sums. Finding each bucket's point still visits every
+     * point in the range once, on primitive arrays.
+     *
+     * @return indices of the chosen points, ascending
+     */
+    public int[] downsample(int from, int to, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("threshold must be at least 3");
+        }
+        int count = to - from;
+        if (count <= threshold) {
+            int[] all = new int[Math.max(count, 0)];
+            Arrays.setAll(all, i -> from + i);
+            return all;
+        }
+        int[] selected = new int[threshold];
+        selected[0] = from;
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int previous = from;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = from + (int) (bucket * bucketSize) + 1;
+            int end = from + (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min(from + (int) ((bucket + 2) * bucketSize) + 1, to);
+            double meanX = (timeSums[nextEnd] - timeSums[end]) / (nextEnd - end);
+            double meanY = (valueSums[nextEnd] - valueSums[end]) / (nextEnd - end);
+
+            double ax = x(previous);
+            double ay = values[previous];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - meanX) * (values[i] - ay) - (ax - x(i)) * (meanY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            selected[bucket + 1] = chosen;
+            previous = chosen;
+        }
+        selected[threshold - 1] = to - 1;
+        return selected;
+    }
+
+    private double x(int index) {
+        return millis[index] - millis[0];
+    }
+}
@@ -0,0 +1,103 @@
+package io.gocklkatz.helloopenapi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link CompletableFuture} variants of the {@link ImageStorageService} operations, run on a
+ * bounded pool so that blocking disk or S3 calls never tie up the caller's thread. Works the same
+ * for every storage backend. When the pool's queue is full the returned future fails with a
+ * {@link RejectedExecutionException} instead of the call blocking.
+ *
+ * <p>With {@code spring.threads.virtual.enabled} each call runs on a virtual thread of its own
+ * instead. At most {@code threads + queue-capacity} calls are in flight at once; further calls are
+ * rejected in the same way.
+ */
+@Service
+public class AsyncImageStorageService {
+
+    private final ImageStorageService imageStorageService;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+
+    public AsyncImageStorageService(ImageStorageService imageStorageService,
+                                    @Value("${app.image-storage.async.threads:8}") int threads,
+                                    @Value("${app.image-storage.async.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.imageStorageService = imageStorageService;
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-storage-", 0).factory());
+            this.inFlight = new Semaphore(threads + queueCapacity);
+        } else {
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    Thread.ofPlatform().name("image-storage-", 0).daemon().factory());
+            this.inFlight = null;
+        }
+    }
+
+    /**
+     * The upload must stay readable until the future completes, so callers handling a request
+     * have to wait for it before the request ends.
+     */
+    public CompletableFuture<String> store(MultipartFile image, ImageFormat format, OffsetDateTime timestamp) {
+        return submit(() -> imageStorageService.store(image, format, timestamp));
+    }
+
+    public CompletableFuture<InputStream> open(String path) {
+        return submit(() -> imageStorageService.open(path));
+    }
+
+    public CompletableFuture<InputStream> openRange(String path, long offset, long length) {
+        return submit(() -> imageStorageService.openRange(path, offset, length));
+    }
+
+    public CompletableFuture<Boolean> exists(String path) {
+        return submit(() -> imageStorageService.exists(path));
+    }
+
+    public CompletableFuture<Set<String>> delete(Collection<String> paths) {
+        return submit(() -> imageStorageService.delete(paths));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        if (inFlight == null) {
+            try {
+                return CompletableFuture.supplyAsync(operation, executor);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many image storage calls in flight"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(operation, executor).whenComplete((result, error) -> inFlight.release());
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
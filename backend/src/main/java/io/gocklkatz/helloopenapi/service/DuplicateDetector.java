@@ -0,0 +1,84 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImage;
+import io.gocklkatz.helloopenapi.recognition.PerceptualHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Recognises photos that show the same scene as a reading taken shortly before, such as the
+ * second and third shot of a burst. Each upload's preview is hashed with
+ * {@link PerceptualHash#dHash}. The hash is compared against the last
+ * {@code app.dedup.capacity} readings whose timestamps lie within {@code app.dedup.window}.
+ *
+ * <p>The window is what keeps days apart. A mounted camera produces near-identical hashes every
+ * day, because a turned digit wheel barely changes a 9x8 thumbnail. Keep the window shorter than
+ * the interval between scheduled shots.
+ *
+ * <p>Two uploads of the same scene that race each other can both be stored; the index only knows
+ * readings that have been saved.
+ */
+@Component
+public class DuplicateDetector {
+
+    private record Entry(long hash, OffsetDateTime timestamp, int readingId) {}
+
+    private final boolean enabled;
+    private final int maxDistance;
+    private final Duration window;
+    private final Entry[] recent;
+    private int next;
+
+    private final Counter duplicateCount;
+
+    public DuplicateDetector(MeterRegistry meterRegistry,
+                             @Value("${app.dedup.enabled:true}") boolean enabled,
+                             @Value("${app.dedup.max-distance:6}") int maxDistance,
+                             @Value("${app.dedup.window:PT2M}") Duration window,
+                             @Value("${app.dedup.capacity:64}") int capacity) {
+        this.enabled = enabled;
+        this.maxDistance = maxDistance;
+        this.window = window;
+        this.recent = new Entry[capacity];
+        this.duplicateCount = meterRegistry.counter("dedup.duplicates");
+    }
+
+    /**
+     * The preview's perceptual hash, or empty if detection is disabled.
+     */
+    public OptionalLong hash(GrayImage preview) {
+        return enabled ? OptionalLong.of(PerceptualHash.dHash(preview)) : OptionalLong.empty();
+    }
+
+    /**
+     * The id of the most recently remembered reading within the time window whose hash is at most
+     * {@code app.dedup.max-distance} bits away.
+     */
+    public synchronized Optional<Integer> findDuplicate(long hash, OffsetDateTime timestamp) {
+        for (int i = 1; i <= recent.length; i++) {
+            Entry entry = recent[Math.floorMod(next - i, recent.length)];
+            if (entry == null) {
+                break;
+            }
+            if (PerceptualHash.distance(hash, entry.hash()) <= maxDistance
+                    && Duration.between(entry.timestamp(), timestamp).abs().compareTo(window) <= 0) {
+                duplicateCount.increment();
+                return Optional.of(entry.readingId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Adds a stored reading to the index, evicting the oldest entry once it is full. */
+    public synchronized void remember(long hash, OffsetDateTime timestamp, int readingId) {
+        recent[next] = new Entry(hash, timestamp, readingId);
+        next = (next + 1) % recent.length;
+    }
+}
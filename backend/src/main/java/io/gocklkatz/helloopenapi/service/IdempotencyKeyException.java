@@ -0,0 +1,21 @@
+package io.gocklkatz.helloopenapi.service;
+
+/**
+ * An {@code Idempotency-Key} that cannot be honoured: the first request with it is still running,
+ * or it was sent before with a different request.
+ */
+public class IdempotencyKeyException extends RuntimeException {
+
+    public enum Reason { IN_PROGRESS, MISMATCH }
+
+    private final Reason reason;
+
+    public IdempotencyKeyException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,157 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the reading created for each {@code Idempotency-Key} on {@code POST /readings}, so a
+ * client retrying an upload whose response it never received gets the same reading back instead
+ * of a second one. The retried photo is not checked, stored or recognised again.
+ *
+ * <p>A key is taken when its first request starts. While that request runs, the same key is
+ * refused as {@link IdempotencyKeyException.Reason#IN_PROGRESS}. If the request fails, the key is
+ * released and a retry runs normally. A key is bound to the upload's timestamp; reusing it for
+ * another timestamp is refused as {@link IdempotencyKeyException.Reason#MISMATCH}. The image is
+ * not compared, since that would mean reading it.
+ *
+ * <p>Keys are kept in memory for {@code app.idempotency.ttl} after the upload succeeded, and at most
+ * {@code app.idempotency.max-keys} of them; beyond that the oldest are forgotten first. The
+ * readings themselves live in memory too, so nothing would be gained by keeping keys across a
+ * restart. Replayed responses are counted in {@code idempotency.replays}.
+ */
+@Component
+public class IdempotencyKeys {
+
+    /** The reading for a key, and whether it was created by an earlier request. */
+    public record Outcome(Reading reading, boolean replayed) {}
+
+    /** {@code reading} is null while the first request is still running. */
+    private record Entry(String fingerprint, Instant at, Reading reading) {}
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final int maxKeys;
+    private final Counter replays;
+
+    /** In the order keys were taken or completed, so the oldest entry is always first. */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public IdempotencyKeys(MeterRegistry meterRegistry,
+                           @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                           @Value("${app.idempotency.max-keys:10000}") int maxKeys) {
+        this(Clock.systemUTC(), meterRegistry, ttl, maxKeys);
+    }
+
+    IdempotencyKeys(Clock clock, MeterRegistry meterRegistry, Duration ttl, int maxKeys) {
+        this.clock = clock;
+        this.ttl = ttl;
+        this.maxKeys = maxKeys;
+        this.replays = meterRegistry.counter("idempotency.replays");
+    }
+
+    /**
+     * Runs {@code create} unless {@code key} has already produced a reading, in which case that
+     * reading is returned.
+     *
+     * @param fingerprint what identifies the request apart from the key, such as its timestamp
+     * @throws IdempotencyKeyException if the key's first request is still running, or the key was
+     *                                 used with a different fingerprint
+     */
+    public Outcome execute(String key, String fingerprint, Supplier<Reading> create) {
+        Entry taken;
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            forgetExpired(now);
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.fingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyException(IdempotencyKeyException.Reason.MISMATCH,
+                            "Idempotency-Key was already used for a different upload");
+                }
+                if (existing.reading() == null) {
+                    throw new IdempotencyKeyException(IdempotencyKeyException.Reason.IN_PROGRESS,
+                            "An upload with this Idempotency-Key is still being processed");
+                }
+                replays.increment();
+                return new Outcome(existing.reading(), true);
+            }
+            taken = new Entry(fingerprint, now, null);
+            put(key, taken);
+        } finally {
+            lock.unlock();
+        }
+
+        Reading reading;
+        try {
+            reading = create.get();
+        } catch (RuntimeException | Error e) {
+            lock.lock();
+            try {
+                entries.remove(key, taken);
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            entries.remove(key);
+            put(key, new Entry(fingerprint, clock.instant(), reading));
+        } finally {
+            lock.unlock();
+        }
+        return new Outcome(reading, false);
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (entries.size() > maxKeys) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Drops completed entries older than the ttl from the front. Keys of requests still running
+     * are kept however long they take.
+     */
+    private void forgetExpired(Instant now) {
+        Instant cutoff = now.minus(ttl);
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry entry = oldest.next();
+            if (!entry.at().isBefore(cutoff)) {
+                return;
+            }
+            if (entry.reading() != null) {
+                oldest.remove();
+            }
+        }
+    }
+}
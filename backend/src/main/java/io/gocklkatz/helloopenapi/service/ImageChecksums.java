@@ -0,0 +1,26 @@
+package io.gocklkatz.helloopenapi.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 checksums of stored image bytes, recorded at ingest and re-checked by {@link ImageScrubber}.
+ */
+final class ImageChecksums {
+
+    private ImageChecksums() {
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
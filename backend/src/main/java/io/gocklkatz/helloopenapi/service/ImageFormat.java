@@ -0,0 +1,72 @@
+package io.gocklkatz.helloopenapi.service;
+
+import java.util.Optional;
+
+/**
+ * Image formats accepted for upload, recognised by their file signature rather than by the
+ * client-supplied content type.
+ */
+public enum ImageFormat {
+    JPEG("image/jpeg", ".jpg"),
+    PNG("image/png", ".png"),
+    GIF("image/gif", ".gif"),
+    WEBP("image/webp", ".webp");
+
+    /** Number of leading bytes needed to recognise every supported format. */
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_SIGNATURE = {'G', 'I', 'F', '8', '7', 'a'};
+    private static final byte[] GIF89_SIGNATURE = {'G', 'I', 'F', '8', '9', 'a'};
+    private static final byte[] RIFF_SIGNATURE = {'R', 'I', 'F', 'F'};
+    private static final byte[] WEBP_SIGNATURE = {'W', 'E', 'B', 'P'};
+
+    private final String contentType;
+    private final String extension;
+
+    ImageFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Detects the format from the first bytes of an image. Only the first {@link #HEADER_LENGTH}
+     * bytes are inspected; shorter arrays are accepted and simply match fewer formats.
+     */
+    public static Optional<ImageFormat> detect(byte[] header) {
+        if (startsWith(header, 0, JPEG_SIGNATURE)) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(header, 0, PNG_SIGNATURE)) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(header, 0, GIF87_SIGNATURE) || startsWith(header, 0, GIF89_SIGNATURE)) {
+            return Optional.of(GIF);
+        }
+        if (startsWith(header, 0, RIFF_SIGNATURE) && startsWith(header, 8, WEBP_SIGNATURE)) {
+            return Optional.of(WEBP);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (data[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package io.gocklkatz.helloopenapi.service;
+
+/**
+ * An upload that is too small, too blurred or badly exposed to read the meter from. Raised before
+ * anything is stored.
+ */
+public class ImageQualityException extends RuntimeException {
+
+    public enum Reason { RESOLUTION, BLUR, EXPOSURE }
+
+    private final Reason reason;
+
+    public ImageQualityException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,82 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+import io.gocklkatz.helloopenapi.recognition.ImageQuality;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Rejects uploads that cannot be read: too few pixels, too blurred, or too dark or bright. Runs on
+ * the upload preview before anything is stored, so a rejected photo costs no storage and no
+ * recognition. Rejections are counted in {@code quality.rejections}, tagged with the reason.
+ *
+ * <p>{@code app.quality.min-sharpness} applies to the Laplacian variance of the
+ * {@value ReadingServiceImpl#PREVIEW_SIZE}-pixel preview. On a sharp 2 MP meter photo it is in the
+ * thousands; a 9-pixel box blur brings it near 100.
+ */
+@Component
+public class ImageQualityGate {
+
+    private final boolean enabled;
+    private final int minLongSide;
+    private final int minShortSide;
+    private final double minSharpness;
+    private final double minBrightness;
+    private final double maxBrightness;
+    private final double maxClippedFraction;
+    private final MeterRegistry meterRegistry;
+
+    public ImageQualityGate(MeterRegistry meterRegistry,
+                            @Value("${app.quality.enabled:true}") boolean enabled,
+                            @Value("${app.quality.min-long-side:640}") int minLongSide,
+                            @Value("${app.quality.min-short-side:480}") int minShortSide,
+                            @Value("${app.quality.min-sharpness:100}") double minSharpness,
+                            @Value("${app.quality.min-brightness:20}") double minBrightness,
+                            @Value("${app.quality.max-brightness:235}") double maxBrightness,
+                            @Value("${app.quality.max-clipped-fraction:0.5}") double maxClippedFraction) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.minLongSide = minLongSide;
+        this.minShortSide = minShortSide;
+        this.minSharpness = minSharpness;
+        this.minBrightness = minBrightness;
+        this.maxBrightness = maxBrightness;
+        this.maxClippedFraction = maxClippedFraction;
+    }
+
+    /**
+     * @throws ImageQualityException naming the first check the preview fails
+     */
+    public void check(Decoded preview) {
+        if (!enabled) {
+            return;
+        }
+        ImageQuality quality = ImageQuality.measure(preview);
+        int longSide = Math.max(quality.sourceWidth(), quality.sourceHeight());
+        int shortSide = Math.min(quality.sourceWidth(), quality.sourceHeight());
+        if (longSide < minLongSide || shortSide < minShortSide) {
+            throw reject(ImageQualityException.Reason.RESOLUTION, String.format(Locale.ROOT,
+                    "Image is %dx%d pixels; at least %dx%d are needed",
+                    quality.sourceWidth(), quality.sourceHeight(), minLongSide, minShortSide));
+        }
+        if (quality.meanBrightness() < minBrightness || quality.meanBrightness() > maxBrightness
+                || quality.darkFraction() + quality.brightFraction() > maxClippedFraction) {
+            throw reject(ImageQualityException.Reason.EXPOSURE, String.format(Locale.ROOT,
+                    "Image is %s (mean brightness %.0f, %.0f%% of pixels clipped)",
+                    quality.meanBrightness() < (minBrightness + maxBrightness) / 2 ? "underexposed" : "overexposed",
+                    quality.meanBrightness(), 100 * (quality.darkFraction() + quality.brightFraction())));
+        }
+        if (quality.sharpness() < minSharpness) {
+            throw reject(ImageQualityException.Reason.BLUR, String.format(Locale.ROOT,
+                    "Image is too blurred (sharpness %.0f, at least %.0f needed)", quality.sharpness(), minSharpness));
+        }
+    }
+
+    private ImageQualityException reject(ImageQualityException.Reason reason, String message) {
+        meterRegistry.counter("quality.rejections", "reason", reason.name().toLowerCase(Locale.ROOT)).increment();
+        return new ImageQualityException(reason, message);
+    }
+}
@@ -0,0 +1,180 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-reads stored images in the background and compares them with the checksum recorded at
+ * ingest. Readings that have gone unverified the longest are checked first. Reads are paced by
+ * {@code app.scrubber.bytes-per-second}, and a pass stops as soon as an upload is in flight so the
+ * scrubber never competes with {@code POST /readings} for disk or network bandwidth.
+ *
+ * <p>An image is corrupt if its bytes no longer match the checksum or it is missing from storage.
+ * Corrupt images are logged and reported through the {@code scrubber.*} metrics; an image that
+ * verifies cleanly on a later pass is taken off the corrupt list again. A read that fails while
+ * the image still exists, such as S3 throttling or a network error, says nothing about the image
+ * and is counted as {@code unavailable} instead; the image is tried again on a later pass. Each
+ * pass forgets the readings that have been deleted since the last one.
+ */
+@Component
+@ConditionalOnProperty(name = "app.scrubber.enabled", havingValue = "true", matchIfMissing = true)
+public class ImageScrubber {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageScrubber.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    enum Outcome { INTACT, CORRUPT, UNAVAILABLE, INTERRUPTED }
+
+    private final ImageStorageService imageStorageService;
+    private final ReadingRepository readingRepository;
+    private final UploadActivity uploadActivity;
+    private final IoRateLimiter rateLimiter;
+    private final int batchSize;
+
+    private final Map<Integer, Instant> lastVerified = new ConcurrentHashMap<>();
+    private final Set<Integer> corrupt = ConcurrentHashMap.newKeySet();
+
+    private final Counter bytesRead;
+    private final Counter intactCount;
+    private final Counter corruptCount;
+    private final Counter unavailableCount;
+    private final Counter yieldCount;
+
+    public ImageScrubber(ImageStorageService imageStorageService,
+                         ReadingRepository readingRepository,
+                         UploadActivity uploadActivity,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.scrubber.bytes-per-second:4194304}") long bytesPerSecond,
+                         @Value("${app.scrubber.batch-size:500}") int batchSize) {
+        this.imageStorageService = imageStorageService;
+        this.readingRepository = readingRepository;
+        this.uploadActivity = uploadActivity;
+        this.rateLimiter = new IoRateLimiter(bytesPerSecond);
+        this.batchSize = batchSize;
+
+        this.bytesRead = meterRegistry.counter("scrubber.bytes.read");
+        this.intactCount = meterRegistry.counter("scrubber.verifications", "result", "intact");
+        this.corruptCount = meterRegistry.counter("scrubber.verifications", "result", "corrupt");
+        this.unavailableCount = meterRegistry.counter("scrubber.verifications", "result", "unavailable");
+        this.yieldCount = meterRegistry.counter("scrubber.yields");
+        Gauge.builder("scrubber.readings.corrupt", corrupt, Set::size).register(meterRegistry);
+        Gauge.builder("scrubber.readings.verified", lastVerified, Map::size).register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.scrubber.initial-delay:PT5M}",
+            fixedDelayString = "${app.scrubber.interval:PT1H}")
+    public void scrub() {
+        for (Reading reading : dueReadings()) {
+            if (!uploadActivity.isIdle() || verify(reading) == Outcome.INTERRUPTED) {
+                yieldCount.increment();
+                log.debug("Scrub pass yielded to an upload in progress");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Readings with a recorded checksum, least recently verified first; never-verified readings
+     * come before all others. Verification state of readings no longer in the repository is
+     * dropped on the way.
+     */
+    List<Reading> dueReadings() {
+        List<Reading> readings = readingRepository.findAll();
+        Set<Integer> ids = new HashSet<>();
+        for (Reading reading : readings) {
+            ids.add(reading.getId());
+        }
+        lastVerified.keySet().retainAll(ids);
+        corrupt.retainAll(ids);
+        return readings.stream()
+                .filter(r -> r.getChecksum() != null)
+                .sorted(Comparator.comparing((Reading r) -> lastVerified.getOrDefault(r.getId(), Instant.MIN)))
+                .limit(batchSize)
+                .toList();
+    }
+
+    Outcome verify(Reading reading) {
+        MessageDigest digest = ImageChecksums.newDigest();
+        byte[] buffer = new byte[CHUNK_SIZE];
+        try (InputStream in = imageStorageService.open(reading.getImagePath())) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+                bytesRead.increment(n);
+                rateLimiter.acquire(n);
+                if (!uploadActivity.isIdle()) {
+                    return Outcome.INTERRUPTED;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.INTERRUPTED;
+        } catch (Exception e) {
+            return readFailed(reading, e);
+        }
+        String actual = ImageChecksums.toHex(digest);
+        return actual.equals(reading.getChecksum())
+                ? record(reading, Outcome.INTACT, null)
+                : record(reading, Outcome.CORRUPT, "checksum " + actual + " does not match " + reading.getChecksum());
+    }
+
+    /**
+     * Only a missing image is corrupt. Any other failure, or one where storage cannot even say
+     * whether the image exists, is taken to be transient.
+     */
+    private Outcome readFailed(Reading reading, Exception failure) {
+        boolean exists;
+        try {
+            exists = imageStorageService.exists(reading.getImagePath());
+        } catch (RuntimeException e) {
+            exists = true;
+        }
+        if (!exists) {
+            return record(reading, Outcome.CORRUPT, "missing from storage");
+        }
+        lastVerified.put(reading.getId(), Instant.now());
+        unavailableCount.increment();
+        log.info("Could not read stored image for reading {} at {}, will retry: {}",
+                reading.getId(), reading.getImagePath(), failure.getMessage());
+        return Outcome.UNAVAILABLE;
+    }
+
+    private Outcome record(Reading reading, Outcome outcome, String problem) {
+        lastVerified.put(reading.getId(), Instant.now());
+        if (outcome == Outcome.INTACT) {
+            intactCount.increment();
+            corrupt.remove(reading.getId());
+        } else {
+            corruptCount.increment();
+            if (corrupt.add(reading.getId())) {
+                log.warn("Stored image for reading {} at {} is corrupt: {}",
+                        reading.getId(), reading.getImagePath(), problem);
+            }
+        }
+        return outcome;
+    }
+
+    public Set<Integer> getCorruptReadingIds() {
+        return Set.copyOf(corrupt);
+    }
+}
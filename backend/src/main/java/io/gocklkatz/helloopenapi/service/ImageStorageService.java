@@ -2,8 +2,38 @@ package io.gocklkatz.helloopenapi.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Set;
 
 public interface ImageStorageService {
-    String store(MultipartFile image, OffsetDateTime timestamp);
+
+    /**
+     * Stores the image under a date-based path and returns that path. The file extension and
+     * content type are taken from {@code format}, which the caller has verified against the
+     * image bytes.
+     */
+    String store(MultipartFile image, ImageFormat format, OffsetDateTime timestamp);
+
+    /**
+     * Opens a stored image for reading. The caller must close the returned stream.
+     */
+    InputStream open(String path);
+
+    /**
+     * Opens {@code length} bytes of a stored image starting at {@code offset}. The stream ends
+     * early if the image is shorter, and is empty if {@code offset} is at or past its end. The
+     * caller must close the returned stream.
+     */
+    InputStream openRange(String path, long offset, long length);
+
+    boolean exists(String path);
+
+    /**
+     * Deletes the given images in as few backend calls as possible and returns the paths that
+     * no longer exist afterwards, including paths that were already gone. Paths that could not
+     * be deleted are left out of the result rather than failing the whole batch.
+     */
+    Set<String> delete(Collection<String> paths);
 }
@@ -1,24 +1,35 @@
 package io.gocklkatz.helloopenapi.service;
 
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
 @ConditionalOnProperty(name = "app.image-storage.backend", havingValue = "local", matchIfMissing = true)
 public class ImageStorageServiceLocal implements ImageStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageServiceLocal.class);
+
     private final Path basePath;
 
     public ImageStorageServiceLocal(@Value("${app.image-storage.base-path:/data/images}") String basePath) {
@@ -43,8 +54,13 @@ public class ImageStorageServiceLocal implements ImageStorageService {
         }
     }
 
+    /**
+     * Moves the upload into place with {@link MultipartFile#transferTo(Path)}. For parts the
+     * servlet container has already spooled to disk this is a rename rather than a second copy
+     * of the bytes, as long as the multipart location is on the same filesystem as the base path.
+     */
     @Override
-    public String store(MultipartFile image, OffsetDateTime timestamp) {
+    public String store(MultipartFile image, ImageFormat format, OffsetDateTime timestamp) {
         String year = String.format("%04d", timestamp.getYear());
         String month = String.format("%02d", timestamp.getMonthValue());
         String day = String.format("%02d", timestamp.getDayOfMonth());
@@ -53,11 +69,7 @@ public class ImageStorageServiceLocal implements ImageStorageService {
         try {
             Files.createDirectories(dayDir);
 
-            String originalFilename = image.getOriginalFilename();
-            String ext = (originalFilename != null && originalFilename.contains("."))
-                    ? originalFilename.substring(originalFilename.lastIndexOf('.'))
-                    : ".jpg";
-            String filename = "reading_" + UUID.randomUUID() + ext;
+            String filename = "reading_" + UUID.randomUUID() + format.extension();
 
             image.transferTo(dayDir.resolve(filename));
 
@@ -66,4 +78,63 @@ public class ImageStorageServiceLocal implements ImageStorageService {
             throw new UncheckedIOException("Failed to store image", e);
         }
     }
+
+    @Override
+    public InputStream open(String path) {
+        try {
+            return Files.newInputStream(resolve(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image " + path, e);
+        }
+    }
+
+    @Override
+    public InputStream openRange(String path, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(resolve(path), StandardOpenOption.READ);
+            try {
+                channel.position(offset);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            return new LimitedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image " + path, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return Files.isRegularFile(resolve(path));
+    }
+
+    /**
+     * Unlinks the files in parallel; a failed unlink is logged and left out of the result.
+     */
+    @Override
+    public Set<String> delete(Collection<String> paths) {
+        return paths.parallelStream()
+                .filter(this::deleteQuietly)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private boolean deleteQuietly(String path) {
+        try {
+            Files.deleteIfExists(resolve(path));
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to delete image {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private Path resolve(String path) {
+        Path root = basePath.toAbsolutePath().normalize();
+        Path resolved = root.resolve(path).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("Image path escapes the storage directory: " + path);
+        }
+        return resolved;
+    }
 }
@@ -1,5 +1,7 @@
 package io.gocklkatz.helloopenapi.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
@@ -7,17 +9,39 @@ import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @ConditionalOnProperty(name = "app.image-storage.backend", havingValue = "s3")
 public class ImageStorageServiceS3 implements ImageStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageServiceS3.class);
+
+    /** Upper bound S3 places on the number of keys in a single {@code DeleteObjects} request. */
+    static final int MAX_KEYS_PER_DELETE = 1000;
+
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
     private final S3Client s3Client;
     private final String bucketName;
 
@@ -27,25 +51,25 @@ public class ImageStorageServiceS3 implements ImageStorageService {
         this.bucketName = bucketName;
     }
 
+    /**
+     * Streams the upload to S3 from the multipart input stream with its known length, so the
+     * image is never buffered on the heap as a whole.
+     */
     @Override
-    public String store(MultipartFile image, OffsetDateTime timestamp) {
+    public String store(MultipartFile image, ImageFormat format, OffsetDateTime timestamp) {
         String year = String.format("%04d", timestamp.getYear());
         String month = String.format("%02d", timestamp.getMonthValue());
         String day = String.format("%02d", timestamp.getDayOfMonth());
 
-        String originalFilename = image.getOriginalFilename();
-        String ext = (originalFilename != null && originalFilename.contains("."))
-                ? originalFilename.substring(originalFilename.lastIndexOf('.'))
-                : ".jpg";
-        String key = year + "/" + month + "/" + day + "/reading_" + UUID.randomUUID() + ext;
+        String key = year + "/" + month + "/" + day + "/reading_" + UUID.randomUUID() + format.extension();
 
-        try {
+        try (InputStream content = image.getInputStream()) {
             PutObjectRequest request = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
-                    .contentType(image.getContentType())
+                    .contentType(format.contentType())
                     .build();
-            s3Client.putObject(request, RequestBody.fromBytes(image.getBytes()));
+            s3Client.putObject(request, RequestBody.fromInputStream(content, image.getSize()));
             return key;
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to upload image to S3", e);
@@ -53,4 +77,90 @@ public class ImageStorageServiceS3 implements ImageStorageService {
             throw new RuntimeException("Failed to upload image to S3", e);
         }
     }
+
+    @Override
+    public InputStream open(String path) {
+        try {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(path)
+                    .build();
+            return s3Client.getObject(request);
+        } catch (SdkException e) {
+            throw new RuntimeException("Failed to read image from S3", e);
+        }
+    }
+
+    /**
+     * S3 answers a range starting at or past the end of the object with {@code 416 InvalidRange};
+     * that is returned as an empty stream, like reading past the end of a local file.
+     */
+    @Override
+    public InputStream openRange(String path, long offset, long length) {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        try {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(path)
+                    .range("bytes=" + offset + "-" + (offset + length - 1))
+                    .build();
+            return s3Client.getObject(request);
+        } catch (S3Exception e) {
+            if (e.statusCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+                return InputStream.nullInputStream();
+            }
+            throw new RuntimeException("Failed to read image from S3", e);
+        } catch (SdkException e) {
+            throw new RuntimeException("Failed to read image from S3", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(path)
+                    .build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (SdkException e) {
+            throw new RuntimeException("Failed to look up image in S3", e);
+        }
+    }
+
+    /**
+     * Issues one quiet {@code DeleteObjects} call per {@value #MAX_KEYS_PER_DELETE} keys. S3
+     * reports only the keys it failed to delete; those are logged and left out of the result.
+     */
+    @Override
+    public Set<String> delete(Collection<String> paths) {
+        List<String> keys = List.copyOf(new LinkedHashSet<>(paths));
+        Set<String> deleted = new HashSet<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> batch = keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, keys.size()));
+            Set<String> failed = new HashSet<>();
+            try {
+                DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        .delete(Delete.builder()
+                                .objects(batch.stream().map(k -> ObjectIdentifier.builder().key(k).build()).toList())
+                                .quiet(true)
+                                .build())
+                        .build());
+                for (S3Error error : response.errors()) {
+                    log.warn("Failed to delete image {} from S3: {}", error.key(), error.message());
+                    failed.add(error.key());
+                }
+            } catch (SdkException e) {
+                log.warn("Failed to delete {} images from S3: {}", batch.size(), e.getMessage());
+                failed.addAll(batch);
+            }
+            batch.stream().filter(k -> !failed.contains(k)).forEach(deleted::add);
+        }
+        return Set.copyOf(deleted);
+    }
 }
@@ -0,0 +1,38 @@
+package io.gocklkatz.helloopenapi.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces a single reader to a fixed number of bytes per second. Bytes are paid for after they
+ * are read and unused time is never banked, so the reader cannot burst after an idle period.
+ * Not thread-safe; each background job owns its own instance.
+ */
+class IoRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long bytesPerSecond;
+    private long nextFreeNanos = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond the sustained read rate; zero or negative disables limiting
+     */
+    IoRateLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    void acquire(long bytes) throws InterruptedException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextFreeNanos < now) {
+            nextFreeNanos = now;
+        }
+        nextFreeNanos += bytes * NANOS_PER_SECOND / bytesPerSecond;
+        long sleep = nextFreeNanos - now;
+        if (sleep > 0) {
+            TimeUnit.NANOSECONDS.sleep(sleep);
+        }
+    }
+}
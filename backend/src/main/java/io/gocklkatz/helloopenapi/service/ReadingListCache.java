@@ -0,0 +1,83 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The readings list for {@code GET /readings}, serialised once per repository version. The list
+ * only changes on upload, recognition and retention, so most requests are answered by copying
+ * bytes that were encoded, and gzipped, by an earlier one. The CBOR encoding, for clients that ask
+ * for {@code application/cbor}, is built by the first such request after a rebuild.
+ *
+ * <p>The list is rebuilt on the first request after {@link ReadingRepository#version()} has moved
+ * on. Requests that arrive during a rebuild wait for it rather than starting their own. Rebuilds
+ * are counted in {@code readings.list.rebuilds}. The lock is a {@link ReentrantLock}, so requests
+ * on virtual threads do not pin their carriers while they wait.
+ */
+@Component
+public class ReadingListCache {
+
+    private final ReadingRepository readingRepository;
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper;
+    private final Counter rebuilds;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile SerializedReadings current;
+
+    public ReadingListCache(ReadingRepository readingRepository, JsonMapper jsonMapper, CBORMapper cborMapper,
+                            MeterRegistry meterRegistry) {
+        this.readingRepository = readingRepository;
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.rebuilds = meterRegistry.counter("readings.list.rebuilds");
+    }
+
+    public SerializedReadings get() {
+        SerializedReadings cached = current;
+        if (cached != null && cached.version() == readingRepository.version()) {
+            return cached;
+        }
+        rebuildLock.lock();
+        try {
+            cached = current;
+            if (cached == null || cached.version() != readingRepository.version()) {
+                cached = build();
+                current = cached;
+                rebuilds.increment();
+            }
+            return cached;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the version before the readings, so a change made while building leaves the list
+     * marked as stale rather than hiding it.
+     */
+    private SerializedReadings build() {
+        long version = readingRepository.version();
+        List<Reading> readings = readingRepository.findAll();
+        byte[] json = jsonMapper.writeValueAsBytes(readings);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress readings list", e);
+        }
+        return new SerializedReadings(version, readings, json, gzip.toByteArray(),
+                () -> cborMapper.writeValueAsBytes(readings));
+    }
+}
@@ -1,6 +1,10 @@
 package io.gocklkatz.helloopenapi.service;
 
+import com.example.model.Consumption;
+import com.example.model.Crossing;
 import com.example.model.Reading;
+import com.example.model.ReadingChanges;
+import com.example.model.SeriesPoint;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
@@ -10,5 +14,9 @@ import java.util.Optional;
 public interface ReadingService {
     Reading createReading(MultipartFile image, OffsetDateTime timestamp);
     List<Reading> getAllReadings();
+    ReadingChanges getChanges(long since);
     Optional<Reading> getReadingById(Integer id);
+    List<SeriesPoint> getSeries(OffsetDateTime from, OffsetDateTime to, int points);
+    Consumption getConsumption(OffsetDateTime from, OffsetDateTime to);
+    Optional<Crossing> getCrossing(double value);
 }
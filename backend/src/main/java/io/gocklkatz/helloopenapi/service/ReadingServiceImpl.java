@@ -1,49 +1,227 @@
 package io.gocklkatz.helloopenapi.service;
 
+import com.example.model.Consumption;
+import com.example.model.Crossing;
 import com.example.model.Reading;
+import com.example.model.ReadingChanges;
+import com.example.model.SeriesPoint;
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder;
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
 import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.gocklkatz.helloopenapi.series.ConsumptionSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 
 @Service
 public class ReadingServiceImpl implements ReadingService {
 
-    private static final Set<String> ALLOWED_IMAGE_TYPES =
-            Set.of("image/jpeg", "image/png", "image/webp", "image/gif");
+    private static final Logger log = LoggerFactory.getLogger(ReadingServiceImpl.class);
+
+    /**
+     * Longest side of the grayscale preview that the quality gate and duplicate detection share,
+     * so each upload is decoded only once before it is stored.
+     */
+    static final int PREVIEW_SIZE = 512;
+
+    private static final int CHECKSUM_BUFFER = 1 << 16;
+
+    /** Chunks the decoder may read ahead of the checksum. */
+    private static final int TEE_CHUNKS = 64;
 
     private final ImageStorageService imageStorageService;
     private final ReadingRepository readingRepository;
+    private final UploadActivity uploadActivity;
+    private final RecognitionService recognitionService;
+    private final DuplicateDetector duplicateDetector;
+    private final ImageQualityGate imageQualityGate;
+    private final ConsumptionSeries consumptionSeries;
+    private final ReadingListCache readingListCache;
+    private final ReadingStream readingStream;
 
-    public ReadingServiceImpl(ImageStorageService imageStorageService, ReadingRepository readingRepository) {
+    public ReadingServiceImpl(ImageStorageService imageStorageService, ReadingRepository readingRepository,
+                              UploadActivity uploadActivity, RecognitionService recognitionService,
+                              DuplicateDetector duplicateDetector, ImageQualityGate imageQualityGate,
+                              ConsumptionSeries consumptionSeries, ReadingListCache readingListCache,
+                              ReadingStream readingStream) {
         this.imageStorageService = imageStorageService;
         this.readingRepository = readingRepository;
+        this.uploadActivity = uploadActivity;
+        this.recognitionService = recognitionService;
+        this.duplicateDetector = duplicateDetector;
+        this.imageQualityGate = imageQualityGate;
+        this.consumptionSeries = consumptionSeries;
+        this.readingListCache = readingListCache;
+        this.readingStream = readingStream;
     }
 
+    /**
+     * Stores the image, queues it for recognition and publishes it to the {@link ReadingStream}.
+     * A near-duplicate of a recent reading is neither stored nor recognised again; that earlier
+     * reading is returned instead.
+     *
+     * <p>The upload is checked in one streaming read of the multipart spool file and is never held
+     * on the heap as a whole. The header gives the format. The rest is decoded into a preview, with
+     * the quality gate and the perceptual hash on top, while a {@link TeeInputStream} passes the same
+     * bytes to the checksum. The two run as concurrent {@link Subtasks}, so checking an upload takes
+     * as long as the slower of them, and a rejected photo stops the checksum early. Storing the
+     * photo afterwards moves the spool file on local disk, or streams it to S3 in a second read.
+     *
+     * @throws ImageQualityException if the photo is too small, blurred or badly exposed to read
+     */
     @Override
     public Reading createReading(MultipartFile image, OffsetDateTime timestamp) {
-        String contentType = image.getContentType();
-        if (contentType == null || !ALLOWED_IMAGE_TYPES.contains(contentType)) {
-            throw new IllegalArgumentException("Unsupported image type: " + contentType);
+        uploadActivity.begin();
+        try {
+            ImageFormat format;
+            String checksum;
+            OptionalLong hash;
+            try (TeeInputStream upload = new TeeInputStream(image.getInputStream(), TEE_CHUNKS);
+                 Subtasks subtasks = new Subtasks()) {
+                byte[] header = upload.readNBytes(ImageFormat.HEADER_LENGTH);
+                format = ImageFormat.detect(header)
+                        .orElseThrow(() -> new IllegalArgumentException(
+                                "Unsupported image type: " + image.getContentType()));
+                Supplier<String> checksumTask = subtasks.fork(() -> checksum(upload.copy()));
+                Supplier<OptionalLong> hashTask = subtasks.fork(() -> screen(header, upload, image.getOriginalFilename()));
+                subtasks.join();
+                checksum = checksumTask.get();
+                hash = hashTask.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read image", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while checking upload", e);
+            }
+            if (hash.isPresent()) {
+                Optional<Reading> duplicate = duplicateDetector.findDuplicate(hash.getAsLong(), timestamp)
+                        .flatMap(readingRepository::findById);
+                if (duplicate.isPresent()) {
+                    return duplicate.get();
+                }
+            }
+            String imagePath = imageStorageService.store(image, format, timestamp);
+            Reading reading = new Reading();
+            reading.setTimestamp(timestamp);
+            reading.setImagePath(imagePath);
+            reading.setChecksum(checksum);
+            Reading saved = readingRepository.save(reading);
+            hash.ifPresent(h -> duplicateDetector.remember(h, timestamp, saved.getId()));
+            recognitionService.submit(saved);
+            readingStream.publish(saved);
+            return saved;
+        } finally {
+            uploadActivity.end();
+        }
+    }
+
+    /**
+     * SHA-256 of the bytes the decoder reads, as {@link TeeInputStream} passes them on.
+     */
+    private static String checksum(InputStream upload) {
+        MessageDigest digest = ImageChecksums.newDigest();
+        byte[] buffer = new byte[CHECKSUM_BUFFER];
+        try {
+            int read;
+            while ((read = upload.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image", e);
         }
-        String imagePath = imageStorageService.store(image, timestamp);
-        Reading reading = new Reading();
-        reading.setTimestamp(timestamp);
-        reading.setImagePath(imagePath);
-        return readingRepository.save(reading);
+        return ImageChecksums.toHex(digest);
     }
 
+    /**
+     * Decodes a subsampled grayscale preview from {@code header} and the rest of {@code upload},
+     * runs the quality gate on it and returns its perceptual hash. Then reads what the decoder left
+     * over, so the checksum sees every byte. Uploads ImageIO has no reader for are stored without
+     * the quality gate and duplicate detection, so they give an empty hash.
+     */
+    private OptionalLong screen(byte[] header, TeeInputStream upload, String filename) {
+        Decoded preview = null;
+        try {
+            preview = GrayImageDecoder.decode(
+                    new SequenceInputStream(new ByteArrayInputStream(header), upload), PREVIEW_SIZE, null);
+        } catch (InterruptedIOException e) {
+            throw new CancellationException("Preview cancelled");
+        } catch (IOException | RuntimeException e) {
+            log.debug("No preview for upload {}: {}", filename, e.getMessage());
+        }
+        if (preview != null) {
+            imageQualityGate.check(preview);
+        }
+        try {
+            upload.drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image", e);
+        }
+        return preview == null ? OptionalLong.empty() : duplicateDetector.hash(preview.image());
+    }
+
+    /**
+     * The readings as a {@link SerializedReadings}, already encoded for the response.
+     */
     @Override
     public List<Reading> getAllReadings() {
-        return readingRepository.findAll();
+        return readingListCache.get();
+    }
+
+    /**
+     * The readings changed since {@code since}, from the repository's change log. A reading saved
+     * in the log but gone by now is reported as deleted. If the log no longer reaches back to
+     * {@code since}, every reading is returned from the list cache, as a resync.
+     */
+    @Override
+    public ReadingChanges getChanges(long since) {
+        return readingRepository.changesSince(since)
+                .map(changes -> {
+                    List<Reading> readings = new ArrayList<>(changes.saved().size());
+                    List<Integer> deleted = new ArrayList<>(changes.deleted());
+                    for (Integer id : changes.saved()) {
+                        readingRepository.findById(id).ifPresentOrElse(readings::add, () -> deleted.add(id));
+                    }
+                    return new ReadingChanges(changes.version(), false, readings, deleted);
+                })
+                .orElseGet(() -> {
+                    SerializedReadings all = readingListCache.get();
+                    return new ReadingChanges(all.version(), true, all, List.of());
+                });
     }
 
     @Override
     public Optional<Reading> getReadingById(Integer id) {
         return readingRepository.findById(id);
     }
+
+    @Override
+    public List<SeriesPoint> getSeries(OffsetDateTime from, OffsetDateTime to, int points) {
+        return consumptionSeries.query(from, to, points);
+    }
+
+    @Override
+    public Consumption getConsumption(OffsetDateTime from, OffsetDateTime to) {
+        return consumptionSeries.consumption(from, to);
+    }
+
+    @Override
+    public Optional<Crossing> getCrossing(double value) {
+        return consumptionSeries.crossing(value);
+    }
 }
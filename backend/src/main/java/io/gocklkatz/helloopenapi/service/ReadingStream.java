@@ -0,0 +1,200 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes each newly created reading to the clients of {@code GET /readings/stream} as a
+ * server-sent event named {@code reading}. The event id is the reading id, so a client that
+ * reconnects with {@code Last-Event-ID} is first sent the readings it missed, read from the
+ * repository in id order.
+ *
+ * <p>A subscriber is an {@link SseEmitter} on an async request with a queue of at most
+ * {@code app.readings-stream.queue-capacity} events, drained by its own virtual thread. Each reading
+ * is serialised once, and one dispatcher thread puts the same event on every queue in publishing
+ * order; it never writes to a connection, so a stalled client cannot hold up the others. A
+ * subscriber whose queue is full has fallen behind and is dropped, as is one whose write fails;
+ * drops for falling behind are counted in {@code readings.stream.dropped}. The replay for
+ * {@code Last-Event-ID} runs on the subscriber's own thread while live events queue up behind it.
+ * Every {@code app.readings-stream.heartbeat} a comment goes out to all subscribers; it keeps
+ * proxies from closing quiet connections and finds clients that have gone. Connections end after
+ * {@code app.readings-stream.timeout}, and browsers reconnect on their own.
+ */
+@Component
+public class ReadingStream {
+
+    private static final int REPLAY_PAGE = 500;
+    private static final MediaType JSON_TEXT = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    /** An event for the queues; {@code readingId} is null for a heartbeat. */
+    private record Event(Integer readingId, Set<DataWithMediaType> data) {}
+
+    /** A connected client, its queue and the thread writing that queue to it. */
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Event> queue;
+        final Thread writer;
+
+        Subscriber(SseEmitter emitter, Integer lastEventId) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.writer = Thread.ofVirtual().name("reading-stream-subscriber").unstarted(() -> write(this, lastEventId));
+        }
+    }
+
+    private final ReadingRepository readingRepository;
+    private final JsonMapper jsonMapper;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final Counter dropped;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("reading-stream").daemon().factory());
+
+    public ReadingStream(ReadingRepository readingRepository,
+                         JsonMapper jsonMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.readings-stream.timeout:PT30M}") Duration timeout,
+                         @Value("${app.readings-stream.queue-capacity:256}") int queueCapacity) {
+        this.readingRepository = readingRepository;
+        this.jsonMapper = jsonMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        this.dropped = meterRegistry.counter("readings.stream.dropped");
+        Gauge.builder("readings.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of readings created from now on, preceded by those with an id above
+     * {@code lastEventId} if it is given.
+     */
+    public SseEmitter subscribe(Integer lastEventId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), lastEventId);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        // joined before the replay reads the repository, so no reading falls between the two
+        subscribers.add(subscriber);
+        subscriber.writer.start();
+        return subscriber.emitter;
+    }
+
+    /**
+     * Sends a newly saved reading to every subscriber. Returns straight away; the event is queued
+     * for each subscriber on the dispatcher thread.
+     */
+    public void publish(Reading reading) {
+        Event event = new Event(reading.getId(), event(reading));
+        dispatcher.execute(() -> offer(event));
+    }
+
+    @Scheduled(initialDelayString = "${app.readings-stream.heartbeat:PT30S}",
+            fixedDelayString = "${app.readings-stream.heartbeat:PT30S}")
+    public void heartbeat() {
+        Event ping = new Event(null, SseEmitter.event().comment("ping").build());
+        dispatcher.execute(() -> offer(ping));
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void offer(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                dropped.increment();
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Runs on the subscriber's thread until it is dropped: the replay first, then its queue. A
+     * reading saved while the replay runs may be queued as well, however late it is published, so
+     * queued readings up to the highest replayed id are skipped. The repository makes ids visible
+     * in order, so the replay has sent every reading below the highest id it saw.
+     */
+    private void write(Subscriber subscriber, Integer lastEventId) {
+        int replayedUpTo = Integer.MIN_VALUE;
+        if (lastEventId != null) {
+            replayedUpTo = lastEventId;
+            List<Reading> page;
+            do {
+                page = readingRepository.findAfterId(replayedUpTo, REPLAY_PAGE);
+                for (Reading reading : page) {
+                    if (!send(subscriber, event(reading))) {
+                        return;
+                    }
+                    replayedUpTo = reading.getId();
+                }
+            } while (page.size() == REPLAY_PAGE);
+        }
+        try {
+            while (true) {
+                Event event = subscriber.queue.take();
+                if (event.readingId() != null && event.readingId() <= replayedUpTo) {
+                    continue;
+                }
+                if (!send(subscriber, event.data())) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // dropped, completed or shut down
+        }
+    }
+
+    private Set<DataWithMediaType> event(Reading reading) {
+        return SseEmitter.event()
+                .id(String.valueOf(reading.getId()))
+                .name("reading")
+                .data(jsonMapper.writeValueAsString(reading), JSON_TEXT)
+                .build();
+    }
+
+    private boolean send(Subscriber subscriber, Set<DataWithMediaType> event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // the client has gone or the emitter has completed; the container ends the request
+            remove(subscriber);
+            return false;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.writer.interrupt();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+}
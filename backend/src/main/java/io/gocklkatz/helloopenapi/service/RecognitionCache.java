@@ -0,0 +1,231 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.gocklkatz.helloopenapi.recognition.MeterRecognizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-position digit probabilities of full-frame reads by image content, so that identical bytes
+ * are decoded and classified only once. The key is the image's SHA-256 and the recogniser's
+ * {@link MeterRecognizer#version()}; the probabilities can only change if one of those changes.
+ * They do not depend on the plausible range, which the caller applies to them after the lookup.
+ *
+ * <p>At most {@code app.recognition.cache.max-entries} entries of about 1 KB each are kept, and
+ * the least recently used one is evicted first. Every new entry is appended to
+ * {@code app.recognition.cache.file} and read back at startup. Once the file holds twice as many
+ * lines as the cache, it is rewritten with just the current entries. Photos without a digit row
+ * are cached too, as no positions; failed reads are not.
+ *
+ * <p>Access is guarded by a {@link ReentrantLock} rather than {@code synchronized}, because
+ * {@link #put} writes to the file while holding it. On Java 21 a virtual thread that blocks inside
+ * a monitor pins its carrier thread, and so does every virtual thread queued to enter it.
+ */
+@Component
+public class RecognitionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RecognitionCache.class);
+
+    private static final String SEPARATOR = "\t";
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Path file;
+    private final LinkedHashMap<String, double[][]> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferedWriter appender;
+    private int fileLines;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecognitionCache(MeterRegistry meterRegistry,
+                            @Value("${app.recognition.cache.enabled:true}") boolean enabled,
+                            @Value("${app.recognition.cache.max-entries:5000}") int maxEntries,
+                            @Value("${app.recognition.cache.file:${app.data-dir:/data}/recognition.cache}")
+                            String file) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.file = Path.of(file);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, double[][]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("recognition.cache", "result", "hit");
+        this.misses = meterRegistry.counter("recognition.cache", "result", "miss");
+        Gauge.builder("recognition.cache.size", this, RecognitionCache::size).register(meterRegistry);
+        if (enabled) {
+            load();
+        }
+    }
+
+    static String key(String checksum, String version) {
+        return checksum + "|" + version;
+    }
+
+    public Optional<double[][]> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        double[][] result;
+        lock.lock();
+        try {
+            result = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        (result != null ? hits : misses).increment();
+        return Optional.ofNullable(result);
+    }
+
+    public void put(String key, double[][] probabilities) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (Arrays.deepEquals(probabilities, entries.put(key, probabilities))) {
+                return;
+            }
+            if (fileLines >= 2 * maxEntries) {
+                compact();
+            } else {
+                appender().write(format(key, probabilities));
+                appender.newLine();
+                appender.flush();
+                fileLines++;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to persist recognition cache entry to {}: {}", file, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fileLines++;
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length == 2) {
+                    entries.put(fields[0], parse(fields[1]));
+                }
+            }
+            log.info("Loaded {} cached recognition results from {}", entries.size(), file);
+        } catch (NoSuchFileException e) {
+            // first start
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable recognition cache {}: {}", file, e.getMessage());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Rewrites the file with only the current entries, replacing it atomically.
+     */
+    private void compact() throws IOException {
+        closeAppender();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+            for (Map.Entry<String, double[][]> entry : entries.entrySet()) {
+                writer.write(format(entry.getKey(), entry.getValue()));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileLines = entries.size();
+    }
+
+    private BufferedWriter appender() throws IOException {
+        if (appender == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            appender = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return appender;
+    }
+
+    /**
+     * The key, a tab, then the positions separated by {@code ;}, each as its digit probabilities
+     * separated by {@code ,}.
+     */
+    private static String format(String key, double[][] probabilities) {
+        StringBuilder line = new StringBuilder(key).append(SEPARATOR);
+        for (int position = 0; position < probabilities.length; position++) {
+            if (position > 0) {
+                line.append(';');
+            }
+            for (int digit = 0; digit < probabilities[position].length; digit++) {
+                if (digit > 0) {
+                    line.append(',');
+                }
+                line.append(probabilities[position][digit]);
+            }
+        }
+        return line.toString();
+    }
+
+    private static double[][] parse(String positions) {
+        if (positions.isEmpty()) {
+            return new double[0][];
+        }
+        return Arrays.stream(positions.split(";"))
+                .map(position -> Arrays.stream(position.split(",")).mapToDouble(Double::parseDouble).toArray())
+                .toArray(double[][]::new);
+    }
+
+    private void closeAppender() {
+        if (appender != null) {
+            try {
+                appender.close();
+            } catch (IOException e) {
+                log.warn("Failed to close recognition cache {}: {}", file, e.getMessage());
+            } finally {
+                appender = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lock.lock();
+        try {
+            closeAppender();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.recognition.MeterRecognizer;
+import io.gocklkatz.helloopenapi.recognition.RecognitionResult;
+import io.gocklkatz.helloopenapi.recognition.RememberedWindow;
+import io.gocklkatz.helloopenapi.recognition.ValueRange;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.gocklkatz.helloopenapi.series.AnomalyDetector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link MeterRecognizer} on newly stored images in the background and records the
+ * recognised meter value and confidence on the reading. Each recognised reading is passed on to
+ * the {@link AnomalyDetector}.
+ *
+ * <p>Work runs on a fixed pool with a bounded queue. When the queue is full the submitting thread
+ * recognises the image itself, which slows uploads down instead of letting a backlog grow without
+ * limit. Throughput is reported through the {@code recognition.*} metrics.
+ *
+ * <p>The nearest earlier reading that was recognised confidently bounds what a new photo can
+ * show. The meter never goes backwards, and it advances at most {@code app.recognition.prior.max-per-day}
+ * per day in between. The recogniser uses that range to correct and reject misreads. Live uploads
+ * share one {@link RememberedWindow}, since they all come from the same camera.
+ */
+@Service
+public class RecognitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecognitionService.class);
+
+    private final ImageStorageService imageStorageService;
+    private final ReadingRepository readingRepository;
+    private final MeterRecognizer meterRecognizer;
+    private final RecognitionCache recognitionCache;
+    private final AnomalyDetector anomalyDetector;
+    private final ThreadPoolExecutor executor;
+    private final double maxPerDay;
+    private final double minPriorConfidence;
+    private final RememberedWindow liveWindow = new RememberedWindow();
+
+    private final Timer duration;
+    private final Counter recognizedCount;
+    private final Counter unrecognizedCount;
+    private final Counter failedCount;
+
+    public RecognitionService(ImageStorageService imageStorageService,
+                              ReadingRepository readingRepository,
+                              MeterRecognizer meterRecognizer,
+                              RecognitionCache recognitionCache,
+                              AnomalyDetector anomalyDetector,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.recognition.threads:2}") int threads,
+                              @Value("${app.recognition.queue-capacity:100}") int queueCapacity,
+                              @Value("${app.recognition.prior.max-per-day:50}") double maxPerDay,
+                              @Value("${app.recognition.prior.min-confidence:0.5}") double minPriorConfidence) {
+        this.imageStorageService = imageStorageService;
+        this.readingRepository = readingRepository;
+        this.meterRecognizer = meterRecognizer;
+        this.recognitionCache = recognitionCache;
+        this.anomalyDetector = anomalyDetector;
+        this.maxPerDay = maxPerDay;
+        this.minPriorConfidence = minPriorConfidence;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("recognition-", 0).daemon().factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.duration = meterRegistry.timer("recognition.duration");
+        this.recognizedCount = meterRegistry.counter("recognition.results", "outcome", "recognized");
+        this.unrecognizedCount = meterRegistry.counter("recognition.results", "outcome", "unrecognized");
+        this.failedCount = meterRegistry.counter("recognition.results", "outcome", "failed");
+        Gauge.builder("recognition.queue.size", executor.getQueue(), BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Queues recognition of the reading's image. Runs it on the calling thread if the queue is full.
+     */
+    public void submit(Reading reading) {
+        executor.execute(() -> recognize(reading));
+    }
+
+    void recognize(Reading reading) {
+        long start = System.nanoTime();
+        try {
+            RecognitionResult result = read(reading);
+            if (result.recognized()) {
+                readingRepository.update(reading.getId(), r -> {
+                    r.setMeterValue(result.value());
+                    r.setConfidence(result.confidence());
+                }).ifPresent(anomalyDetector::accept);
+                recognizedCount.increment();
+            } else {
+                log.info("No meter digits found in image of reading {}", reading.getId());
+                unrecognizedCount.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Recognition failed for reading {}: {}", reading.getId(), e.getMessage());
+            failedCount.increment();
+        } finally {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Reads the meter value from the reading's stored image, bounded by {@link #plausibleRange}
+     * and through the live uploads' window, without storing the result.
+     */
+    public RecognitionResult read(Reading reading) throws IOException {
+        return read(reading, plausibleRange(reading), liveWindow);
+    }
+
+    /**
+     * Reads the reading's stored image full-frame and without a plausible range, without storing
+     * the result. For re-reading the archive: the stored values the range would come from are the
+     * ones being replaced, so they must not steer the new read, and old photos must not move the
+     * live uploads' window.
+     */
+    public RecognitionResult readWithoutPrior(Reading reading) throws IOException {
+        return read(reading, null, null);
+    }
+
+    /**
+     * Images already read full-frame by the same recogniser version are not opened again: the
+     * range is applied to the digit probabilities kept in the {@link RecognitionCache}. Reads
+     * answered from the window are not cached, since they depend on the window.
+     */
+    private RecognitionResult read(Reading reading, ValueRange range, RememberedWindow window) throws IOException {
+        String key = reading.getChecksum() == null ? null
+                : RecognitionCache.key(reading.getChecksum(), meterRecognizer.version());
+        if (key != null) {
+            Optional<double[][]> cached = recognitionCache.get(key);
+            if (cached.isPresent()) {
+                return meterRecognizer.decode(cached.get(), range);
+            }
+        }
+        MeterRecognizer.Outcome outcome;
+        try (InputStream in = imageStorageService.open(reading.getImagePath())) {
+            outcome = meterRecognizer.read(in, range, window);
+        }
+        if (key != null && outcome.probabilities() != null) {
+            recognitionCache.put(key, outcome.probabilities());
+        }
+        return outcome.result();
+    }
+
+    /**
+     * From the previous trusted value up to what the meter can advance by the reading's
+     * timestamp, or {@code null} without a trusted earlier reading.
+     */
+    ValueRange plausibleRange(Reading reading) {
+        return readingRepository.findLatestRecognizedBefore(reading.getTimestamp(), minPriorConfidence)
+                .map(previous -> {
+                    double days = Duration.between(previous.getTimestamp(), reading.getTimestamp()).toMillis()
+                            / (double) Duration.ofDays(1).toMillis();
+                    return new ValueRange(previous.getMeterValue(),
+                            previous.getMeterValue() + maxPerDay * Math.max(days, 1.0 / 24));
+                })
+                .orElse(null);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,39 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/reprocess}: {@code GET} reports progress, {@code POST} starts or resumes a
+ * run and {@code DELETE} cancels it.
+ */
+@Component
+@Endpoint(id = "reprocess")
+public class ReprocessingEndpoint {
+
+    private final ReprocessingJob reprocessingJob;
+
+    public ReprocessingEndpoint(ReprocessingJob reprocessingJob) {
+        this.reprocessingJob = reprocessingJob;
+    }
+
+    @ReadOperation
+    public ReprocessingJob.Progress progress() {
+        return reprocessingJob.progress();
+    }
+
+    @WriteOperation
+    public ReprocessingJob.Progress start() {
+        reprocessingJob.start();
+        return reprocessingJob.progress();
+    }
+
+    @DeleteOperation
+    public ReprocessingJob.Progress cancel() {
+        reprocessingJob.cancel();
+        return reprocessingJob.progress();
+    }
+}
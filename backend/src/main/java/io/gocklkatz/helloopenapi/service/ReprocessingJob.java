@@ -0,0 +1,308 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.recognition.RecognitionResult;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Re-runs recognition over every stored image, e.g. after the recogniser has improved.
+ *
+ * <p>Readings are paged from the repository in id order, {@code app.reprocess.chunk-size} at a
+ * time. Each chunk is recognised on a {@link ForkJoinPool}, so memory stays bounded by one chunk
+ * of metadata plus one decoded image per worker. Results are written with a single
+ * {@link ReadingRepository#updateAll} per chunk, and the last finished id is then written to the
+ * checkpoint file. A cancelled or failed run resumes after that id. A completed run removes the
+ * checkpoint, so the next run starts from the beginning.
+ *
+ * <p>The readings live in memory, so their ids start again at 1 after a restart. The checkpoint
+ * therefore names the startup it was written in, and a run ignores and removes one from an
+ * earlier startup instead of skipping readings that merely reuse its ids.
+ *
+ * <p>Images are read full-frame and without a plausible range. The range would come from the very
+ * values being replaced, so old misreads would steer the new read.
+ *
+ * <p>Workers pause while an upload is in flight and default to one core less than the machine
+ * has, so live ingest keeps a core and the disk to itself.
+ */
+@Service
+public class ReprocessingJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReprocessingJob.class);
+
+    /** Readings per fork/join leaf task. */
+    private static final int LEAF_SIZE = 4;
+
+    private static final Duration YIELD_PAUSE = Duration.ofMillis(50);
+
+    public enum State { IDLE, RUNNING, CANCELLED, COMPLETED, FAILED }
+
+    /**
+     * @param resumedAfter id the run started after, {@code 0} for a fresh run
+     * @param checkpoint   last id whose chunk has been written
+     */
+    public record Progress(State state, long processed, long recognized, long failed,
+                           int resumedAfter, int checkpoint, double imagesPerSecond,
+                           Instant startedAt, Instant finishedAt) {}
+
+    private final ReadingRepository readingRepository;
+    private final RecognitionService recognitionService;
+    private final UploadActivity uploadActivity;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Path checkpointFile;
+    /** Written next to the id, so a checkpoint from before a restart is recognised as such. */
+    private final String startupId = UUID.randomUUID().toString();
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong recognized = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile State state = State.IDLE;
+    private volatile boolean cancelRequested;
+    private volatile int resumedAfter;
+    private volatile int checkpoint;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private Thread coordinator;
+
+    private final Counter imagesCount;
+    private final Counter yieldCount;
+
+    public ReprocessingJob(ReadingRepository readingRepository,
+                           RecognitionService recognitionService,
+                           UploadActivity uploadActivity,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.reprocess.parallelism:0}") int parallelism,
+                           @Value("${app.reprocess.chunk-size:256}") int chunkSize,
+                           @Value("${app.reprocess.checkpoint-file:${java.io.tmpdir}/gas-meter-reprocess.checkpoint}")
+                           String checkpointFile) {
+        this.readingRepository = readingRepository;
+        this.recognitionService = recognitionService;
+        this.uploadActivity = uploadActivity;
+        this.parallelism = parallelism > 0 ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.chunkSize = chunkSize;
+        this.checkpointFile = Path.of(checkpointFile);
+
+        this.imagesCount = meterRegistry.counter("reprocess.images");
+        this.yieldCount = meterRegistry.counter("reprocess.yields");
+        Gauge.builder("reprocess.images.per.second", this, job -> job.progress().imagesPerSecond())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a run in the background, resuming after the checkpoint if there is one. Returns
+     * {@code false} if a run is already in progress.
+     */
+    public synchronized boolean start() {
+        if (state == State.RUNNING) {
+            return false;
+        }
+        processed.set(0);
+        recognized.set(0);
+        failed.set(0);
+        cancelRequested = false;
+        resumedAfter = readCheckpoint();
+        checkpoint = resumedAfter;
+        startedAt = Instant.now();
+        finishedAt = null;
+        state = State.RUNNING;
+        coordinator = Thread.ofPlatform().name("reprocess").daemon().start(this::run);
+        return true;
+    }
+
+    /**
+     * Asks a running job to stop after the images currently being recognised; the checkpoint is
+     * kept so the next {@link #start} resumes.
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public Progress progress() {
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double seconds = start == null ? 0 : Duration.between(start, end).toNanos() / 1e9;
+        double rate = seconds > 0 ? processed.get() / seconds : 0;
+        return new Progress(state, processed.get(), recognized.get(), failed.get(),
+                resumedAfter, checkpoint, rate, start, finishedAt);
+    }
+
+    /**
+     * Waits for the current run to end; for tests and shutdown.
+     */
+    boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = coordinator;
+        }
+        return thread == null || thread.join(timeout);
+    }
+
+    private void run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int cursor = checkpoint;
+            while (!cancelRequested) {
+                List<Reading> chunk = readingRepository.findAfterId(cursor, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                Map<Integer, RecognitionResult> results = pool.invoke(new ChunkTask(chunk, 0, chunk.size()));
+                Map<Integer, Consumer<Reading>> changes = new HashMap<>();
+                results.forEach((id, result) -> changes.put(id, r -> {
+                    r.setMeterValue(result.value());
+                    r.setConfidence(result.confidence());
+                }));
+                readingRepository.updateAll(changes);
+                if (cancelRequested) {
+                    // the chunk may be incomplete; leave the checkpoint before it
+                    break;
+                }
+                cursor = chunk.getLast().getId();
+                writeCheckpoint(cursor);
+                checkpoint = cursor;
+            }
+            if (cancelRequested) {
+                state = State.CANCELLED;
+            } else {
+                Files.deleteIfExists(checkpointFile);
+                state = State.COMPLETED;
+            }
+            log.info("Reprocessing {}: {} images, {} recognised, {} failed",
+                    state.name().toLowerCase(), processed.get(), recognized.get(), failed.get());
+        } catch (IOException | RuntimeException e) {
+            log.error("Reprocessing failed after id {}", checkpoint, e);
+            state = State.FAILED;
+        } finally {
+            finishedAt = Instant.now();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Recognises {@code readings[from, to)}, splitting in halves down to {@value #LEAF_SIZE}
+     * readings. Returns the results that recognised digits, by reading id.
+     */
+    private final class ChunkTask extends RecursiveTask<Map<Integer, RecognitionResult>> {
+
+        private final List<Reading> readings;
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<Reading> readings, int from, int to) {
+            this.readings = readings;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Integer, RecognitionResult> compute() {
+            if (to - from <= LEAF_SIZE) {
+                Map<Integer, RecognitionResult> results = new HashMap<>();
+                for (int i = from; i < to && !cancelRequested; i++) {
+                    Reading reading = readings.get(i);
+                    awaitIdleIngest();
+                    try {
+                        RecognitionResult result = recognitionService.readWithoutPrior(reading);
+                        if (result.recognized()) {
+                            results.put(reading.getId(), result);
+                            recognized.incrementAndGet();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Reprocessing failed for reading {}: {}", reading.getId(), e.getMessage());
+                        failed.incrementAndGet();
+                    }
+                    processed.incrementAndGet();
+                    imagesCount.increment();
+                }
+                return results;
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(readings, from, mid);
+            left.fork();
+            Map<Integer, RecognitionResult> results = new ChunkTask(readings, mid, to).compute();
+            results.putAll(left.join());
+            return results;
+        }
+    }
+
+    private void awaitIdleIngest() {
+        while (!uploadActivity.isIdle() && !cancelRequested) {
+            yieldCount.increment();
+            try {
+                Thread.sleep(YIELD_PAUSE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    String startupId() {
+        return startupId;
+    }
+
+    /**
+     * The id in the checkpoint file if it was written since this startup, otherwise {@code 0}. A
+     * checkpoint from an earlier startup is deleted.
+     */
+    private int readCheckpoint() {
+        try {
+            if (!Files.exists(checkpointFile)) {
+                return 0;
+            }
+            String[] fields = Files.readString(checkpointFile).trim().split(" ");
+            if (fields.length == 2 && fields[0].equals(startupId)) {
+                return Integer.parseInt(fields[1]);
+            }
+            log.info("Discarding reprocessing checkpoint {} from an earlier startup", checkpointFile);
+            Files.deleteIfExists(checkpointFile);
+            return 0;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Ignoring unreadable reprocessing checkpoint {}: {}", checkpointFile, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces the checkpoint atomically, so a crash leaves either the old or the new id.
+     */
+    private void writeCheckpoint(int id) {
+        try {
+            Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            Files.writeString(tmp, startupId + " " + id);
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write reprocessing checkpoint " + checkpointFile, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cancel();
+    }
+}
@@ -0,0 +1,121 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.config.RetentionConfig;
+import io.gocklkatz.helloopenapi.config.RetentionConfig.Rule;
+import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes images and readings that have aged out according to {@code app.retention.rules}.
+ * Candidates come from the repository's timestamp index, so only readings older than the youngest
+ * rule are looked at. Images are removed through one batched {@link ImageStorageService#delete}
+ * call, and a reading is only removed once its image is confirmed gone.
+ */
+@Service
+@ConditionalOnProperty(name = "app.retention.enabled", havingValue = "true")
+public class RetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+
+    private final ImageStorageService imageStorageService;
+    private final ReadingRepository readingRepository;
+    private final List<Rule> rules;
+    private final Counter deletedCount;
+
+    public RetentionService(ImageStorageService imageStorageService,
+                            ReadingRepository readingRepository,
+                            RetentionConfig retentionConfig,
+                            MeterRegistry meterRegistry) {
+        this.imageStorageService = imageStorageService;
+        this.readingRepository = readingRepository;
+        this.rules = List.copyOf(retentionConfig.getRules());
+        this.deletedCount = meterRegistry.counter("retention.readings.deleted");
+    }
+
+    @Scheduled(cron = "${app.retention.cron:0 30 3 * * *}")
+    public void run() {
+        int deleted = apply(Instant.now());
+        if (deleted > 0) {
+            log.info("Retention removed {} readings", deleted);
+        }
+    }
+
+    /**
+     * Evaluates the rules as of {@code now} and returns the number of readings removed.
+     */
+    int apply(Instant now) {
+        if (rules.isEmpty()) {
+            return 0;
+        }
+        OffsetDateTime reference = now.atOffset(ZoneOffset.UTC);
+        List<ActiveRule> active = rules.stream()
+                .map(rule -> new ActiveRule(rule, reference.minus(rule.olderThan())))
+                .sorted(Comparator.comparing(ActiveRule::threshold))
+                .toList();
+        OffsetDateTime youngestThreshold = active.getLast().threshold();
+
+        List<Reading> expired = new ArrayList<>();
+        Set<Bucket> keptBuckets = new HashSet<>();
+        for (Reading reading : readingRepository.findByTimestampBetween(OffsetDateTime.MIN, youngestThreshold)) {
+            int ruleIndex = ruleFor(reading, active);
+            Duration keepOnePer = active.get(ruleIndex).rule().keepOnePer();
+            if (keepOnePer == null) {
+                expired.add(reading);
+                continue;
+            }
+            long bucket = Math.floorDiv(reading.getTimestamp().toInstant().toEpochMilli(), keepOnePer.toMillis());
+            if (!keptBuckets.add(new Bucket(ruleIndex, bucket))) {
+                expired.add(reading);
+            }
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> gone = imageStorageService.delete(expired.stream().map(Reading::getImagePath).toList());
+        List<Integer> ids = expired.stream()
+                .filter(r -> gone.contains(r.getImagePath()))
+                .map(Reading::getId)
+                .toList();
+        readingRepository.deleteAllById(ids);
+        deletedCount.increment(ids.size());
+        if (ids.size() < expired.size()) {
+            log.warn("Retention kept {} expired readings whose images could not be deleted", expired.size() - ids.size());
+        }
+        return ids.size();
+    }
+
+    /**
+     * Index of the rule with the longest age threshold the reading has passed; {@code active} is
+     * ordered oldest threshold first.
+     */
+    private static int ruleFor(Reading reading, List<ActiveRule> active) {
+        for (int i = 0; i < active.size(); i++) {
+            if (reading.getTimestamp().isBefore(active.get(i).threshold())) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Reading " + reading.getId() + " is younger than every retention rule");
+    }
+
+    private record ActiveRule(Rule rule, OffsetDateTime threshold) {}
+
+    private record Bucket(int ruleIndex, long index) {}
+}
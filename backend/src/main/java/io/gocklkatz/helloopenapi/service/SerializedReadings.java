@@ -0,0 +1,100 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * All readings at one repository version, together with their JSON encoding, plain and gzipped,
+ * and their CBOR encoding. Few clients ask for CBOR, so it is encoded on first use only.
+ * Built by {@link ReadingListCache}. It is a {@code List<Reading>} so it can be returned wherever the
+ * readings list is, while the web layer copies out the stored bytes instead of serialising the
+ * readings again.
+ */
+public final class SerializedReadings extends AbstractList<Reading> implements RandomAccess {
+
+    private final long version;
+    private final List<Reading> readings;
+    private final byte[] json;
+    private final byte[] gzip;
+    private final Supplier<byte[]> cborEncoder;
+    private final ReentrantLock cborLock = new ReentrantLock();
+    private volatile byte[] cbor;
+
+    SerializedReadings(long version, List<Reading> readings, byte[] json, byte[] gzip, Supplier<byte[]> cborEncoder) {
+        this.version = version;
+        this.readings = List.copyOf(readings);
+        this.json = json;
+        this.gzip = gzip;
+        this.cborEncoder = cborEncoder;
+    }
+
+    /** The {@link io.gocklkatz.helloopenapi.repository.ReadingRepository#version()} the list was read at. */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Entity tag for the list; it changes whenever the repository does. It is weak because the
+     * JSON, gzipped and CBOR bodies all carry it: they differ in bytes but not in content.
+     */
+    public String etag() {
+        return "W/\"readings-" + version + "\"";
+    }
+
+    public int jsonLength() {
+        return json.length;
+    }
+
+    public int gzipLength() {
+        return gzip.length;
+    }
+
+    public int cborLength() {
+        return cbor().length;
+    }
+
+    public void writeJson(OutputStream out) throws IOException {
+        out.write(json);
+    }
+
+    public void writeGzip(OutputStream out) throws IOException {
+        out.write(gzip);
+    }
+
+    public void writeCbor(OutputStream out) throws IOException {
+        out.write(cbor());
+    }
+
+    private byte[] cbor() {
+        byte[] encoded = cbor;
+        if (encoded != null) {
+            return encoded;
+        }
+        cborLock.lock();
+        try {
+            if (cbor == null) {
+                cbor = cborEncoder.get();
+            }
+            return cbor;
+        } finally {
+            cborLock.unlock();
+        }
+    }
+
+    @Override
+    public Reading get(int index) {
+        return readings.get(index);
+    }
+
+    @Override
+    public int size() {
+        return readings.size();
+    }
+}
@@ -0,0 +1,72 @@
+package io.gocklkatz.helloopenapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs the parts of one operation concurrently, each on a virtual thread of its own. {@link #join}
+ * waits until all of them have succeeded. As soon as one fails, the others are interrupted and its
+ * exception is rethrown. The caller therefore waits as long as the slowest subtask when all goes
+ * well, and no longer than the first failure when it does not.
+ *
+ * <p>This mirrors {@code StructuredTaskScope.ShutdownOnFailure}, which is only a preview API on
+ * Java 21. Like that scope it belongs to the thread that opened it, is used in a
+ * try-with-resources block, and lets no subtask outlive the block. Subtasks report failure by
+ * throwing unchecked exceptions.
+ */
+final class Subtasks implements AutoCloseable {
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("subtask-", 0).factory());
+    private final CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+    private final List<Future<Object>> forked = new ArrayList<>();
+
+    /**
+     * Starts a subtask. The returned supplier gives its result once {@link #join} has returned.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Supplier<T> fork(Supplier<? extends T> task) {
+        Future<Object> future = completion.submit(task::get);
+        forked.add(future);
+        return () -> (T) future.resultNow();
+    }
+
+    /**
+     * Waits for every subtask to succeed, or rethrows the first failure after interrupting the
+     * rest.
+     */
+    void join() throws InterruptedException {
+        for (int i = 0; i < forked.size(); i++) {
+            Future<Object> done = completion.take();
+            if (done.state() == Future.State.FAILED) {
+                cancelAll();
+                Throwable failure = done.exceptionNow();
+                if (failure instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) failure;
+            }
+        }
+    }
+
+    private void cancelAll() {
+        for (Future<Object> future : forked) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Interrupts any subtask still running and waits for all of them to end.
+     */
+    @Override
+    public void close() {
+        cancelAll();
+        executor.close();
+    }
+}
@@ -0,0 +1,145 @@
+package io.gocklkatz.helloopenapi.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Hands a copy of every byte read from a stream to a second reader, {@link #copy()}, which usually
+ * runs on another thread. One read of an upload can so feed two consumers at once, such as a
+ * decoder and a checksum.
+ *
+ * <p>Up to {@code capacity} chunks wait for the copy; beyond that, reads block until the copy has
+ * caught up. Both sides give up with an {@link InterruptedIOException} when their thread is
+ * interrupted, so a cancelled consumer cannot leave the other blocked. The copy ends where this
+ * stream ends, so the first reader has to read to the end, for example with {@link #drain()}.
+ * Marks are not supported.
+ */
+final class TeeInputStream extends FilterInputStream {
+
+    private static final byte[] END = new byte[0];
+    private static final int DRAIN_BUFFER = 1 << 16;
+
+    private final BlockingQueue<byte[]> chunks;
+    private boolean ended;
+
+    TeeInputStream(InputStream in, int capacity) {
+        super(in);
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n == -1) {
+            end();
+        } else if (n > 0) {
+            put(Arrays.copyOfRange(b, off, off + n));
+        }
+        return n;
+    }
+
+    /** Reads rather than skips, so the skipped bytes reach the copy too. */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, DRAIN_BUFFER)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /** Reads the rest of the stream, passing it to the copy only. */
+    void drain() throws IOException {
+        byte[] buffer = new byte[DRAIN_BUFFER];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // only the copy needs these bytes
+        }
+    }
+
+    /** The bytes read from this stream, in order, ending where this stream ended. */
+    InputStream copy() {
+        return new InputStream() {
+            private byte[] chunk = new byte[0];
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                while (position == chunk.length) {
+                    if (chunk == END) {
+                        return -1;
+                    }
+                    chunk = take();
+                    position = 0;
+                }
+                int n = Math.min(len, chunk.length - position);
+                System.arraycopy(chunk, position, b, off, n);
+                position += n;
+                return n;
+            }
+        };
+    }
+
+    private void end() throws IOException {
+        if (!ended) {
+            ended = true;
+            put(END);
+        }
+    }
+
+    private void put(byte[] chunk) throws IOException {
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Copy of the stream was abandoned");
+        }
+    }
+
+    private byte[] take() throws IOException {
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Reading the stream was abandoned");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks uploads currently being ingested so that background jobs can stay off the disk and
+ * network while a user is waiting on {@code POST /readings}.
+ */
+@Component
+public class UploadActivity {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    public void end() {
+        inFlight.decrementAndGet();
+    }
+
+    public boolean isIdle() {
+        return inFlight.get() == 0;
+    }
+}
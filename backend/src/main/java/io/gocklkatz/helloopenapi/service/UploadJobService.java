@@ -0,0 +1,316 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import com.example.model.UploadJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates readings in the background for {@code POST /readings/jobs}. The upload is written to
+ * {@code app.upload-jobs.spool-dir} and the caller gets a {@code PENDING} job back straight away.
+ * A pool of {@code app.upload-jobs.threads} workers then passes each spooled photo through
+ * {@link ReadingService#createReading}, so quality checks, duplicate detection and recognition
+ * behave exactly as for a direct upload.
+ *
+ * <p>Each job is two files named after its id: the photo, and a properties file with the timestamp
+ * and upload details. Both are written under a temporary name, forced to disk and renamed into
+ * place, the properties last, so a job exists on disk only once it is complete. The directory is
+ * forced too before the job is acknowledged, so a crash cannot lose an accepted upload. Jobs
+ * still spooled at startup
+ * are queued again under their old id; partial files are removed. A job's files are deleted once
+ * it has finished, whether or not it succeeded.
+ *
+ * <p>At most {@code app.upload-jobs.max-pending} jobs wait at once; further uploads are rejected
+ * with a {@link RejectedExecutionException}. The last {@code app.upload-jobs.retained} finished
+ * jobs can still be looked up. Finished jobs are kept in memory only.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadJobService.class);
+
+    private static final String IMAGE = ".image";
+    private static final String DETAILS = ".properties";
+    private static final String PARTIAL = ".part";
+
+    /** A job's latest state; {@code done} completes when it finishes. */
+    private record Job(UploadJob state, CompletableFuture<UploadJob> done) {}
+
+    private final ReadingService readingService;
+    private final Path spoolDir;
+    private final int maxPending;
+    private final int retained;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> finished = new ArrayDeque<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Counter doneCount;
+    private final Counter failedCount;
+
+    public UploadJobService(ReadingService readingService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.upload-jobs.spool-dir:${app.data-dir:/data}/spool}") String spoolDir,
+                            @Value("${app.upload-jobs.threads:2}") int threads,
+                            @Value("${app.upload-jobs.max-pending:1000}") int maxPending,
+                            @Value("${app.upload-jobs.retained:1000}") int retained) {
+        this.readingService = readingService;
+        this.spoolDir = Path.of(spoolDir);
+        this.maxPending = maxPending;
+        this.retained = retained;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("upload-job-", 0).daemon().factory());
+        this.doneCount = meterRegistry.counter("upload.jobs", "outcome", "done");
+        this.failedCount = meterRegistry.counter("upload.jobs", "outcome", "failed");
+        Gauge.builder("upload.jobs.pending", pending, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Queues the jobs left in the spool by the previous run.
+     */
+    @PostConstruct
+    void recover() {
+        try {
+            Files.createDirectories(spoolDir);
+            try (DirectoryStream<Path> partial = Files.newDirectoryStream(spoolDir, "*" + PARTIAL)) {
+                for (Path path : partial) {
+                    Files.delete(path);
+                }
+            }
+            try (DirectoryStream<Path> images = Files.newDirectoryStream(spoolDir, "*" + IMAGE)) {
+                for (Path image : images) {
+                    String id = idOf(image, IMAGE);
+                    if (Files.exists(details(id))) {
+                        resume(id);
+                    } else {
+                        Files.delete(image);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize upload spool " + spoolDir, e);
+        }
+        if (pending.get() > 0) {
+            log.info("Resumed {} spooled uploads from {}", pending.get(), spoolDir);
+        }
+    }
+
+    /**
+     * Spools the upload and queues it. Only the image type is checked here; everything else is
+     * checked when the job runs and reported as its error.
+     *
+     * @throws IllegalArgumentException if the upload is not a supported image type
+     * @throws RejectedExecutionException if {@code app.upload-jobs.max-pending} jobs are waiting
+     */
+    public UploadJob submit(MultipartFile image, OffsetDateTime timestamp) {
+        try (InputStream in = image.getInputStream()) {
+            if (ImageFormat.detect(in.readNBytes(ImageFormat.HEADER_LENGTH)).isEmpty()) {
+                throw new IllegalArgumentException("Unsupported image type: " + image.getContentType());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image", e);
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Too many uploads are waiting to be stored; retry later");
+        }
+        String id = UUID.randomUUID().toString();
+        OffsetDateTime acceptedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            Path imagePart = spoolDir.resolve(id + IMAGE + PARTIAL);
+            image.transferTo(imagePart);
+            try (FileChannel channel = FileChannel.open(imagePart, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(imagePart, image(id), StandardCopyOption.ATOMIC_MOVE);
+
+            Properties details = new Properties();
+            details.setProperty("timestamp", timestamp.toString());
+            details.setProperty("acceptedAt", acceptedAt.toString());
+            if (image.getOriginalFilename() != null) {
+                details.setProperty("filename", image.getOriginalFilename());
+            }
+            if (image.getContentType() != null) {
+                details.setProperty("contentType", image.getContentType());
+            }
+            Path detailsPart = spoolDir.resolve(id + DETAILS + PARTIAL);
+            try (FileChannel channel = FileChannel.open(detailsPart, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                details.store(Channels.newOutputStream(channel), null);
+                channel.force(true);
+            }
+            Files.move(detailsPart, details(id), StandardCopyOption.ATOMIC_MOVE);
+            forceSpoolDir();
+        } catch (IOException e) {
+            abandon(id);
+            throw new UncheckedIOException("Failed to spool upload", e);
+        } catch (RuntimeException e) {
+            abandon(id);
+            throw e;
+        }
+        return enqueue(id, acceptedAt);
+    }
+
+    /**
+     * The job with this id, after waiting up to {@code wait} for it to finish if it is still
+     * pending. Empty if there is no such job or it finished before the last
+     * {@code app.upload-jobs.retained} jobs.
+     */
+    public Optional<UploadJob> find(String id, Duration wait) throws InterruptedException {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (wait.isPositive() && job.state().getStatus() == UploadJob.StatusEnum.PENDING) {
+            try {
+                return Optional.of(job.done().get(wait.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException | ExecutionException e) {
+                // still pending
+            }
+        }
+        return Optional.ofNullable(jobs.get(id)).map(Job::state);
+    }
+
+    private void resume(String id) throws IOException {
+        Properties details = loadDetails(id);
+        pending.incrementAndGet();
+        enqueue(id, OffsetDateTime.parse(details.getProperty("acceptedAt")));
+    }
+
+    private UploadJob enqueue(String id, OffsetDateTime acceptedAt) {
+        UploadJob state = new UploadJob(id, UploadJob.StatusEnum.PENDING, acceptedAt);
+        jobs.put(id, new Job(state, new CompletableFuture<>()));
+        executor.execute(() -> process(id));
+        return state;
+    }
+
+    void process(String id) {
+        Job job = jobs.get(id);
+        UploadJob result = new UploadJob(id, UploadJob.StatusEnum.PENDING, job.state().getAcceptedAt());
+        try {
+            Properties details = loadDetails(id);
+            Reading reading = readingService.createReading(
+                    new SpooledMultipartFile(image(id), details.getProperty("filename"), details.getProperty("contentType")),
+                    OffsetDateTime.parse(details.getProperty("timestamp")));
+            result.setStatus(UploadJob.StatusEnum.DONE);
+            result.setReadingId(reading.getId());
+            doneCount.increment();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Upload job {} failed: {}", id, e.getMessage());
+            result.setStatus(UploadJob.StatusEnum.FAILED);
+            result.setError(e.getMessage());
+            failedCount.increment();
+        }
+        result.setFinishedAt(OffsetDateTime.now(ZoneOffset.UTC));
+        deleteSpool(id);
+        pending.decrementAndGet();
+        jobs.put(id, new Job(result, job.done()));
+        forgetOldest(id);
+        job.done().complete(result);
+    }
+
+    private void abandon(String id) {
+        pending.decrementAndGet();
+        deleteSpool(id);
+    }
+
+    private void forgetOldest(String id) {
+        synchronized (finished) {
+            finished.addLast(id);
+            while (finished.size() > retained) {
+                jobs.remove(finished.removeFirst());
+            }
+        }
+    }
+
+    private Properties loadDetails(String id) throws IOException {
+        Properties details = new Properties();
+        try (InputStream in = Files.newInputStream(details(id))) {
+            details.load(in);
+        }
+        return details;
+    }
+
+    /**
+     * Makes the renames into the spool durable. Windows cannot open a directory this way, and
+     * makes renames durable on its own.
+     */
+    private void forceSpoolDir() throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(spoolDir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void deleteSpool(String id) {
+        for (Path path : new Path[]{details(id), image(id),
+                spoolDir.resolve(id + DETAILS + PARTIAL), spoolDir.resolve(id + IMAGE + PARTIAL)}) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Failed to delete spooled upload {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private Path image(String id) {
+        return spoolDir.resolve(id + IMAGE);
+    }
+
+    private Path details(String id) {
+        return spoolDir.resolve(id + DETAILS);
+    }
+
+    private static String idOf(Path path, String suffix) {
+        String name = path.getFileName().toString();
+        return name.substring(0, name.length() - suffix.length());
+    }
+
+    /**
+     * Jobs not yet started stay in the spool and are resumed by the next run.
+     */
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
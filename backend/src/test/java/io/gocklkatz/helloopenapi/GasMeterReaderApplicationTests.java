@@ -3,7 +3,7 @@ package io.gocklkatz.helloopenapi;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.data-dir=target/test-data")
 class GasMeterReaderApplicationTests {
 
     @Test
@@ -13,6 +13,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +28,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private StreamTickets streamTickets;
+
     @InjectMocks
     private JwtAuthenticationFilter filter;
 
@@ -109,4 +113,60 @@ class JwtAuthenticationFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("existing-user");
         verify(jwtService, never()).extractUsername(any());
     }
+
+    @Test
+    void ticketParameterOnReadingStream_setsTicketUserAuthenticationInSecurityContext() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/readings/stream");
+        request.setParameter("ticket", "valid-ticket");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        when(streamTickets.redeem("valid-ticket")).thenReturn(Optional.of("testuser"));
+
+        filter.doFilterInternal(request, response, chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("testuser");
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void unknownTicketOnReadingStream_passesChainWithoutSettingAuthentication() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/readings/stream");
+        request.setParameter("ticket", "used-ticket");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        when(streamTickets.redeem("used-ticket")).thenReturn(Optional.empty());
+
+        filter.doFilterInternal(request, response, chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void ticketParameterOnOtherEndpoint_passesChainWithoutSettingAuthentication() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/readings");
+        request.setParameter("ticket", "valid-ticket");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilterInternal(request, response, chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(streamTickets);
+    }
+
+    @Test
+    void jwtAsQueryParameterOnReadingStream_isNotAccepted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/readings/stream");
+        request.setParameter("access_token", "valid-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilterInternal(request, response, chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(jwtService);
+    }
 }
@@ -0,0 +1,92 @@
+package io.gocklkatz.helloopenapi.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamTicketsTest {
+
+    /** A clock that only moves when told to. */
+    private static final class TestClock extends Clock {
+        private Instant now = Instant.parse("2026-02-19T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final TestClock clock = new TestClock();
+    private final StreamTickets tickets = new StreamTickets(clock, Duration.ofSeconds(30), 3);
+
+    @Test
+    void redeem_issuedTicket_givesItsUserOnce() {
+        String ticket = tickets.issue("alice");
+
+        assertThat(tickets.redeem(ticket)).contains("alice");
+        assertThat(tickets.redeem(ticket)).isEmpty();
+    }
+
+    @Test
+    void issue_givesDistinctUrlSafeTickets() {
+        String first = tickets.issue("alice");
+        String second = tickets.issue("alice");
+
+        assertThat(first).isNotEqualTo(second).matches("[A-Za-z0-9_-]{43}");
+    }
+
+    @Test
+    void redeem_afterTtl_givesNothing() {
+        String ticket = tickets.issue("alice");
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(tickets.redeem(ticket)).isEmpty();
+    }
+
+    @Test
+    void redeem_unknownTicket_givesNothing() {
+        assertThat(tickets.redeem("guess")).isEmpty();
+    }
+
+    @Test
+    void issue_beyondMaxTickets_forgetsOldestFirst() {
+        String oldest = tickets.issue("alice");
+        for (int i = 0; i < 3; i++) {
+            tickets.issue("bob");
+        }
+
+        assertThat(tickets.size()).isEqualTo(3);
+        assertThat(tickets.redeem(oldest)).isEmpty();
+    }
+
+    @Test
+    void issue_dropsExpiredTickets() {
+        tickets.issue("alice");
+        tickets.issue("alice");
+        clock.advance(Duration.ofSeconds(31));
+
+        tickets.issue("bob");
+
+        assertThat(tickets.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,28 @@
+package io.gocklkatz.helloopenapi.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetentionConfigTest {
+
+    @Test
+    void binding_parsesSimplePeriodAndDurationFormats() {
+        MapConfigurationPropertySource source = new MapConfigurationPropertySource(Map.of(
+                "app.retention.rules[0].older-than", "2y",
+                "app.retention.rules[0].keep-one-per", "7d",
+                "app.retention.rules[1].older-than", "10y"));
+
+        RetentionConfig config = new Binder(source).bind("app.retention", RetentionConfig.class).get();
+
+        assertThat(config.getRules()).containsExactly(
+                new RetentionConfig.Rule(Period.ofYears(2), Duration.ofDays(7)),
+                new RetentionConfig.Rule(Period.ofYears(10), null));
+    }
+}
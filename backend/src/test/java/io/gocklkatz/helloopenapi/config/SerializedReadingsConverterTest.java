@@ -0,0 +1,30 @@
+package io.gocklkatz.helloopenapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedReadingsConverterTest {
+
+    @Test
+    void acceptsGzip_byNameOrWildcard() {
+        assertThat(SerializedReadingsConverter.acceptsGzip("gzip")).isTrue();
+        assertThat(SerializedReadingsConverter.acceptsGzip("br, GZIP;q=0.8")).isTrue();
+        assertThat(SerializedReadingsConverter.acceptsGzip("*")).isTrue();
+    }
+
+    @Test
+    void acceptsGzip_missingOrRefused_isFalse() {
+        assertThat(SerializedReadingsConverter.acceptsGzip(null)).isFalse();
+        assertThat(SerializedReadingsConverter.acceptsGzip("br, deflate")).isFalse();
+        assertThat(SerializedReadingsConverter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedReadingsConverter.acceptsGzip("identity, *;q=0")).isFalse();
+    }
+
+    @Test
+    void acceptsGzip_explicitGzipOverridesWildcard() {
+        assertThat(SerializedReadingsConverter.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(SerializedReadingsConverter.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(SerializedReadingsConverter.acceptsGzip("*;q=0, gzip;q=0.5")).isTrue();
+    }
+}
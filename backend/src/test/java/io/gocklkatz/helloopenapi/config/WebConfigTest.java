@@ -1,7 +1,9 @@
 package io.gocklkatz.helloopenapi.config;
 
 import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
 import io.gocklkatz.helloopenapi.controller.ReadingController;
+import io.gocklkatz.helloopenapi.service.IdempotencyKeys;
 import io.gocklkatz.helloopenapi.service.ReadingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,9 +28,15 @@ class WebConfigTest {
     @MockitoBean
     private ReadingService readingService;
 
+    @MockitoBean
+    private IdempotencyKeys idempotencyKeys;
+
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private StreamTickets streamTickets;
+
     @Test
     void preflight_fromAllowedOrigin_returnsAccessControlHeaders() throws Exception {
         mockMvc.perform(options("/readings")
@@ -0,0 +1,58 @@
+package io.gocklkatz.helloopenapi.controller;
+
+import com.example.model.Alert;
+import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
+import io.gocklkatz.helloopenapi.series.AnomalyDetector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AlertController.class)
+@WithMockUser
+class AlertControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AnomalyDetector anomalyDetector;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private StreamTickets streamTickets;
+
+    @Test
+    void getAlerts_returnsDetectorAlerts() throws Exception {
+        when(anomalyDetector.alerts()).thenReturn(List.of(new Alert(Alert.TypeEnum.LEAK, 7,
+                OffsetDateTime.parse("2026-02-19T04:00:00Z"), 0.2, 0.05, "Gas used during the night")));
+
+        mockMvc.perform(get("/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("LEAK"))
+                .andExpect(jsonPath("$[0].readingId").value(7))
+                .andExpect(jsonPath("$[0].rate").value(0.2));
+    }
+
+    @Test
+    void getAlerts_noAlerts_returnsEmptyArray() throws Exception {
+        when(anomalyDetector.alerts()).thenReturn(List.of());
+
+        mockMvc.perform(get("/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
@@ -2,6 +2,7 @@ package io.gocklkatz.helloopenapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
 import io.gocklkatz.helloopenapi.config.GlobalExceptionHandler;
 import io.gocklkatz.helloopenapi.config.SecurityConfig;
 import io.gocklkatz.helloopenapi.config.UserConfig;
@@ -34,6 +35,9 @@ class AuthControllerTest {
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private StreamTickets streamTickets;
+
     @MockitoBean
     private UserConfig userConfig;
 
@@ -1,8 +1,10 @@
 package io.gocklkatz.helloopenapi.controller;
 
 import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
 import io.gocklkatz.helloopenapi.config.SecurityConfig;
 import io.gocklkatz.helloopenapi.config.UserConfig;
+import io.gocklkatz.helloopenapi.service.IdempotencyKeys;
 import io.gocklkatz.helloopenapi.service.ReadingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,9 +32,15 @@ class ReadingControllerSecurityTest {
     @MockitoBean
     private ReadingService readingService;
 
+    @MockitoBean
+    private IdempotencyKeys idempotencyKeys;
+
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private StreamTickets streamTickets;
+
     @MockitoBean
     private UserConfig userConfig;
 
@@ -1,8 +1,20 @@
 package io.gocklkatz.helloopenapi.controller;
 
+import com.example.model.Consumption;
+import com.example.model.Crossing;
 import com.example.model.Reading;
+import com.example.model.ReadingChanges;
+import com.example.model.SeriesPoint;
 import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
+import io.gocklkatz.helloopenapi.service.IdempotencyKeyException;
+import io.gocklkatz.helloopenapi.service.IdempotencyKeys;
+import io.gocklkatz.helloopenapi.service.ImageQualityException;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.gocklkatz.helloopenapi.service.ReadingListCache;
 import io.gocklkatz.helloopenapi.service.ReadingService;
+import io.gocklkatz.helloopenapi.service.SerializedReadings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
@@ -10,13 +22,24 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
@@ -32,9 +55,15 @@ class ReadingControllerTest {
     @MockitoBean
     private ReadingService readingService;
 
+    @MockitoBean
+    private IdempotencyKeys idempotencyKeys;
+
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private StreamTickets streamTickets;
+
     @Test
     void createReading_validInput_returns201WithReading() throws Exception {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
@@ -55,6 +84,48 @@ class ReadingControllerTest {
         verify(readingService).createReading(any(), any());
     }
 
+    @Test
+    void createReading_withIdempotencyKey_returnsOutcomeAndMarksReplay() throws Exception {
+        Reading reading = new Reading(1, OffsetDateTime.parse("2026-02-19T08:00:00Z"), "2026/02/19/reading_abc.jpg");
+        when(idempotencyKeys.execute(eq("upload-1"), eq("2026-02-19T08:00:00Z"), any()))
+                .thenReturn(new IdempotencyKeys.Outcome(reading, true));
+
+        mockMvc.perform(multipart("/readings")
+                        .file(new MockMultipartFile("image", "meter.jpg", "image/jpeg", "fake content".getBytes()))
+                        .param("timestamp", "2026-02-19T09:00:00+01:00")
+                        .header("Idempotency-Key", "upload-1"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(1));
+
+        verifyNoInteractions(readingService);
+    }
+
+    @Test
+    void createReading_idempotencyKeyInProgress_returns409() throws Exception {
+        when(idempotencyKeys.execute(any(), any(), any())).thenThrow(new IdempotencyKeyException(
+                IdempotencyKeyException.Reason.IN_PROGRESS, "An upload with this Idempotency-Key is still being processed"));
+
+        mockMvc.perform(multipart("/readings")
+                        .file(new MockMultipartFile("image", "meter.jpg", "image/jpeg", "fake content".getBytes()))
+                        .param("timestamp", "2026-02-19T08:00:00Z")
+                        .header("Idempotency-Key", "upload-1"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("An upload with this Idempotency-Key is still being processed"));
+    }
+
+    @Test
+    void createReading_idempotencyKeyReusedForOtherUpload_returns422() throws Exception {
+        when(idempotencyKeys.execute(any(), any(), any())).thenThrow(new IdempotencyKeyException(
+                IdempotencyKeyException.Reason.MISMATCH, "Idempotency-Key was already used for a different upload"));
+
+        mockMvc.perform(multipart("/readings")
+                        .file(new MockMultipartFile("image", "meter.jpg", "image/jpeg", "fake content".getBytes()))
+                        .param("timestamp", "2026-02-19T08:00:00Z")
+                        .header("Idempotency-Key", "upload-1"))
+                .andExpect(status().isUnprocessableContent());
+    }
+
     @Test
     void getAllReadings_noReadings_returns200WithEmptyArray() throws Exception {
         when(readingService.getAllReadings()).thenReturn(List.of());
@@ -90,6 +161,181 @@ class ReadingControllerTest {
         verify(readingService).getAllReadings();
     }
 
+    private static SerializedReadings serializedReadings() {
+        ReadingRepositoryImpl repository = new ReadingRepositoryImpl();
+        Reading reading = new Reading();
+        reading.setTimestamp(OffsetDateTime.parse("2026-02-17T08:00:00Z"));
+        reading.setImagePath("2026/02/17/reading_a.jpg");
+        repository.save(reading);
+        return new ReadingListCache(repository, JsonMapper.builder().build(), CBORMapper.builder().build(),
+                new SimpleMeterRegistry()).get();
+    }
+
+    @Test
+    void getAllReadings_serializedList_writesStoredJsonWithEtag() throws Exception {
+        SerializedReadings readings = serializedReadings();
+        when(readingService.getAllReadings()).thenReturn(readings);
+
+        mockMvc.perform(get("/readings"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(header().string("ETag", readings.etag()))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].imagePath").value("2026/02/17/reading_a.jpg"));
+    }
+
+    @Test
+    void getAllReadings_serializedListAcceptingGzip_writesStoredGzip() throws Exception {
+        SerializedReadings readings = serializedReadings();
+        when(readingService.getAllReadings()).thenReturn(readings);
+
+        byte[] body = mockMvc.perform(get("/readings").header("Accept-Encoding", "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        readings.writeJson(json);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(in.readAllBytes()).isEqualTo(json.toByteArray());
+        }
+    }
+
+    @Test
+    void getAllReadings_serializedListAcceptingCbor_writesStoredCbor() throws Exception {
+        SerializedReadings readings = serializedReadings();
+        when(readingService.getAllReadings()).thenReturn(readings);
+
+        byte[] body = mockMvc.perform(get("/readings").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("ETag", readings.etag()))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+        readings.writeCbor(cbor);
+        assertThat(body).isEqualTo(cbor.toByteArray());
+    }
+
+    @Test
+    void getAllReadings_matchingIfNoneMatch_returns304() throws Exception {
+        SerializedReadings readings = serializedReadings();
+        when(readingService.getAllReadings()).thenReturn(readings);
+
+        mockMvc.perform(get("/readings").header("If-None-Match", readings.etag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getReadingChanges_returnsChangesSinceVersion() throws Exception {
+        Reading changed = new Reading(2, OffsetDateTime.parse("2026-02-18T08:00:00Z"), "2026/02/18/reading_b.jpg");
+        when(readingService.getChanges(1771488000000041L))
+                .thenReturn(new ReadingChanges(1771488000000045L, false, List.of(changed), List.of(1)));
+
+        mockMvc.perform(get("/readings/changes").param("since", "1771488000000041"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1771488000000045L))
+                .andExpect(jsonPath("$.resync").value(false))
+                .andExpect(jsonPath("$.readings[0].id").value(2))
+                .andExpect(jsonPath("$.deleted[0]").value(1));
+    }
+
+    @Test
+    void getReadingChanges_withoutSince_returns400() throws Exception {
+        mockMvc.perform(get("/readings/changes"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getReadingSeries_withRange_returnsPoints() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2026-02-01T00:00:00Z");
+        when(readingService.getSeries(from, to, 200)).thenReturn(List.of(
+                new SeriesPoint(OffsetDateTime.parse("2026-01-01T08:00:00Z"), 1200.0, 0.0),
+                new SeriesPoint(OffsetDateTime.parse("2026-01-31T08:00:00Z"), 1290.5, 90.5)));
+
+        mockMvc.perform(get("/readings/series")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2026-02-01T00:00:00Z")
+                        .param("points", "200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].meterValue").value(1290.5))
+                .andExpect(jsonPath("$[1].consumption").value(90.5));
+    }
+
+    @Test
+    void getReadingSeries_noParameters_usesOpenRangeAndDefaultPoints() throws Exception {
+        when(readingService.getSeries(null, null, 500)).thenReturn(List.of());
+
+        mockMvc.perform(get("/readings/series"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void getReadingSeries_tooFewPoints_returns400() throws Exception {
+        mockMvc.perform(get("/readings/series").param("points", "2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("points")));
+    }
+
+    @Test
+    void getConsumption_billingPeriod_returnsConsumption() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2026-10-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2027-01-01T00:00:00Z");
+        when(readingService.getConsumption(from, to)).thenReturn(new Consumption(from, to, 412.5, true));
+
+        mockMvc.perform(get("/readings/consumption")
+                        .param("from", "2026-10-01T00:00:00Z")
+                        .param("to", "2027-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consumption").value(412.5))
+                .andExpect(jsonPath("$.complete").value(true));
+    }
+
+    @Test
+    void getConsumption_invertedPeriod_returns400() throws Exception {
+        when(readingService.getConsumption(any(), any()))
+                .thenThrow(new IllegalArgumentException("'to' must not be before 'from'"));
+
+        mockMvc.perform(get("/readings/consumption")
+                        .param("from", "2027-01-01T00:00:00Z")
+                        .param("to", "2026-10-01T00:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("'to' must not be before 'from'"));
+    }
+
+    @Test
+    void getConsumption_missingBound_returns400() throws Exception {
+        mockMvc.perform(get("/readings/consumption").param("from", "2026-10-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCrossing_reachedValue_returnsTimestamp() throws Exception {
+        OffsetDateTime at = OffsetDateTime.parse("2026-03-14T15:00:00Z");
+        when(readingService.getCrossing(12345.0)).thenReturn(Optional.of(
+                new Crossing(12345.0, at, at.minusDays(1), at.plusDays(1))));
+
+        mockMvc.perform(get("/readings/crossing").param("value", "12345"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value(12345.0))
+                .andExpect(jsonPath("$.timestamp").exists())
+                .andExpect(jsonPath("$.earliest").exists());
+    }
+
+    @Test
+    void getCrossing_valueNeverReached_returns404() throws Exception {
+        when(readingService.getCrossing(99999.0)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/readings/crossing").param("value", "99999"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getReadingById_existingId_returns200WithReading() throws Exception {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
@@ -106,6 +352,33 @@ class ReadingControllerTest {
         verify(readingService).getReadingById(1);
     }
 
+    @Test
+    void getReadingById_acceptCbor_returnsCbor() throws Exception {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        Reading reading = new Reading(1, timestamp, "2026/02/19/reading_abc.jpg");
+        when(readingService.getReadingById(1)).thenReturn(Optional.of(reading));
+
+        byte[] body = mockMvc.perform(get("/readings/1").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Reading decoded = CBORMapper.builder().build().readValue(body, Reading.class);
+        assertThat(decoded.getId()).isEqualTo(1);
+        assertThat(decoded.getImagePath()).isEqualTo("2026/02/19/reading_abc.jpg");
+        assertThat(decoded.getTimestamp().toInstant()).isEqualTo(timestamp.toInstant());
+    }
+
+    @Test
+    void getReadingById_anyAccept_prefersJson() throws Exception {
+        when(readingService.getReadingById(1)).thenReturn(Optional.of(
+                new Reading(1, OffsetDateTime.parse("2026-02-19T08:00:00Z"), "2026/02/19/reading_abc.jpg")));
+
+        mockMvc.perform(get("/readings/1").accept("*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"));
+    }
+
     @Test
     void getReadingById_unknownId_returns404() throws Exception {
         when(readingService.getReadingById(99)).thenReturn(Optional.empty());
@@ -159,4 +432,29 @@ class ReadingControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Unsupported content type"));
     }
+
+    @Test
+    void createReading_uploadTooLarge_returns413WithErrorBody() throws Exception {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "fake content".getBytes());
+        when(readingService.createReading(any(), any())).thenThrow(new MaxUploadSizeExceededException(20L * 1024 * 1024));
+
+        mockMvc.perform(multipart("/readings")
+                        .file(image)
+                        .param("timestamp", "2026-02-19T08:00:00Z"))
+                .andExpect(status().isContentTooLarge())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void createReading_unusablePhoto_returns422WithReason() throws Exception {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "fake content".getBytes());
+        when(readingService.createReading(any(), any())).thenThrow(new ImageQualityException(
+                ImageQualityException.Reason.BLUR, "Image is too blurred (sharpness 42, at least 100 needed)"));
+
+        mockMvc.perform(multipart("/readings")
+                        .file(image)
+                        .param("timestamp", "2026-02-19T08:00:00Z"))
+                .andExpect(status().isUnprocessableContent())
+                .andExpect(jsonPath("$.error").value("Image is too blurred (sharpness 42, at least 100 needed)"));
+    }
 }
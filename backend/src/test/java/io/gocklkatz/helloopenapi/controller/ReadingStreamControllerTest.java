@@ -0,0 +1,81 @@
+package io.gocklkatz.helloopenapi.controller;
+
+import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
+import io.gocklkatz.helloopenapi.service.ReadingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReadingStreamController.class)
+@WithMockUser
+class ReadingStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReadingStream readingStream;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private StreamTickets streamTickets;
+
+    @Test
+    void streamReadings_withLastEventId_resumesAfterIt() throws Exception {
+        when(readingStream.subscribe(7)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/readings/stream").header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted());
+
+        verify(readingStream).subscribe(7);
+    }
+
+    @Test
+    void streamReadings_withLastEventIdParameter_resumesAfterIt() throws Exception {
+        when(readingStream.subscribe(7)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/readings/stream").param("lastEventId", "7"))
+                .andExpect(request().asyncStarted());
+
+        verify(readingStream).subscribe(7);
+    }
+
+    @Test
+    void streamReadings_withoutLastEventId_startsFromNow() throws Exception {
+        when(readingStream.subscribe(null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/readings/stream"))
+                .andExpect(request().asyncStarted());
+
+        verify(readingStream).subscribe(null);
+    }
+
+    @Test
+    void createStreamTicket_issuesTicketForCurrentUser() throws Exception {
+        when(streamTickets.issue("user")).thenReturn("abc123");
+
+        mockMvc.perform(post("/readings/stream/ticket").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ticket").value("abc123"));
+    }
+
+    @Test
+    void streamReadings_nonNumericLastEventId_returns400() throws Exception {
+        mockMvc.perform(get("/readings/stream").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+}
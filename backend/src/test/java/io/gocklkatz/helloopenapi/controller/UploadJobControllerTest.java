@@ -0,0 +1,98 @@
+package io.gocklkatz.helloopenapi.controller;
+
+import com.example.model.UploadJob;
+import io.gocklkatz.helloopenapi.auth.JwtService;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
+import io.gocklkatz.helloopenapi.service.UploadJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UploadJobController.class)
+@WithMockUser
+class UploadJobControllerTest {
+
+    private static final OffsetDateTime ACCEPTED_AT = OffsetDateTime.parse("2026-02-19T08:00:05Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UploadJobService uploadJobService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private StreamTickets streamTickets;
+
+    private final MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "fake content".getBytes());
+
+    @Test
+    void createUploadJob_returns202WithJobAndLocation() throws Exception {
+        when(uploadJobService.submit(any(), eq(OffsetDateTime.parse("2026-02-19T08:00:00Z"))))
+                .thenReturn(new UploadJob("job-1", UploadJob.StatusEnum.PENDING, ACCEPTED_AT));
+
+        mockMvc.perform(multipart("/readings/jobs")
+                        .file(image)
+                        .param("timestamp", "2026-02-19T08:00:00Z"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/readings/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void createUploadJob_tooManyPending_returns503() throws Exception {
+        when(uploadJobService.submit(any(), any()))
+                .thenThrow(new RejectedExecutionException("Too many uploads are waiting to be stored; retry later"));
+
+        mockMvc.perform(multipart("/readings/jobs")
+                        .file(image)
+                        .param("timestamp", "2026-02-19T08:00:00Z"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Too many uploads are waiting to be stored; retry later"));
+    }
+
+    @Test
+    void getUploadJob_withWait_returnsFinishedJob() throws Exception {
+        UploadJob done = new UploadJob("job-1", UploadJob.StatusEnum.DONE, ACCEPTED_AT);
+        done.setReadingId(7);
+        when(uploadJobService.find("job-1", Duration.ofSeconds(10))).thenReturn(Optional.of(done));
+
+        mockMvc.perform(get("/readings/jobs/job-1").param("wait", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.readingId").value(7));
+    }
+
+    @Test
+    void getUploadJob_unknown_returns404() throws Exception {
+        when(uploadJobService.find("missing", Duration.ZERO)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/readings/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUploadJob_waitAboveMaximum_returns400() throws Exception {
+        mockMvc.perform(get("/readings/jobs/job-1").param("wait", "31"))
+                .andExpect(status().isBadRequest());
+    }
+}
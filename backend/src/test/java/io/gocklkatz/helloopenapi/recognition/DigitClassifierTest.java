@@ -0,0 +1,54 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DigitClassifierTest {
+
+    @Test
+    void loadTemplates_checkedInSheet_hasTemplatesForEveryDigit() throws IOException {
+        BufferedImage sheet;
+        try (InputStream in = DigitClassifier.class.getResourceAsStream(DigitClassifier.TEMPLATE_SHEET)) {
+            sheet = ImageIO.read(in);
+        }
+
+        List<float[]>[] templates = DigitClassifier.loadTemplates(sheet);
+
+        assertThat(templates).hasSize(10).allSatisfy(forDigit -> assertThat(forDigit).isNotEmpty());
+        assertThat(templates[1].size()).isGreaterThan(templates[0].size());
+    }
+
+    @Test
+    void loadTemplates_sheetOfWrongWidth_isRejected() {
+        BufferedImage sheet = new BufferedImage(9 * DigitClassifier.CELL_WIDTH, DigitClassifier.CELL_HEIGHT,
+                BufferedImage.TYPE_BYTE_BINARY);
+
+        assertThatThrownBy(() -> DigitClassifier.loadTemplates(sheet))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unexpected size");
+    }
+
+    @Test
+    void loadTemplates_emptyColumn_isRejected() {
+        BufferedImage blank = new BufferedImage(10 * DigitClassifier.CELL_WIDTH, DigitClassifier.CELL_HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = blank.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, blank.getWidth(), blank.getHeight());
+        g.dispose();
+
+        assertThatThrownBy(() -> DigitClassifier.loadTemplates(blank))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no template for 0");
+    }
+}
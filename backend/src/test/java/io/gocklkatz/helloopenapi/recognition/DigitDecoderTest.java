@@ -0,0 +1,62 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DigitDecoderTest {
+
+    /** Probabilities that make {@code digits} the clear favourite, with {@code second} as runner-up. */
+    private static double[][] favouring(String digits, String second) {
+        double[][] probabilities = new double[digits.length()][10];
+        for (int position = 0; position < digits.length(); position++) {
+            Arrays.fill(probabilities[position], 0.01);
+            probabilities[position][second.charAt(position) - '0'] += 0.2;
+            probabilities[position][digits.charAt(position) - '0'] += 0.7;
+        }
+        return probabilities;
+    }
+
+    @Test
+    void argmax_picksMostProbableDigitPerPosition() {
+        assertThat(DigitDecoder.argmax(favouring("0815", "0000"))).containsExactly(0, 8, 1, 5);
+    }
+
+    @Test
+    void constrained_argmaxInsideRange_isKept() {
+        assertThat(DigitDecoder.constrained(favouring("0815", "0000"), 800, 900)).containsExactly(0, 8, 1, 5);
+    }
+
+    @Test
+    void constrained_argmaxOutsideRange_choosesBestStringInsideRange() {
+        // a misread 8 -> 3 takes the value below the previous reading; the runner-up fits
+        double[][] probabilities = favouring("0315", "0815");
+
+        assertThat(DigitDecoder.constrained(probabilities, 800, 900)).containsExactly(0, 8, 1, 5);
+    }
+
+    @Test
+    void constrained_respectsBothBoundsAcrossCarries() {
+        double[][] probabilities = favouring("1999", "2000");
+
+        int[] digits = DigitDecoder.constrained(probabilities, 2000, 2005);
+
+        assertThat(DigitDecoder.valueOf(digits)).isBetween(2000L, 2005L);
+        assertThat(digits).containsExactly(2, 0, 0, 0);
+    }
+
+    @Test
+    void constrained_rangeBeyondDigitCount_returnsNull() {
+        assertThat(DigitDecoder.constrained(favouring("99", "00"), 100, 200)).isNull();
+    }
+
+    @Test
+    void probability_isProductOfChosenDigits() {
+        double[][] probabilities = favouring("12", "00");
+
+        assertThat(DigitDecoder.probability(probabilities, new int[]{1, 2})).isEqualTo(0.71 * 0.71, within(1e-12));
+    }
+}
@@ -0,0 +1,165 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.DigitSegmenter.GlyphBox;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.gocklkatz.helloopenapi.recognition.DigitClassifier.CELL_HEIGHT;
+import static io.gocklkatz.helloopenapi.recognition.DigitClassifier.CELL_WIDTH;
+
+/**
+ * Writes the digit template sheet that {@link DigitClassifier} loads. It is not run by the build;
+ * the sheet is checked in, so the recogniser never depends on the fonts of the host it runs on.
+ * Run it only to change the templates, then bump {@link MeterRecognizer#REVISION}:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.gocklkatz.helloopenapi.recognition.DigitTemplateSheet \
+ *     -Dexec.args=src/main/resources/recognition/digit-templates.png
+ * </pre>
+ *
+ * Each row is one of the JDK's logical fonts in plain and bold, rendered at {@value #RENDER_SIZE}
+ * points and thresholded. Rows identical to an earlier one, as when two logical fonts map to the
+ * same physical font, are left out. Odometer wheels usually print a 1 without a foot, which none of
+ * these fonts do, so a last set of rows holds only each font's 1 with its foot cut off.
+ */
+final class DigitTemplateSheet {
+
+    private static final int RENDER_SIZE = 96;
+    private static final String[] FONT_FAMILIES = {Font.SANS_SERIF, Font.SERIF, Font.MONOSPACED, Font.DIALOG};
+    private static final int[] FONT_STYLES = {Font.PLAIN, Font.BOLD};
+
+    private DigitTemplateSheet() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path target = Path.of(args[0]);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        ImageIO.write(render(), "png", target.toFile());
+    }
+
+    static BufferedImage render() {
+        List<boolean[][]> rows = new ArrayList<>();
+        for (String family : FONT_FAMILIES) {
+            for (int style : FONT_STYLES) {
+                boolean[][] row = new boolean[10][];
+                for (int digit = 0; digit < 10; digit++) {
+                    row[digit] = renderCell(new Font(family, style, RENDER_SIZE), digit);
+                }
+                if (rows.stream().noneMatch(existing -> Arrays.deepEquals(existing, row))) {
+                    rows.add(row);
+                }
+            }
+        }
+        int fontRows = rows.size();
+        for (int r = 0; r < fontRows; r++) {
+            boolean[][] row = new boolean[10][CELL_WIDTH * CELL_HEIGHT];
+            row[1] = withoutFoot(rows.get(r)[1]);
+            rows.add(row);
+        }
+        BufferedImage sheet = new BufferedImage(10 * CELL_WIDTH, rows.size() * CELL_HEIGHT, BufferedImage.TYPE_BYTE_BINARY);
+        for (int r = 0; r < rows.size(); r++) {
+            for (int digit = 0; digit < 10; digit++) {
+                boolean[] cell = rows.get(r)[digit];
+                for (int y = 0; y < CELL_HEIGHT; y++) {
+                    for (int x = 0; x < CELL_WIDTH; x++) {
+                        int rgb = cell[y * CELL_WIDTH + x] ? 0x000000 : 0xFFFFFF;
+                        sheet.setRGB(digit * CELL_WIDTH + x, r * CELL_HEIGHT + y, rgb);
+                    }
+                }
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * Clears everything in the bottom fifth of a 1 that lies outside the columns of its stem,
+     * measured halfway down.
+     */
+    private static boolean[] withoutFoot(boolean[] one) {
+        int top = CELL_HEIGHT;
+        int bottom = -1;
+        for (int i = 0; i < one.length; i++) {
+            if (one[i]) {
+                top = Math.min(top, i / CELL_WIDTH);
+                bottom = Math.max(bottom, i / CELL_WIDTH);
+            }
+        }
+        int middle = (top + bottom) / 2;
+        int stemLeft = CELL_WIDTH;
+        int stemRight = -1;
+        for (int x = 0; x < CELL_WIDTH; x++) {
+            if (one[middle * CELL_WIDTH + x]) {
+                stemLeft = Math.min(stemLeft, x);
+                stemRight = Math.max(stemRight, x);
+            }
+        }
+        boolean[] cut = one.clone();
+        for (int y = bottom - (bottom - top) / 5; y <= bottom; y++) {
+            for (int x = 0; x < CELL_WIDTH; x++) {
+                if (x < stemLeft || x > stemRight) {
+                    cut[y * CELL_WIDTH + x] = false;
+                }
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * Renders {@code digit} dark on light and keeps only its largest connected glyph, centred in a
+     * cell.
+     */
+    private static boolean[] renderCell(Font font, int digit) {
+        int size = RENDER_SIZE * 2;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.BLACK);
+            g.setFont(font);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(Integer.toString(digit), RENDER_SIZE / 2, RENDER_SIZE / 2 + metrics.getAscent());
+        } finally {
+            g.dispose();
+        }
+        GrayImage gray = GrayImageDecoder.toGray(image);
+        byte[] mask = PixelKernels.threshold(gray.pixels(), 127, false);
+        int[] labels = new int[mask.length];
+        GlyphBox largest = null;
+        for (GlyphBox box : DigitSegmenter.label(mask, labels, size, size)) {
+            if (largest == null || box.pixelCount() > largest.pixelCount()) {
+                largest = box;
+            }
+        }
+        boolean[] cell = new boolean[CELL_WIDTH * CELL_HEIGHT];
+        if (largest == null) {
+            return cell;
+        }
+        if (largest.width() > CELL_WIDTH - 4 || largest.height() > CELL_HEIGHT - 4) {
+            throw new IllegalStateException("Glyph " + digit + " of " + font + " does not fit a template cell");
+        }
+        int left = (CELL_WIDTH - largest.width()) / 2;
+        int top = (CELL_HEIGHT - largest.height()) / 2;
+        for (int y = 0; y < largest.height(); y++) {
+            for (int x = 0; x < largest.width(); x++) {
+                int source = (largest.y() + y) * size + largest.x() + x;
+                cell[(top + y) * CELL_WIDTH + left + x] = labels[source] == largest.label();
+            }
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,59 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the upload quality gate. {@code measure} is the check itself on a 512-pixel preview;
+ * {@code decodePreview} and {@code decodeAndMeasure} include the subsampled JPEG decode that the
+ * gate shares with duplicate detection.
+ *
+ * Run with {@code mvn test-compile exec:exec -Pbenchmark -Dbenchmark=ImageQualityBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageQualityBenchmark {
+
+    private static final int PREVIEW_SIZE = 512;
+
+    private byte[] jpeg;
+    private Decoded preview;
+
+    @Setup
+    public void setUp() throws IOException {
+        jpeg = MeterPhotos.jpeg("01234567", 1);
+        preview = decodePreview();
+    }
+
+    @Benchmark
+    public ImageQuality measure() {
+        return ImageQuality.measure(preview);
+    }
+
+    @Benchmark
+    public Decoded decodePreview() throws IOException {
+        return GrayImageDecoder.decode(new ByteArrayInputStream(jpeg), PREVIEW_SIZE, null);
+    }
+
+    @Benchmark
+    public ImageQuality decodeAndMeasure() throws IOException {
+        return ImageQuality.measure(decodePreview());
+    }
+}
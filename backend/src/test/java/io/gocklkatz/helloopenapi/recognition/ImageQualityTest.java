@@ -0,0 +1,69 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ImageQualityTest {
+
+    private static final int PREVIEW_SIZE = 512;
+
+    private static ImageQuality measure(BufferedImage photo) throws IOException {
+        byte[] jpeg = MeterPhotos.encode(photo);
+        return ImageQuality.measure(GrayImageDecoder.decode(new ByteArrayInputStream(jpeg), PREVIEW_SIZE, null));
+    }
+
+    private static BufferedImage boxBlur(BufferedImage image, int size) {
+        float[] weights = new float[size * size];
+        Arrays.fill(weights, 1f / weights.length);
+        return new ConvolveOp(new Kernel(size, size, weights), ConvolveOp.EDGE_NO_OP, null).filter(image, null);
+    }
+
+    @Test
+    void measure_meterPhoto_isSharpAndWellExposed() throws IOException {
+        ImageQuality quality = measure(MeterPhotos.render("01234567", 3, 0, 0));
+
+        assertThat(quality.sourceWidth()).isEqualTo(MeterPhotos.WIDTH);
+        assertThat(quality.sourceHeight()).isEqualTo(MeterPhotos.HEIGHT);
+        assertThat(quality.sharpness()).isGreaterThan(1000);
+        assertThat(quality.meanBrightness()).isBetween(100.0, 220.0);
+        assertThat(quality.darkFraction() + quality.brightFraction()).isLessThan(0.1);
+    }
+
+    @Test
+    void measure_blurredMeterPhoto_losesSharpness() throws IOException {
+        BufferedImage photo = MeterPhotos.render("01234567", 3, 0, 0);
+
+        double sharp = measure(photo).sharpness();
+        double slightlyBlurred = measure(boxBlur(photo, 3)).sharpness();
+        double blurred = measure(boxBlur(photo, 15)).sharpness();
+
+        assertThat(slightlyBlurred).isLessThan(sharp);
+        assertThat(blurred).isLessThan(100);
+    }
+
+    @Test
+    void measure_countsClippedPixels() {
+        int[] pixels = new int[100];
+        Arrays.fill(pixels, 0, 25, 0);
+        Arrays.fill(pixels, 25, 75, 128);
+        Arrays.fill(pixels, 75, 100, 255);
+
+        ImageQuality quality = ImageQuality.measure(new Decoded(new GrayImage(10, 10, pixels), 10, 10, 1,
+                new Rectangle(0, 0, 10, 10)));
+
+        assertThat(quality.darkFraction()).isCloseTo(0.25, within(1e-9));
+        assertThat(quality.brightFraction()).isCloseTo(0.25, within(1e-9));
+        assertThat(quality.meanBrightness()).isCloseTo((64 * 50 * 2 + 255 * 25) / 100.0, within(1e-9));
+    }
+}
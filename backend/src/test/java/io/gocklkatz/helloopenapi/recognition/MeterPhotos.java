@@ -0,0 +1,172 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Synthetic gas meter photos: a light housing with a printed label, a dark odometer window with
+ * white digits on black and red wheels, a little rotation, sensor noise and JPEG compression.
+ * Deterministic for a given seed, so tests and benchmarks see the same fixture set every run.
+ *
+ * <p>The digits are drawn as pen strokes with a varying width, not with a font. They share no
+ * shapes with the recogniser's templates, so the tests measure how well it reads glyphs it was not
+ * built from, and they need no fonts on the host.
+ */
+final class MeterPhotos {
+
+    static final int WIDTH = 1600;
+    static final int HEIGHT = 1200;
+
+    private static final Map<List<Long>, List<Photo>> FIXTURE_SETS = new ConcurrentHashMap<>();
+
+    private MeterPhotos() {
+    }
+
+    record Photo(String digits, byte[] jpeg) {}
+
+    /** The same list for the same arguments; rendering a set takes a few seconds. */
+    static List<Photo> fixtureSet(int size, long seed) {
+        return FIXTURE_SETS.computeIfAbsent(List.of((long) size, seed), key -> render(size, seed));
+    }
+
+    private static List<Photo> render(int size, long seed) {
+        Random random = new Random(seed);
+        List<Photo> photos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String digits = String.format("%08d", random.nextInt(100_000_000));
+            photos.add(new Photo(digits, jpeg(digits, random.nextLong())));
+        }
+        return List.copyOf(photos);
+    }
+
+    /**
+     * Photos of one meter on consecutive days, advancing by up to 15 m³ a day, starting at
+     * {@code start} in thousandths of a cubic metre.
+     */
+    static List<Photo> dailySeries(int size, long start, long seed) {
+        return FIXTURE_SETS.computeIfAbsent(List.of((long) size, start, seed), key -> {
+            Random random = new Random(seed);
+            List<Photo> photos = new ArrayList<>(size);
+            long value = start;
+            for (int i = 0; i < size; i++) {
+                String digits = String.format("%08d", value);
+                photos.add(new Photo(digits, jpeg(digits, random.nextLong())));
+                value += random.nextInt(15_000);
+            }
+            return List.copyOf(photos);
+        });
+    }
+
+    static byte[] jpeg(String digits, long seed) {
+        return encode(render(digits, seed, 0, 0));
+    }
+
+    /**
+     * @param shiftX horizontal offset of the digit window from its usual place, in pixels
+     * @param shiftY vertical offset of the digit window from its usual place, in pixels
+     */
+    static BufferedImage render(String digits, long seed, int shiftX, int shiftY) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int face = 190 + random.nextInt(30);
+            g.setColor(new Color(face, face, face - 5));
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+
+            g.rotate(Math.toRadians(random.nextDouble() * 3 - 1.5), WIDTH / 2.0, HEIGHT / 2.0);
+            g.setColor(new Color(60, 60, 60));
+            g.setStroke(new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            drawLabel(g, "4", 420, 355);
+            drawLabel(g, "6", 560, 355);
+            drawLabel(g, "05", 760, 355);
+            g.drawLine(420, 400, 1180, 400);
+            drawLabel(g, "3", 1260, 615);
+
+            int windowWidth = 860;
+            int windowHeight = 150;
+            int windowX = 370 + shiftX + random.nextInt(21) - 10;
+            int windowY = 520 + shiftY + random.nextInt(21) - 10;
+            g.setColor(new Color(30, 30, 30));
+            g.fillRect(windowX - 12, windowY - 12, windowWidth + 24, windowHeight + 24);
+
+            int cell = windowWidth / digits.length();
+            double glyphHeight = 84 + random.nextInt(12);
+            double glyphWidth = glyphHeight * (0.5 + random.nextDouble() * 0.1);
+            g.setStroke(new BasicStroke(10 + random.nextInt(5), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            for (int i = 0; i < digits.length(); i++) {
+                int cellX = windowX + i * cell;
+                boolean fraction = i >= digits.length() - 3;
+                g.setColor(fraction ? new Color(150, 28, 28) : new Color(20, 20, 20));
+                g.fillRect(cellX + 4, windowY, cell - 8, windowHeight);
+                g.setColor(new Color(235, 235, 230));
+                g.draw(StrokeDigits.shape(digits.charAt(i) - '0',
+                        cellX + (cell - glyphWidth) / 2, windowY + (windowHeight - glyphHeight) / 2,
+                        glyphWidth, glyphHeight));
+            }
+            g.setColor(new Color(80, 80, 80));
+            g.setStroke(new BasicStroke(3));
+            g.drawRect(windowX - 20, windowY - 20, windowWidth + 40, windowHeight + 40);
+        } finally {
+            g.dispose();
+        }
+        addNoise(image, random);
+        return image;
+    }
+
+    private static void drawLabel(Graphics2D g, String digits, int x, int baseline) {
+        for (int i = 0; i < digits.length(); i++) {
+            g.draw(StrokeDigits.shape(digits.charAt(i) - '0', x + i * 22, baseline - 28, 15, 28));
+        }
+    }
+
+    private static void addNoise(BufferedImage image, Random random) {
+        int[] rgb = image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        for (int i = 0; i < rgb.length; i++) {
+            int n = (int) (random.nextGaussian() * 6);
+            int r = clamp(((rgb[i] >> 16) & 0xFF) + n);
+            int gr = clamp(((rgb[i] >> 8) & 0xFF) + n);
+            int b = clamp((rgb[i] & 0xFF) + n);
+            rgb[i] = (r << 16) | (gr << 8) | b;
+        }
+        image.setRGB(0, 0, WIDTH, HEIGHT, rgb, 0, WIDTH);
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(255, v));
+    }
+
+    static byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.85f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,133 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.gocklkatz.helloopenapi.recognition.DigitWindow.Alignment;
+import io.gocklkatz.helloopenapi.recognition.DigitWindow.Reference;
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-image cost of the recognition pipeline over a fixed set of synthetic 1600x1200 meter photos.
+ *
+ * <ul>
+ *   <li>{@code decode}: JPEG decoding and grayscale conversion of the whole frame</li>
+ *   <li>{@code recognizeFullFrame} / {@code recognizeCachedWindow}: the whole pipeline from JPEG
+ *       bytes, without and with a remembered digit window</li>
+ *   <li>{@code recognizeDailySeriesWithPrior}: the windowed pipeline over a daily series, each photo
+ *       bounded by the previous day's value</li>
+ *   <li>{@code processFullFrame} / {@code processCachedWindow}: everything after decoding, on
+ *       pre-decoded pixels, to show the processing cost without the decoder's share</li>
+ * </ul>
+ *
+ * Run with {@code mvn test-compile exec:exec -Pbenchmark -Dbenchmark=MeterRecognizerBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeterRecognizerBenchmark {
+
+    private static final int MAX_DIMENSION = 1280;
+
+    private final MeterRecognizer fullFrame =
+            new MeterRecognizer(8, 3, MAX_DIMENSION, false, 0.6, 0.5, new SimpleMeterRegistry());
+    private final MeterRecognizer cachedWindow =
+            new MeterRecognizer(8, 3, MAX_DIMENSION, true, 0.6, 0.5, new SimpleMeterRegistry());
+    private final RememberedWindow window = new RememberedWindow();
+    private final DigitSegmenter segmenter = new DigitSegmenter(8);
+    private final DigitClassifier classifier = new DigitClassifier();
+
+    private List<MeterPhotos.Photo> photos;
+    private List<MeterPhotos.Photo> series;
+    private List<ValueRange> seriesRanges;
+    private List<GrayImage> frames;
+    private List<Decoded> searchRegions;
+    private Reference reference;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        photos = MeterPhotos.fixtureSet(20, 7);
+        cachedWindow.recognize(photos.getFirst().jpeg(), null, window);
+        series = MeterPhotos.dailySeries(photos.size(), 1_234_567, 11);
+        seriesRanges = new ArrayList<>();
+        for (int i = 0; i < series.size(); i++) {
+            double previous = i == 0 ? 0 : Long.parseLong(series.get(i - 1).digits()) / 1000.0;
+            seriesRanges.add(new ValueRange(previous, previous + 50));
+        }
+
+        Decoded first = GrayImageDecoder.decode(new ByteArrayInputStream(photos.getFirst().jpeg()), MAX_DIMENSION, null);
+        reference = DigitWindow.capture(first, segmenter.segment(first.image()).orElseThrow());
+        Rectangle search = DigitWindow.searchRegion(reference, 0.5);
+        frames = new ArrayList<>();
+        searchRegions = new ArrayList<>();
+        for (MeterPhotos.Photo photo : photos) {
+            frames.add(GrayImageDecoder.decode(new ByteArrayInputStream(photo.jpeg()), MAX_DIMENSION));
+            searchRegions.add(GrayImageDecoder.decode(new ByteArrayInputStream(photo.jpeg()), MAX_DIMENSION, search));
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) % photos.size();
+        return index;
+    }
+
+    @Benchmark
+    public GrayImage decode() throws IOException {
+        return GrayImageDecoder.decode(new ByteArrayInputStream(photos.get(nextIndex()).jpeg()), MAX_DIMENSION);
+    }
+
+    @Benchmark
+    public RecognitionResult recognizeFullFrame() throws IOException {
+        return fullFrame.recognize(photos.get(nextIndex()).jpeg());
+    }
+
+    @Benchmark
+    public RecognitionResult recognizeCachedWindow() throws IOException {
+        return cachedWindow.recognize(photos.get(nextIndex()).jpeg(), null, window);
+    }
+
+    /**
+     * Like {@code recognizeCachedWindow}, over a daily series where each photo is bounded by the
+     * previous day's value.
+     */
+    @Benchmark
+    public RecognitionResult recognizeDailySeriesWithPrior() throws IOException {
+        int index = nextIndex();
+        ValueRange plausible = index == 0 ? null : seriesRanges.get(index);
+        return cachedWindow.recognize(series.get(index).jpeg(), plausible, window);
+    }
+
+    @Benchmark
+    public double[][] processFullFrame() {
+        return classifier.score(segmenter.segment(frames.get(nextIndex())).orElseThrow());
+    }
+
+    @Benchmark
+    public double[][] processCachedWindow() {
+        Decoded region = searchRegions.get(nextIndex());
+        Alignment alignment = DigitWindow.align(reference, region);
+        Rectangle area = alignment.area();
+        GrayImage crop = region.image().crop(area.x, area.y, area.width, area.height);
+        return classifier.score(segmenter.segment(crop, reference.lightForeground()).orElseThrow());
+    }
+}
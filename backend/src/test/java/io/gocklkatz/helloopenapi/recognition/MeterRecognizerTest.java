@@ -0,0 +1,221 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MeterRecognizerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeterRecognizer recognizer = new MeterRecognizer(8, 3, 1280, false, 0.6, 0.5, meterRegistry);
+    private final MeterRecognizer windowed = new MeterRecognizer(8, 3, 1280, true, 0.6, 0.5, meterRegistry);
+    private final RememberedWindow window = new RememberedWindow();
+
+    @Test
+    void recognize_syntheticMeterPhoto_readsDigitsAndValue() throws IOException {
+        byte[] jpeg = MeterPhotos.jpeg("01234567", 42);
+
+        RecognitionResult result = recognizer.recognize(new ByteArrayInputStream(jpeg));
+
+        assertThat(result.digits()).isEqualTo("01234567");
+        assertThat(result.value()).isCloseTo(1234.567, within(1e-9));
+        assertThat(result.confidence()).isGreaterThan(0.5);
+    }
+
+    @Test
+    void recognize_fixtureSet_readsNearlyAllPhotosExactly() throws IOException {
+        List<MeterPhotos.Photo> photos = MeterPhotos.fixtureSet(20, 7);
+
+        long correct = 0;
+        for (MeterPhotos.Photo photo : photos) {
+            RecognitionResult result = recognizer.recognize(new ByteArrayInputStream(photo.jpeg()));
+            if (photo.digits().equals(result.digits())) {
+                correct++;
+            }
+        }
+
+        assertThat(correct).isGreaterThanOrEqualTo(19);
+    }
+
+    /**
+     * Real photos in {@code src/test/resources/meter-photos}, each named after the digits it shows,
+     * such as {@code 01234567.jpg} or {@code 01234567-cellar.jpg}. Skipped while there are none.
+     */
+    @Test
+    void recognize_realMeterPhotos_readsEachExactly() throws Exception {
+        URL directory = getClass().getResource("/meter-photos");
+        List<Path> photos;
+        try (Stream<Path> files = directory == null ? Stream.empty() : Files.list(Path.of(directory.toURI()))) {
+            photos = files.filter(p -> p.getFileName().toString().matches("\\d+(-.*)?\\.(jpe?g|png)")).sorted().toList();
+        }
+        assumeTrue(!photos.isEmpty(), "no real meter photos checked in");
+
+        for (Path photo : photos) {
+            String name = photo.getFileName().toString();
+            String digits = name.replaceAll("\\D.*$", "");
+            MeterRecognizer fresh = new MeterRecognizer(digits.length(), 3, 1280, false, 0.6, 0.5, meterRegistry);
+
+            assertThat(fresh.recognize(Files.readAllBytes(photo)).digits()).as(name).isEqualTo(digits);
+        }
+    }
+
+    @Test
+    void recognize_fixtureSetWithCachedWindow_readsNearlyAllPhotosFromWindow() throws IOException {
+        List<MeterPhotos.Photo> photos = MeterPhotos.fixtureSet(20, 7);
+
+        long correct = 0;
+        for (MeterPhotos.Photo photo : photos) {
+            if (photo.digits().equals(windowed.recognize(photo.jpeg(), null, window).digits())) {
+                correct++;
+            }
+        }
+
+        assertThat(correct).isGreaterThanOrEqualTo(19);
+        // The first photo has no window yet, and a read below min-confidence goes full-frame.
+        assertThat(windowHits()).isGreaterThanOrEqualTo(17);
+    }
+
+    @Test
+    void recognize_slightlyShiftedPhoto_isReadFromCachedWindow() throws IOException {
+        windowed.recognize(MeterPhotos.jpeg("00012345", 1), null, window);
+
+        byte[] shifted = MeterPhotos.encode(MeterPhotos.render("00012999", 2, 30, -25));
+        RecognitionResult result = windowed.recognize(shifted, null, window);
+
+        assertThat(result.digits()).isEqualTo("00012999");
+        assertThat(windowHits()).isEqualTo(1);
+    }
+
+    @Test
+    void recognize_cameraMoved_fallsBackToFullFrameAndRelearnsWindow() throws IOException {
+        windowed.recognize(MeterPhotos.jpeg("00012345", 1), null, window);
+
+        RecognitionResult moved = windowed.recognize(MeterPhotos.encode(MeterPhotos.render("00012400", 3, 0, 400)), null, window);
+        RecognitionResult next = windowed.recognize(MeterPhotos.encode(MeterPhotos.render("00012455", 4, 0, 400)), null, window);
+
+        assertThat(moved.digits()).isEqualTo("00012400");
+        assertThat(next.digits()).isEqualTo("00012455");
+        assertThat(meterRegistry.counter("recognition.window", "result", "miss").count()).isEqualTo(1);
+        assertThat(windowHits()).isEqualTo(1);
+    }
+
+    @Test
+    void recognize_otherCallersWindow_isNotMoved() throws IOException {
+        RememberedWindow other = new RememberedWindow();
+        windowed.recognize(MeterPhotos.jpeg("00012345", 1), null, window);
+        windowed.recognize(MeterPhotos.jpeg("00012345", 1), null, other);
+
+        windowed.recognize(MeterPhotos.encode(MeterPhotos.render("00012400", 3, 0, 400)), null, other);
+        RecognitionResult result = windowed.recognize(MeterPhotos.jpeg("00012346", 2), null, window);
+
+        assertThat(result.digits()).isEqualTo("00012346");
+        assertThat(windowHits()).isEqualTo(1);
+    }
+
+    @Test
+    void recognize_withoutWindow_readsFullFrame() throws IOException {
+        windowed.recognize(MeterPhotos.jpeg("00012345", 1), null, null);
+        windowed.recognize(MeterPhotos.jpeg("00012346", 2), null, null);
+
+        assertThat(windowHits()).isZero();
+    }
+
+    @Test
+    void recognize_windowDisabled_neverUsesWindow() throws IOException {
+        recognizer.recognize(MeterPhotos.jpeg("00012345", 1), null, window);
+        recognizer.recognize(MeterPhotos.jpeg("00012346", 2), null, window);
+
+        assertThat(windowHits()).isZero();
+    }
+
+    @Test
+    void recognize_valueInsidePlausibleRange_isAcceptedAsRead() throws IOException {
+        RecognitionResult result = recognizer.recognize(MeterPhotos.jpeg("00012345", 1), new ValueRange(12.3, 12.4), null);
+
+        assertThat(result.digits()).isEqualTo("00012345");
+        assertThat(meterRegistry.counter("recognition.prior", "result", "plausible").count()).isEqualTo(1);
+    }
+
+    @Test
+    void recognize_valueOutsidePlausibleRange_isForcedIntoRangeWithLowConfidence() throws IOException {
+        RecognitionResult result = recognizer.recognize(MeterPhotos.jpeg("00012345", 1), new ValueRange(20.0, 20.1), null);
+
+        assertThat(result.value()).isBetween(20.0, 20.1);
+        assertThat(result.confidence()).isLessThan(0.01);
+        assertThat(meterRegistry.counter("recognition.prior", "result", "corrected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void decode_fullFrameProbabilities_matchesReadWithSameRange() throws IOException {
+        byte[] jpeg = MeterPhotos.jpeg("00012345", 1);
+        ValueRange range = new ValueRange(20.0, 20.1);
+
+        MeterRecognizer.Outcome unbounded = recognizer.read(jpeg, null, null);
+
+        assertThat(recognizer.decode(unbounded.probabilities(), range)).isEqualTo(recognizer.recognize(jpeg, range, null));
+        assertThat(recognizer.decode(unbounded.probabilities(), null)).isEqualTo(unbounded.result());
+    }
+
+    @Test
+    void read_inWindow_hasNoFullFrameProbabilities() throws IOException {
+        windowed.read(MeterPhotos.jpeg("00012345", 1), null, window);
+
+        MeterRecognizer.Outcome outcome = windowed.read(MeterPhotos.jpeg("00012346", 2), null, window);
+
+        assertThat(outcome.result().digits()).isEqualTo("00012346");
+        assertThat(outcome.probabilities()).isNull();
+    }
+
+    @Test
+    void recognize_dailySeriesWithPreviousValueAsPrior_readsEveryDay() throws IOException {
+        List<MeterPhotos.Photo> series = MeterPhotos.dailySeries(10, 1_234_567, 11);
+
+        ValueRange plausible = null;
+        for (MeterPhotos.Photo photo : series) {
+            RecognitionResult result = windowed.recognize(photo.jpeg(), plausible, window);
+            assertThat(result.digits()).isEqualTo(photo.digits());
+            plausible = new ValueRange(result.value(), result.value() + 50);
+        }
+    }
+
+    @Test
+    void recognize_implausibleWindowRead_fallsBackToFullFrame() throws IOException {
+        windowed.recognize(MeterPhotos.jpeg("00012345", 1), null, window);
+
+        windowed.recognize(MeterPhotos.jpeg("00012350", 2), new ValueRange(20.0, 20.1), window);
+
+        assertThat(meterRegistry.counter("recognition.window", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void recognize_imageWithoutDigits_returnsNotFound() {
+        GrayImage blank = new GrayImage(200, 100, new int[200 * 100]);
+
+        RecognitionResult result = recognizer.recognize(blank);
+
+        assertThat(result.recognized()).isFalse();
+        assertThat(result.value()).isNull();
+    }
+
+    @Test
+    void recognize_notAnImage_throwsIOException() {
+        assertThatThrownBy(() -> recognizer.recognize(new ByteArrayInputStream("not an image".getBytes())))
+                .isInstanceOf(IOException.class);
+    }
+
+    private double windowHits() {
+        return meterRegistry.counter("recognition.window", "result", "hit").count();
+    }
+}
@@ -0,0 +1,71 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerceptualHashTest {
+
+    private static long hash(byte[] jpeg) throws IOException {
+        return PerceptualHash.dHash(GrayImageDecoder.decode(new ByteArrayInputStream(jpeg), 256));
+    }
+
+    @Test
+    void dHash_samePhotoReencodedAtLowerQuality_differsInFewBits() throws IOException {
+        BufferedImage photo = MeterPhotos.render("01234567", 7, 0, 0);
+        ByteArrayOutputStream lowQuality = new ByteArrayOutputStream();
+        ImageIO.write(photo, "jpeg", lowQuality);
+
+        assertThat(PerceptualHash.distance(hash(MeterPhotos.encode(photo)), hash(lowQuality.toByteArray())))
+                .isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void dHash_gradientSceneAtHalfSize_differsInFewBits() {
+        assertThat(PerceptualHash.distance(PerceptualHash.dHash(gradient(180, 120)), PerceptualHash.dHash(gradient(90, 60))))
+                .isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void dHash_unrelatedScenes_differInManyBits() {
+        GrayImage scene = gradient(180, 120);
+        int[] mirrored = new int[scene.pixels().length];
+        for (int i = 0; i < mirrored.length; i++) {
+            mirrored[i] = scene.pixels()[mirrored.length - 1 - i];
+        }
+
+        assertThat(PerceptualHash.distance(PerceptualHash.dHash(scene), PerceptualHash.dHash(new GrayImage(180, 120, mirrored))))
+                .isGreaterThan(20);
+    }
+
+    /** Diagonal shading with a brighter band, like a lit meter face. */
+    private static GrayImage gradient(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean band = y > height / 3 && y < height / 2;
+                pixels[y * width + x] = (x * 160 / width + y * 60 / height + (band ? 30 : 0));
+            }
+        }
+        return new GrayImage(width, height, pixels);
+    }
+
+    @Test
+    void dHash_imageSmallerThanGrid_isDefined() {
+        GrayImage tiny = new GrayImage(2, 2, new int[]{0, 255, 255, 0});
+
+        assertThat(PerceptualHash.dHash(tiny)).isEqualTo(PerceptualHash.dHash(tiny));
+    }
+
+    @Test
+    void distance_countsDifferingBits() {
+        assertThat(PerceptualHash.distance(0b1011L, 0b0110L)).isEqualTo(3);
+        assertThat(PerceptualHash.distance(-1L, 0L)).isEqualTo(64);
+    }
+}
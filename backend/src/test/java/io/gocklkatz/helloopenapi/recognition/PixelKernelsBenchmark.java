@@ -0,0 +1,92 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vector API against scalar versions of each {@link PixelKernels} kernel on a synthetic meter photo.
+ * {@code 1280x960} is the size the recogniser decodes to and {@code 4032x3024} is a full-resolution
+ * 12 MP phone photo.
+ *
+ * Run with {@code mvn test-compile exec:exec -Pbenchmark -Dbenchmark=PixelKernelsBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PixelKernelsBenchmark {
+
+    @Param({"1280x960", "4032x3024"})
+    public String size;
+
+    private int[] argb;
+    private GrayImage gray;
+    private int threshold;
+
+    @Setup
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        BufferedImage photo = MeterPhotos.render("01234567", 1, 0, 0);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        scaled.createGraphics().drawImage(photo, 0, 0, width, height, null);
+        argb = scaled.getRGB(0, 0, width, height, null, 0, width);
+        gray = new GrayImage(width, height, PixelKernels.toGrayScalar(argb));
+        threshold = PixelKernels.otsuThreshold(gray.pixels());
+    }
+
+    @Benchmark
+    public int[] toGrayScalar() {
+        return PixelKernels.toGrayScalar(argb);
+    }
+
+    @Benchmark
+    public int[] toGrayVector() {
+        return VectorKernels.toGray(argb);
+    }
+
+    @Benchmark
+    public byte[] thresholdScalar() {
+        return PixelKernels.thresholdScalar(gray.pixels(), threshold, false);
+    }
+
+    @Benchmark
+    public byte[] thresholdVector() {
+        return VectorKernels.threshold(gray.pixels(), threshold, false);
+    }
+
+    @Benchmark
+    public GrayImage downsampleScalar() {
+        return PixelKernels.downsampleScalar(gray, DigitWindow.COARSE);
+    }
+
+    @Benchmark
+    public GrayImage downsampleVector() {
+        return VectorKernels.downsample(gray, DigitWindow.COARSE);
+    }
+
+    @Benchmark
+    public double laplacianVarianceScalar() {
+        return PixelKernels.laplacianVarianceScalar(gray);
+    }
+
+    @Benchmark
+    public double laplacianVarianceVector() {
+        return VectorKernels.laplacianVariance(gray);
+    }
+}
@@ -0,0 +1,97 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PixelKernelsTest {
+
+    // odd sizes so every kernel also runs its scalar tail
+    private static final int WIDTH = 1283;
+    private static final int HEIGHT = 37;
+
+    private final Random random = new Random(42);
+
+    private int[] randomArgb(int length) {
+        int[] argb = new int[length];
+        for (int i = 0; i < length; i++) {
+            argb[i] = random.nextInt();
+        }
+        return argb;
+    }
+
+    private GrayImage randomGray(int width, int height) {
+        return new GrayImage(width, height, PixelKernels.toGrayScalar(randomArgb(width * height)));
+    }
+
+    @Test
+    void vectorApi_isResolvedInTests() {
+        assertThat(PixelKernels.VECTORIZED).isTrue();
+    }
+
+    @Test
+    void toGray_matchesScalar() {
+        int[] argb = randomArgb(WIDTH * HEIGHT);
+
+        assertThat(VectorKernels.toGray(argb)).isEqualTo(PixelKernels.toGrayScalar(argb));
+    }
+
+    @Test
+    void toGray_weightsChannelsBt601() {
+        assertThat(PixelKernels.toGrayScalar(new int[]{0xFFFFFFFF, 0xFF000000, 0x00FF0000, 0x0000FF00, 0x000000FF}))
+                .containsExactly(255, 0, 76, 149, 28);
+    }
+
+    @Test
+    void threshold_matchesScalarForBothPolarities() {
+        int[] gray = randomGray(WIDTH, HEIGHT).pixels();
+
+        for (boolean lightForeground : new boolean[]{true, false}) {
+            assertThat(VectorKernels.threshold(gray, 100, lightForeground))
+                    .isEqualTo(PixelKernels.thresholdScalar(gray, 100, lightForeground));
+        }
+    }
+
+    @Test
+    void downsample_matchesScalar() {
+        GrayImage image = randomGray(WIDTH, HEIGHT);
+
+        for (int factor : new int[]{1, 2, 3, 8}) {
+            GrayImage vector = VectorKernels.downsample(image, factor);
+            GrayImage scalar = PixelKernels.downsampleScalar(image, factor);
+            assertThat(vector.width()).isEqualTo(scalar.width());
+            assertThat(vector.height()).isEqualTo(scalar.height());
+            assertThat(vector.pixels()).isEqualTo(scalar.pixels());
+        }
+    }
+
+    @Test
+    void laplacianVariance_matchesScalar() {
+        GrayImage image = randomGray(WIDTH, HEIGHT);
+
+        assertThat(VectorKernels.laplacianVariance(image))
+                .isCloseTo(PixelKernels.laplacianVarianceScalar(image), within(1e-6));
+    }
+
+    @Test
+    void laplacianVariance_flatImageIsZeroAndEdgesScoreHigherThanBlur() {
+        int[] flat = new int[64 * 64];
+        Arrays.fill(flat, 128);
+        int[] sharp = new int[64 * 64];
+        int[] soft = new int[64 * 64];
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                sharp[y * 64 + x] = x < 32 ? 0 : 255;
+                soft[y * 64 + x] = Math.max(0, Math.min(255, (x - 24) * 16));
+            }
+        }
+
+        assertThat(PixelKernels.laplacianVariance(new GrayImage(64, 64, flat))).isZero();
+        assertThat(PixelKernels.laplacianVariance(new GrayImage(64, 64, sharp)))
+                .isGreaterThan(PixelKernels.laplacianVariance(new GrayImage(64, 64, soft)));
+    }
+}
@@ -0,0 +1,83 @@
+package io.gocklkatz.helloopenapi.recognition;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.RoundRectangle2D;
+
+/**
+ * Odometer-style digits as pen paths, for drawing test photos without fonts. Each path is one
+ * connected stroke, so a drawn digit is a single glyph.
+ */
+final class StrokeDigits {
+
+    private StrokeDigits() {
+    }
+
+    /** The path of {@code digit} scaled into the box at {@code (x, y)}, to be drawn with a stroke. */
+    static Shape shape(int digit, double x, double y, double width, double height) {
+        AffineTransform toBox = new AffineTransform(width, 0, 0, height, x, y);
+        return toBox.createTransformedShape(unit(digit));
+    }
+
+    /** {@code digit} in the unit square, y pointing down. */
+    private static Shape unit(int digit) {
+        Path2D.Double path = new Path2D.Double();
+        switch (digit) {
+            case 0 -> path.append(new RoundRectangle2D.Double(0, 0, 1, 1, 1, 0.6), false);
+            case 1 -> {
+                path.moveTo(0.2, 0.22);
+                path.lineTo(0.6, 0);
+                path.lineTo(0.6, 1);
+            }
+            case 2 -> {
+                path.moveTo(0.02, 0.25);
+                path.curveTo(0.02, -0.07, 0.98, -0.07, 0.98, 0.27);
+                path.curveTo(0.98, 0.5, 0.2, 0.7, 0, 1);
+                path.lineTo(1, 1);
+            }
+            case 3 -> {
+                path.moveTo(0.05, 0.1);
+                path.curveTo(0.3, -0.06, 1, -0.04, 0.95, 0.24);
+                path.curveTo(0.9, 0.44, 0.6, 0.46, 0.38, 0.46);
+                path.curveTo(0.8, 0.46, 1, 0.56, 1, 0.73);
+                path.curveTo(1, 1.06, 0.2, 1.06, 0, 0.88);
+            }
+            case 4 -> {
+                path.moveTo(0.75, 1);
+                path.lineTo(0.75, 0);
+                path.lineTo(0, 0.7);
+                path.lineTo(1, 0.7);
+            }
+            case 5 -> {
+                path.moveTo(0.95, 0);
+                path.lineTo(0.12, 0);
+                path.lineTo(0.06, 0.45);
+                path.curveTo(0.5, 0.3, 1, 0.38, 1, 0.7);
+                path.curveTo(1, 1.06, 0.2, 1.06, 0, 0.88);
+            }
+            case 6 -> {
+                path.moveTo(0.85, 0.04);
+                path.curveTo(0.35, -0.08, 0, 0.25, 0.02, 0.7);
+                path.append(new Ellipse2D.Double(0, 0.42, 1, 0.58), false);
+            }
+            case 7 -> {
+                path.moveTo(0, 0);
+                path.lineTo(1, 0);
+                path.lineTo(0.35, 1);
+            }
+            case 8 -> {
+                path.append(new Ellipse2D.Double(0.08, 0, 0.84, 0.47), false);
+                path.append(new Ellipse2D.Double(0, 0.45, 1, 0.55), false);
+            }
+            case 9 -> {
+                path.append(new Ellipse2D.Double(0, 0, 1, 0.58), false);
+                path.moveTo(0.98, 0.3);
+                path.curveTo(1, 0.75, 0.65, 1.08, 0.15, 0.96);
+            }
+            default -> throw new IllegalArgumentException("Not a digit: " + digit);
+        }
+        return path;
+    }
+}
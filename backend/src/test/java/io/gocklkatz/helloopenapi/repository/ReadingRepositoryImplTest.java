@@ -5,8 +5,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -32,6 +35,18 @@ class ReadingRepositoryImplTest {
         assertThat(saved.getImagePath()).isEqualTo("2026/02/19/reading_abc.jpg");
     }
 
+    @Test
+    void save_copiesChecksum() {
+        Reading reading = new Reading();
+        reading.setTimestamp(OffsetDateTime.parse("2026-02-19T08:00:00Z"));
+        reading.setImagePath("2026/02/19/reading_abc.jpg");
+        reading.setChecksum("ab12");
+
+        Reading saved = repository.save(reading);
+
+        assertThat(saved.getChecksum()).isEqualTo("ab12");
+    }
+
     @Test
     void save_multipleReadings_assignsSequentialIds() {
         Reading r1 = new Reading();
@@ -124,4 +139,299 @@ class ReadingRepositoryImplTest {
         assertThat(result).isPresent();
         assertThat(result.get().getImagePath()).isEqualTo("path1.jpg");
     }
+
+    private Reading saveAt(String timestamp) {
+        Reading reading = new Reading();
+        reading.setTimestamp(OffsetDateTime.parse(timestamp));
+        reading.setImagePath("path-" + timestamp + ".jpg");
+        return repository.save(reading);
+    }
+
+    @Test
+    void findByTimestampBetween_returnsHalfOpenRangeInTimestampOrder() {
+        Reading late = saveAt("2026-02-21T08:00:00Z");
+        Reading early = saveAt("2026-02-19T08:00:00Z");
+        Reading middle = saveAt("2026-02-20T08:00:00Z");
+        saveAt("2026-02-22T08:00:00Z");
+
+        List<Reading> result = repository.findByTimestampBetween(
+                OffsetDateTime.parse("2026-02-19T08:00:00Z"), OffsetDateTime.parse("2026-02-22T08:00:00Z"));
+
+        assertThat(result).extracting(Reading::getId).containsExactly(early.getId(), middle.getId(), late.getId());
+    }
+
+    @Test
+    void findByTimestampBetween_comparesInstantsAcrossOffsets() {
+        Reading utc = saveAt("2026-02-19T08:00:00Z");
+        Reading vienna = saveAt("2026-02-19T08:30:00+01:00");
+
+        List<Reading> result = repository.findByTimestampBetween(
+                OffsetDateTime.parse("2026-02-19T07:00:00Z"), OffsetDateTime.parse("2026-02-19T09:00:00Z"));
+
+        assertThat(result).extracting(Reading::getId).containsExactly(vienna.getId(), utc.getId());
+    }
+
+    @Test
+    void findByTimestampBetween_keepsReadingsWithIdenticalTimestamps() {
+        saveAt("2026-02-19T08:00:00Z");
+        saveAt("2026-02-19T08:00:00Z");
+
+        List<Reading> result = repository.findByTimestampBetween(OffsetDateTime.MIN, OffsetDateTime.MAX);
+
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void findByTimestampBetween_emptyOrInvertedRange_returnsEmpty() {
+        saveAt("2026-02-19T08:00:00Z");
+        OffsetDateTime at = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+
+        assertThat(repository.findByTimestampBetween(at, at)).isEmpty();
+        assertThat(repository.findByTimestampBetween(at.plusDays(1), at)).isEmpty();
+    }
+
+    @Test
+    void deleteAllById_removesFromLookupsAndTimestampIndex() {
+        Reading r1 = saveAt("2026-02-19T08:00:00Z");
+        Reading r2 = saveAt("2026-02-20T08:00:00Z");
+
+        repository.deleteAllById(List.of(r1.getId(), 99));
+
+        assertThat(repository.findById(r1.getId())).isEmpty();
+        assertThat(repository.findAll()).extracting(Reading::getId).containsExactly(r2.getId());
+        assertThat(repository.findByTimestampBetween(OffsetDateTime.MIN, OffsetDateTime.MAX))
+                .extracting(Reading::getId).containsExactly(r2.getId());
+    }
+
+    @Test
+    void update_existingReading_replacesCopyAndKeepsOriginalUntouched() {
+        Reading saved = saveAt("2026-02-19T08:00:00Z");
+
+        Optional<Reading> updated = repository.update(saved.getId(), r -> {
+            r.setMeterValue(1234.567);
+            r.setConfidence(0.9);
+        });
+
+        assertThat(updated).hasValueSatisfying(r -> assertThat(r.getMeterValue()).isEqualTo(1234.567));
+        assertThat(saved.getMeterValue()).isNull();
+        assertThat(repository.findById(saved.getId()).orElseThrow().getConfidence()).isEqualTo(0.9);
+        assertThat(repository.findByTimestampBetween(OffsetDateTime.MIN, OffsetDateTime.MAX))
+                .extracting(Reading::getMeterValue).containsExactly(1234.567);
+    }
+
+    @Test
+    void update_concurrentUpdatesAndDelete_keepTimestampIndexInStepWithStore() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            Reading saved = saveAt("2026-02-19T08:00:00Z");
+            int id = saved.getId();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                double value = t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    awaitQuietly(start);
+                    repository.update(id, r -> r.setMeterValue(value));
+                }));
+            }
+            if (round % 2 == 0) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    awaitQuietly(start);
+                    repository.deleteAllById(List.of(id));
+                }));
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            List<Reading> indexed = repository.findByTimestampBetween(OffsetDateTime.MIN, OffsetDateTime.MAX).stream()
+                    .filter(r -> r.getId() == id)
+                    .toList();
+            Optional<Reading> stored = repository.findById(id);
+            assertThat(indexed).hasSize(stored.isPresent() ? 1 : 0);
+            stored.ifPresent(r -> assertThat(indexed.getFirst()).isSameAs(r));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void update_unknownId_returnsEmpty() {
+        assertThat(repository.update(99, r -> r.setMeterValue(1.0))).isEmpty();
+    }
+
+    private Reading recognizedAt(String timestamp, double value, double confidence) {
+        Reading saved = saveAt(timestamp);
+        return repository.update(saved.getId(), r -> {
+            r.setMeterValue(value);
+            r.setConfidence(confidence);
+        }).orElseThrow();
+    }
+
+    @Test
+    void findLatestRecognizedBefore_returnsNearestEarlierConfidentReading() {
+        Reading older = recognizedAt("2026-02-16T08:00:00Z", 1200.0, 0.9);
+        recognizedAt("2026-02-17T08:00:00Z", 1300.0, 0.2);
+        saveAt("2026-02-18T08:00:00Z");
+        recognizedAt("2026-02-20T08:00:00Z", 1400.0, 0.9);
+
+        Optional<Reading> result = repository.findLatestRecognizedBefore(OffsetDateTime.parse("2026-02-19T08:00:00Z"), 0.5);
+
+        assertThat(result).map(Reading::getId).contains(older.getId());
+    }
+
+    @Test
+    void findLatestRecognizedBefore_excludesReadingAtSameInstant() {
+        recognizedAt("2026-02-19T08:00:00Z", 1200.0, 0.9);
+
+        assertThat(repository.findLatestRecognizedBefore(OffsetDateTime.parse("2026-02-19T09:00:00+01:00"), 0)).isEmpty();
+    }
+
+    @Test
+    void findLatestRecognizedBefore_ignoresUnrecognizedAndDeletedReadings() {
+        Reading deleted = recognizedAt("2026-02-17T08:00:00Z", 1200.0, 0.9);
+        repository.deleteAllById(List.of(deleted.getId()));
+        for (int day = 10; day < 20; day++) {
+            saveAt("2026-01-" + day + "T08:00:00Z");
+        }
+
+        assertThat(repository.findLatestRecognizedBefore(OffsetDateTime.parse("2026-02-19T08:00:00Z"), 0)).isEmpty();
+    }
+
+    @Test
+    void findLatestRecognizedBefore_givesUpAfterTooManyDoubtfulReadings() {
+        recognizedAt("2026-01-01T08:00:00Z", 1000.0, 0.9);
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-02T08:00:00Z");
+        for (int i = 0; i < ReadingRepositoryImpl.MAX_RECOGNIZED_SKIPPED; i++) {
+            recognizedAt(start.plusHours(i).toString(), 1001.0 + i, 0.1);
+        }
+        OffsetDateTime after = start.plusDays(10);
+
+        assertThat(repository.findLatestRecognizedBefore(after, 0.5)).isPresent();
+
+        recognizedAt(start.plusDays(5).toString(), 2000.0, 0.1);
+
+        assertThat(repository.findLatestRecognizedBefore(after, 0.5)).isEmpty();
+        assertThat(repository.findLatestRecognizedBefore(after, 0)).map(Reading::getMeterValue).contains(2000.0);
+    }
+
+    @Test
+    void hasRecognizedAfter_onlyCountsLaterRecognisedReadings() {
+        recognizedAt("2026-02-19T08:00:00Z", 1200.0, 0.9);
+        saveAt("2026-02-20T08:00:00Z");
+
+        assertThat(repository.hasRecognizedAfter(OffsetDateTime.parse("2026-02-18T08:00:00Z"))).isTrue();
+        assertThat(repository.hasRecognizedAfter(OffsetDateTime.parse("2026-02-19T09:00:00+01:00"))).isFalse();
+        assertThat(repository.hasRecognizedAfter(OffsetDateTime.parse("2026-02-19T12:00:00Z"))).isFalse();
+    }
+
+    @Test
+    void findRecognized_returnsRecognisedReadingsInTimestampOrder() {
+        Reading later = recognizedAt("2026-02-20T08:00:00Z", 1300.0, 0.9);
+        saveAt("2026-02-19T12:00:00Z");
+        Reading earlier = recognizedAt("2026-02-19T08:00:00Z", 1200.0, 0.9);
+
+        assertThat(repository.findRecognized()).extracting(Reading::getId)
+                .containsExactly(earlier.getId(), later.getId());
+    }
+
+    @Test
+    void findAfterId_returnsNextPageInIdOrder() {
+        Reading r1 = saveAt("2026-02-19T08:00:00Z");
+        Reading r2 = saveAt("2026-02-18T08:00:00Z");
+        Reading r3 = saveAt("2026-02-20T08:00:00Z");
+
+        assertThat(repository.findAfterId(0, 2)).extracting(Reading::getId).containsExactly(r1.getId(), r2.getId());
+        assertThat(repository.findAfterId(r2.getId(), 2)).extracting(Reading::getId).containsExactly(r3.getId());
+        assertThat(repository.findAfterId(r3.getId(), 2)).isEmpty();
+    }
+
+    @Test
+    void updateAll_appliesEachChangeAndSkipsUnknownIds() {
+        Reading r1 = saveAt("2026-02-19T08:00:00Z");
+        Reading r2 = saveAt("2026-02-20T08:00:00Z");
+
+        repository.updateAll(Map.of(
+                r1.getId(), r -> r.setMeterValue(1.0),
+                r2.getId(), r -> r.setMeterValue(2.0),
+                99, r -> r.setMeterValue(3.0)));
+
+        assertThat(repository.findAll()).extracting(Reading::getMeterValue).containsExactlyInAnyOrder(1.0, 2.0);
+        assertThat(repository.findByTimestampBetween(OffsetDateTime.MIN, OffsetDateTime.MAX))
+                .extracting(Reading::getMeterValue).containsExactly(1.0, 2.0);
+    }
+
+    @Test
+    void version_increasesOnEveryChangeOnly() {
+        long initial = repository.version();
+        Reading saved = saveAt("2026-02-19T08:00:00Z");
+        long afterSave = repository.version();
+        repository.update(saved.getId(), r -> r.setMeterValue(1.0));
+        long afterUpdate = repository.version();
+        repository.update(99, r -> r.setMeterValue(2.0));
+        repository.deleteAllById(List.of(99));
+        repository.findAll();
+
+        assertThat(afterSave).isGreaterThan(initial);
+        assertThat(afterUpdate).isGreaterThan(afterSave);
+        assertThat(repository.version()).isEqualTo(afterUpdate);
+
+        repository.deleteAllById(List.of(saved.getId()));
+
+        assertThat(repository.version()).isGreaterThan(afterUpdate);
+    }
+
+    @Test
+    void changesSince_listsEachChangedReadingOnceUnderItsLatestChange() {
+        Reading kept = saveAt("2026-02-19T08:00:00Z");
+        long since = repository.version();
+        Reading updated = saveAt("2026-02-20T08:00:00Z");
+        Reading removed = saveAt("2026-02-21T08:00:00Z");
+        repository.update(updated.getId(), r -> r.setMeterValue(1.0));
+        repository.update(kept.getId(), r -> r.setMeterValue(2.0));
+        repository.deleteAllById(List.of(removed.getId()));
+
+        ReadingRepository.Changes changes = repository.changesSince(since).orElseThrow();
+
+        assertThat(changes.version()).isEqualTo(repository.version());
+        assertThat(changes.saved()).containsExactly(updated.getId(), kept.getId());
+        assertThat(changes.deleted()).containsExactly(removed.getId());
+    }
+
+    @Test
+    void changesSince_currentVersion_isEmptyChangeSet() {
+        saveAt("2026-02-19T08:00:00Z");
+
+        ReadingRepository.Changes changes = repository.changesSince(repository.version()).orElseThrow();
+
+        assertThat(changes.saved()).isEmpty();
+        assertThat(changes.deleted()).isEmpty();
+    }
+
+    @Test
+    void changesSince_olderThanWindow_isEmpty() {
+        repository = new ReadingRepositoryImpl(2);
+        long start = repository.version();
+        saveAt("2026-02-19T08:00:00Z");
+        long afterFirst = repository.version();
+        saveAt("2026-02-20T08:00:00Z");
+        saveAt("2026-02-21T08:00:00Z");
+
+        assertThat(repository.changesSince(start)).isEmpty();
+        assertThat(repository.changesSince(afterFirst).orElseThrow().saved()).containsExactly(2, 3);
+    }
+
+    @Test
+    void changesSince_versionNotFromThisRepository_isEmpty() {
+        saveAt("2026-02-19T08:00:00Z");
+
+        assertThat(repository.changesSince(0)).isEmpty();
+        assertThat(repository.changesSince(repository.version() + 1)).isEmpty();
+    }
 }
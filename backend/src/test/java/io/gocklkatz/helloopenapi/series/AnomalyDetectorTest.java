@@ -0,0 +1,193 @@
+package io.gocklkatz.helloopenapi.series;
+
+import com.example.model.Alert;
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AnomalyDetectorTest {
+
+    /** A Monday morning. */
+    private static final OffsetDateTime START = OffsetDateTime.parse("2026-01-05T08:00:00+01:00");
+
+    private ReadingRepositoryImpl repository;
+    private SimpleMeterRegistry meterRegistry;
+    private AnomalyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReadingRepositoryImpl();
+        meterRegistry = new SimpleMeterRegistry();
+        detector = detector(true, 100);
+    }
+
+    private AnomalyDetector detector(boolean enabled, int capacity) {
+        return new AnomalyDetector(repository, meterRegistry, enabled, 0.1, 4, 4, Duration.ofHours(1), 0, 5, 0.05,
+                capacity);
+    }
+
+    private Reading record(OffsetDateTime timestamp, double meterValue) {
+        Reading reading = new Reading();
+        reading.setTimestamp(timestamp);
+        reading.setImagePath("reading.jpg");
+        reading.setMeterValue(meterValue);
+        Reading saved = repository.save(reading);
+        detector.accept(saved);
+        return saved;
+    }
+
+    /**
+     * Readings at 08:00 on each day in {@code [fromDay, toDay)}. Each adds {@code weekend} m³ if
+     * the interval's midpoint falls on a Saturday or Sunday and {@code weekday} m³ otherwise.
+     */
+    private double recordDays(int fromDay, int toDay, double start, double weekday, double weekend) {
+        double value = start;
+        for (int day = fromDay; day < toDay; day++) {
+            OffsetDateTime at = START.plusDays(day);
+            DayOfWeek midpointDay = at.minusHours(12).getDayOfWeek();
+            boolean isWeekend = midpointDay == DayOfWeek.SATURDAY || midpointDay == DayOfWeek.SUNDAY;
+            value += isWeekend ? weekend : weekday;
+            record(at, value);
+        }
+        return value;
+    }
+
+    @Test
+    void accept_steadyConsumption_raisesNothing() {
+        record(START.minusDays(1), 1000);
+        recordDays(0, 56, 1000, 4.8, 5.5);
+
+        assertThat(detector.alerts()).isEmpty();
+    }
+
+    @Test
+    void accept_suddenJump_raisesJumpForThatReading() {
+        record(START.minusDays(1), 1000);
+        double value = recordDays(0, 28, 1000, 4.8, 4.8);
+
+        Reading spike = record(START.plusDays(28), value + 30);
+
+        assertThat(detector.alerts()).singleElement().satisfies(alert -> {
+            assertThat(alert.getType()).isEqualTo(Alert.TypeEnum.JUMP);
+            assertThat(alert.getReadingId()).isEqualTo(spike.getId());
+            assertThat(alert.getRate()).isEqualTo(30 / 24.0);
+            assertThat(alert.getExpectedRate()).isLessThan(alert.getRate());
+            assertThat(alert.getMessage()).startsWith("Consumption of 1.250 m3/h is far above the usual ");
+        });
+        assertThat(meterRegistry.counter("anomaly.alerts", "type", "jump").count()).isEqualTo(1);
+    }
+
+    @Test
+    void accept_busyWeekends_areLearnedPerWeekday() {
+        record(START.minusDays(1), 1000);
+        double value = recordDays(0, 42, 1000, 2.4, 9.6);
+        int alertsSoFar = detector.alerts().size();
+
+        // another busy weekend is expected, weekend-level use on a Tuesday is not
+        value = recordDays(42, 51, value, 2.4, 9.6);
+        assertThat(detector.alerts()).hasSize(alertsSoFar);
+        record(START.plusDays(51), value + 9.6);
+
+        assertThat(detector.alerts()).hasSize(alertsSoFar + 1);
+        assertThat(detector.alerts().getFirst().getType()).isEqualTo(Alert.TypeEnum.JUMP);
+    }
+
+    @Test
+    void accept_flowDuringTheNight_raisesLeak() {
+        OffsetDateTime night = OffsetDateTime.parse("2026-02-19T00:30:00+01:00");
+        record(night, 1000);
+        record(night.plusHours(2), 1000);
+        Reading leaking = record(night.plusHours(4), 1000.4);
+
+        List<Alert> alerts = detector.alerts();
+
+        assertThat(alerts).singleElement().satisfies(alert -> {
+            assertThat(alert.getType()).isEqualTo(Alert.TypeEnum.LEAK);
+            assertThat(alert.getReadingId()).isEqualTo(leaking.getId());
+            assertThat(alert.getRate()).isCloseTo(0.2, within(1e-9));
+        });
+    }
+
+    @Test
+    void accept_intervalReachingIntoTheMorning_isNotANightInterval() {
+        record(OffsetDateTime.parse("2026-02-19T04:00:00+01:00"), 1000);
+        record(OffsetDateTime.parse("2026-02-19T07:00:00+01:00"), 1001);
+
+        assertThat(detector.alerts()).isEmpty();
+    }
+
+    @Test
+    void accept_nightWindowAcrossMidnight_coversLateEvening() {
+        detector = new AnomalyDetector(repository, meterRegistry, true, 0.1, 4, 4, Duration.ofHours(1), 22, 5, 0.05,
+                100);
+        record(OffsetDateTime.parse("2026-02-18T22:30:00+01:00"), 1000);
+        record(OffsetDateTime.parse("2026-02-19T02:30:00+01:00"), 1001);
+
+        assertThat(detector.alerts()).extracting(Alert::getType).containsExactly(Alert.TypeEnum.LEAK);
+    }
+
+    @Test
+    void accept_recognisedAfterLaterReading_isSkipped() {
+        OffsetDateTime night = OffsetDateTime.parse("2026-02-19T00:00:00+01:00");
+        record(night, 1000);
+        record(night.plusHours(6), 1001);
+
+        record(night.plusHours(4), 1000.5);
+
+        assertThat(detector.alerts()).isEmpty();
+    }
+
+    @Test
+    void accept_backfilledReadingWithinAlertedInterval_raisesNoSecondAlert() {
+        record(START.minusDays(1), 1000);
+        double value = recordDays(0, 28, 1000, 4.8, 4.8);
+        Reading spike = record(START.plusDays(28), value + 30);
+
+        record(START.plusDays(27).plusHours(12), value + 15);
+
+        assertThat(detector.alerts()).extracting(Alert::getReadingId).containsExactly(spike.getId());
+    }
+
+    @Test
+    void accept_shortIntervalOrDecreasingValue_isSkipped() {
+        OffsetDateTime night = OffsetDateTime.parse("2026-02-19T01:00:00+01:00");
+        record(night, 1000);
+        record(night.plusMinutes(10), 1000.5);
+        record(night.plusHours(3), 990);
+
+        assertThat(detector.alerts()).isEmpty();
+    }
+
+    @Test
+    void accept_disabled_raisesNothing() {
+        detector = detector(false, 100);
+        OffsetDateTime night = OffsetDateTime.parse("2026-02-19T00:30:00+01:00");
+        record(night, 1000);
+        record(night.plusHours(4), 1010);
+
+        assertThat(detector.alerts()).isEmpty();
+    }
+
+    @Test
+    void alerts_keepsMostRecentNewestFirst() {
+        detector = detector(true, 2);
+        OffsetDateTime night = OffsetDateTime.parse("2026-02-16T00:30:00+01:00");
+        for (int day = 0; day < 3; day++) {
+            record(night.plusDays(day), 1000 + day);
+            record(night.plusDays(day).plusHours(4), 1000.5 + day);
+        }
+
+        assertThat(detector.alerts()).extracting(alert -> alert.getTimestamp().getDayOfMonth())
+                .containsExactly(18, 17);
+    }
+}
@@ -0,0 +1,86 @@
+package io.gocklkatz.helloopenapi.series;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumption over random periods from {@link TimeSeries#increase}, against summing the readings in
+ * the period one by one. Readings are five minutes apart, so 10M readings span about 95 years.
+ * {@code increase} should grow only with the logarithm of the number of days.
+ *
+ * Run with {@code mvn test-compile exec:exec -Pbenchmark -Dbenchmark=ConsumptionBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConsumptionBenchmark {
+
+    private static final long INTERVAL = 5 * 60_000L;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000", "10000000"})
+    public int readings;
+
+    private long[] millis;
+    private double[] values;
+    private TimeSeries series;
+    private long[] from;
+    private long[] to;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        millis = new long[readings];
+        values = new double[readings];
+        double value = 1000;
+        for (int i = 0; i < readings; i++) {
+            millis[i] = 1_700_000_000_000L + i * INTERVAL + random.nextInt(60_000);
+            value += random.nextDouble() * 0.02;
+            values[i] = value;
+        }
+        series = new TimeSeries(millis, values);
+        from = new long[QUERIES];
+        to = new long[QUERIES];
+        long span = millis[readings - 1] - millis[0];
+        for (int i = 0; i < QUERIES; i++) {
+            long a = millis[0] + (long) (random.nextDouble() * span);
+            long b = millis[0] + (long) (random.nextDouble() * span);
+            from[i] = Math.min(a, b);
+            to[i] = Math.max(a, b);
+        }
+    }
+
+    @Benchmark
+    public double increase() {
+        int i = next++ & (QUERIES - 1);
+        return series.increase(from[i], to[i]);
+    }
+
+    @Benchmark
+    public double scan() {
+        int i = next++ & (QUERIES - 1);
+        double sum = 0;
+        for (int j = 1; j < readings; j++) {
+            if (millis[j - 1] >= from[i] && millis[j] <= to[i]) {
+                sum += Math.max(0, values[j] - values[j - 1]);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,149 @@
+package io.gocklkatz.helloopenapi.series;
+
+import com.example.model.Consumption;
+import com.example.model.Crossing;
+import com.example.model.Reading;
+import com.example.model.SeriesPoint;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ConsumptionSeriesTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2026-01-01T08:00:00+01:00");
+
+    private ReadingRepositoryImpl repository;
+    private ConsumptionSeries series;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReadingRepositoryImpl();
+        series = new ConsumptionSeries(repository);
+    }
+
+    private Reading save(OffsetDateTime timestamp, Double meterValue) {
+        Reading reading = new Reading();
+        reading.setTimestamp(timestamp);
+        reading.setImagePath("reading.jpg");
+        reading.setMeterValue(meterValue);
+        return repository.save(reading);
+    }
+
+    @Test
+    void query_returnsRecognisedReadingsInTimeOrderWithConsumptionSinceFirst() {
+        save(START.plusDays(2), 1205.0);
+        save(START, 1200.0);
+        save(START.plusDays(1), null);
+        save(START.plusDays(3), 1211.5);
+
+        List<SeriesPoint> points = series.query(null, null, 500);
+
+        assertThat(points).extracting(SeriesPoint::getMeterValue).containsExactly(1200.0, 1205.0, 1211.5);
+        assertThat(points).extracting(SeriesPoint::getConsumption).containsExactly(0.0, 5.0, 11.5);
+        assertThat(points.get(0).getTimestamp()).isEqualTo(START);
+    }
+
+    @Test
+    void query_rangeIsInclusiveFromAndExclusiveTo() {
+        for (int day = 0; day < 10; day++) {
+            save(START.plusDays(day), 1000.0 + day);
+        }
+
+        List<SeriesPoint> points = series.query(START.plusDays(2), START.plusDays(5), 500);
+
+        assertThat(points).extracting(SeriesPoint::getMeterValue).containsExactly(1002.0, 1003.0, 1004.0);
+        assertThat(points.get(0).getConsumption()).isZero();
+        assertThat(series.query(START.plusDays(20), null, 500)).isEmpty();
+    }
+
+    @Test
+    void query_manyReadings_isDownsampledToPoints() {
+        for (int day = 0; day < 3650; day++) {
+            save(START.plusDays(day), 1000.0 + 2.5 * day);
+        }
+
+        List<SeriesPoint> points = series.query(null, null, 300);
+
+        assertThat(points).hasSize(300);
+        assertThat(points.get(299).getTimestamp()).isEqualTo(START.plusDays(3649));
+    }
+
+    @Test
+    void query_afterRepositoryChange_seesNewValues() {
+        Reading reading = save(START, null);
+        assertThat(series.query(null, null, 500)).isEmpty();
+
+        repository.update(reading.getId(), r -> r.setMeterValue(1200.0));
+
+        assertThat(series.query(null, null, 500)).extracting(SeriesPoint::getMeterValue).containsExactly(1200.0);
+    }
+
+    @Test
+    void consumption_billingPeriod_interpolatesAtBoundaries() {
+        save(START, 1000.0);
+        save(START.plusDays(10), 1040.0);
+        save(START.plusDays(20), 1060.0);
+
+        Consumption consumption = series.consumption(START.plusDays(5), START.plusDays(15));
+
+        assertThat(consumption.getConsumption()).isCloseTo(30.0, within(1e-9));
+        assertThat(consumption.getComplete()).isTrue();
+        assertThat(consumption.getFrom()).isEqualTo(START.plusDays(5));
+    }
+
+    @Test
+    void consumption_periodBeyondReadings_isIncomplete() {
+        save(START, 1000.0);
+        save(START.plusDays(10), 1040.0);
+
+        Consumption consumption = series.consumption(START.minusDays(5), START.plusDays(5));
+
+        assertThat(consumption.getConsumption()).isCloseTo(20.0, within(1e-9));
+        assertThat(consumption.getComplete()).isFalse();
+        assertThat(series.consumption(START, START.plusDays(1)).getComplete()).isTrue();
+    }
+
+    @Test
+    void consumption_noReadings_isZeroAndIncomplete() {
+        Consumption consumption = series.consumption(START, START.plusDays(1));
+
+        assertThat(consumption.getConsumption()).isZero();
+        assertThat(consumption.getComplete()).isFalse();
+    }
+
+    @Test
+    void consumption_toBeforeFrom_isRejected() {
+        assertThatThrownBy(() -> series.consumption(START.plusDays(1), START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void crossing_returnsInterpolatedTimeAndBoundingReadings() {
+        save(START, 12_300.0);
+        save(START.plusDays(10), 12_340.0);
+        save(START.plusDays(20), 12_360.0);
+
+        Crossing crossing = series.crossing(12_345.0).orElseThrow();
+
+        assertThat(crossing.getTimestamp()).isEqualTo(START.plusDays(12).plusHours(12));
+        assertThat(crossing.getEarliest()).isEqualTo(START.plusDays(10));
+        assertThat(crossing.getLatest()).isEqualTo(START.plusDays(20));
+    }
+
+    @Test
+    void crossing_outsideRecordedValues_isEmpty() {
+        save(START, 12_300.0);
+        save(START.plusDays(10), 12_340.0);
+
+        assertThat(series.crossing(12_299.0)).isEmpty();
+        assertThat(series.crossing(12_341.0)).isEmpty();
+        assertThat(series.crossing(12_300.0)).map(Crossing::getTimestamp).contains(START);
+    }
+}
@@ -0,0 +1,164 @@
+package io.gocklkatz.helloopenapi.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeSeriesTest {
+
+    private static final long DAY = 86_400_000L;
+
+    /** A meter advancing 2.5 m³ a day, read once a day. */
+    private static TimeSeries daily(int days) {
+        long[] millis = new long[days];
+        double[] values = new double[days];
+        for (int i = 0; i < days; i++) {
+            millis[i] = 1_700_000_000_000L + i * DAY;
+            values[i] = 1000 + 2.5 * i;
+        }
+        return new TimeSeries(millis, values);
+    }
+
+    @Test
+    void downsample_fewerPointsThanThreshold_returnsAll() {
+        assertThat(daily(5).downsample(1, 4, 10)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void downsample_keepsFirstAndLastAndReturnsThresholdPointsInOrder() {
+        TimeSeries series = daily(3650);
+
+        int[] selected = series.downsample(0, 3650, 300);
+
+        assertThat(selected).hasSize(300);
+        assertThat(selected[0]).isZero();
+        assertThat(selected[299]).isEqualTo(3649);
+        assertThat(selected).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void downsample_keepsAStepThatUniformSamplingWouldMiss() {
+        long[] millis = new long[1000];
+        double[] values = new double[1000];
+        for (int i = 0; i < 1000; i++) {
+            millis[i] = i * DAY;
+            values[i] = i == 503 ? 500 : 0;
+        }
+        TimeSeries series = new TimeSeries(millis, values);
+
+        assertThat(series.downsample(0, 1000, 20)).contains(503);
+    }
+
+    @Test
+    void downsample_subrangeStaysInsideIt() {
+        int[] selected = daily(1000).downsample(100, 200, 10);
+
+        assertThat(selected).hasSize(10);
+        assertThat(Arrays.stream(selected).min().orElseThrow()).isEqualTo(100);
+        assertThat(Arrays.stream(selected).max().orElseThrow()).isEqualTo(199);
+    }
+
+    @Test
+    void downsample_thresholdBelowThree_isRejected() {
+        assertThatThrownBy(() -> daily(10).downsample(0, 10, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void lowerBound_findsFirstPointAtOrAfter() {
+        TimeSeries series = new TimeSeries(new long[]{10, 20, 20, 30}, new double[]{1, 2, 3, 4});
+
+        assertThat(series.lowerBound(5)).isZero();
+        assertThat(series.lowerBound(20)).isEqualTo(1);
+        assertThat(series.lowerBound(25)).isEqualTo(3);
+        assertThat(series.lowerBound(31)).isEqualTo(4);
+    }
+
+    @Test
+    void lowerBound_acrossDaysAndGaps_matchesLinearSearch() {
+        long[] millis = {3 * DAY - 1, 3 * DAY, 3 * DAY + 5, 3 * DAY + 5, 7 * DAY + 1, 9 * DAY - 1};
+        TimeSeries series = new TimeSeries(millis, new double[millis.length]);
+
+        for (long at = 2 * DAY; at <= 10 * DAY; at += DAY / 4) {
+            for (long probe : new long[]{at - 1, at, at + 1, at + 5}) {
+                int expected = 0;
+                while (expected < millis.length && millis[expected] < probe) {
+                    expected++;
+                }
+                assertThat(series.lowerBound(probe)).as("lowerBound(%d)", probe).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void lowerBound_readingWithMistypedYear_staysCheap() {
+        long typo = OffsetDateTime.parse("+10000000-02-19T08:00:00Z").toInstant().toEpochMilli();
+        long[] millis = {1_700_000_000_000L, 1_700_000_000_000L + DAY, typo};
+        TimeSeries series = new TimeSeries(millis, new double[]{1000, 1002.5, 1005});
+
+        assertThat(series.lowerBound(1_700_000_000_000L + 1)).isEqualTo(1);
+        assertThat(series.lowerBound(1_700_000_000_000L + 2 * DAY)).isEqualTo(2);
+        assertThat(series.lowerBound(typo)).isEqualTo(2);
+        assertThat(series.increase(1_700_000_000_000L, 1_700_000_000_000L + DAY)).isEqualTo(2.5);
+    }
+
+    @Test
+    void increase_interpolatesBetweenReadingsAtBothEnds() {
+        TimeSeries series = daily(10);
+        long first = series.millis(0);
+
+        assertThat(series.increase(first, first + 9 * DAY)).isEqualTo(22.5);
+        assertThat(series.increase(first + DAY / 2, first + 3 * DAY + DAY / 4)).isEqualTo(2.5 * 2.75);
+    }
+
+    @Test
+    void increase_outsideTheReadings_countsOnlyTheRecordedPart() {
+        TimeSeries series = daily(10);
+        long first = series.millis(0);
+
+        assertThat(series.increase(first - 100 * DAY, first + DAY)).isEqualTo(2.5);
+        assertThat(series.increase(first + 8 * DAY, first + 100 * DAY)).isEqualTo(2.5);
+        assertThat(series.increase(first + 100 * DAY, first + 200 * DAY)).isZero();
+        assertThat(new TimeSeries(new long[0], new double[0]).increase(0, DAY)).isZero();
+    }
+
+    @Test
+    void increase_dropBetweenReadings_countsAsNoUse() {
+        // a meter replaced on day 2 starts again from zero
+        TimeSeries series = new TimeSeries(new long[]{0, DAY, 2 * DAY, 3 * DAY}, new double[]{100, 104, 0, 3});
+
+        assertThat(series.increase(0, 3 * DAY)).isEqualTo(7);
+    }
+
+    @Test
+    void firstReaching_findsFirstPointAtOrAboveValue() {
+        TimeSeries series = daily(100);
+
+        assertThat(series.firstReaching(1000)).isZero();
+        assertThat(series.firstReaching(1100)).isEqualTo(40);
+        assertThat(series.firstReaching(1100.1)).isEqualTo(41);
+        assertThat(series.firstReaching(2000)).isEqualTo(100);
+    }
+
+    @Test
+    void firstReaching_ignoresMisreadDip() {
+        TimeSeries series = new TimeSeries(new long[]{0, DAY, 2 * DAY, 3 * DAY}, new double[]{100, 110, 90, 120});
+
+        assertThat(series.firstReaching(105)).isEqualTo(1);
+        assertThat(series.firstReaching(115)).isEqualTo(3);
+        // the dip is a misread; the meter stood at 110 or more by day 2
+        assertThat(series.crossingMillis(3, 115)).isEqualTo(2 * DAY + DAY / 2);
+    }
+
+    @Test
+    void crossingMillis_interpolatesBetweenNeighbours() {
+        TimeSeries series = daily(10);
+
+        assertThat(series.crossingMillis(series.firstReaching(1011.25), 1011.25))
+                .isEqualTo(series.millis(4) + DAY / 2);
+        assertThat(series.crossingMillis(0, 1000)).isEqualTo(series.millis(0));
+    }
+}
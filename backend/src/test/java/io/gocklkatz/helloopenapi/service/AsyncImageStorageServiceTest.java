@@ -0,0 +1,113 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncImageStorageServiceTest {
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    private AsyncImageStorageService asyncStorage;
+
+    @BeforeEach
+    void setUp() {
+        asyncStorage = new AsyncImageStorageService(imageStorageService, 1, 1, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncStorage.shutdown();
+    }
+
+    @Test
+    void open_completesWithDelegateStream() throws Exception {
+        InputStream stream = new ByteArrayInputStream("content".getBytes());
+        when(imageStorageService.open("a.jpg")).thenReturn(stream);
+
+        assertThat(asyncStorage.open("a.jpg").get(5, TimeUnit.SECONDS)).isSameAs(stream);
+    }
+
+    @Test
+    void delete_completesWithDeletedPaths() throws Exception {
+        when(imageStorageService.delete(List.of("a.jpg", "b.jpg"))).thenReturn(Set.of("a.jpg"));
+
+        assertThat(asyncStorage.delete(List.of("a.jpg", "b.jpg")).get(5, TimeUnit.SECONDS)).containsExactly("a.jpg");
+    }
+
+    @Test
+    void exists_delegateFailure_completesExceptionally() {
+        when(imageStorageService.exists("a.jpg")).thenThrow(new RuntimeException("Failed to look up image in S3"));
+
+        CompletableFuture<Boolean> future = asyncStorage.exists("a.jpg");
+
+        assertThat(future).failsWithin(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_queueFull_failsWithRejectedExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageStorageService.exists("slow.jpg")).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> running = asyncStorage.exists("slow.jpg");
+        CompletableFuture<Boolean> queued = asyncStorage.exists("slow.jpg");
+        CompletableFuture<Boolean> rejected = asyncStorage.exists("slow.jpg");
+        release.countDown();
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void exists_virtualThreads_runsOnVirtualThread() throws Exception {
+        AsyncImageStorageService virtual = new AsyncImageStorageService(imageStorageService, 1, 1, true);
+        when(imageStorageService.exists("a.jpg")).thenAnswer(invocation -> Thread.currentThread().isVirtual());
+
+        try {
+            assertThat(virtual.exists("a.jpg").get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            virtual.shutdown();
+        }
+    }
+
+    @Test
+    void submit_virtualThreadsAtLimit_failsWithRejectedExecutionUntilACallCompletes() throws Exception {
+        AsyncImageStorageService virtual = new AsyncImageStorageService(imageStorageService, 1, 1, true);
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageStorageService.exists("slow.jpg")).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+
+        try {
+            CompletableFuture<Boolean> first = virtual.exists("slow.jpg");
+            CompletableFuture<Boolean> second = virtual.exists("slow.jpg");
+            CompletableFuture<Boolean> rejected = virtual.exists("slow.jpg");
+            release.countDown();
+
+            assertThat(rejected).isCompletedExceptionally();
+            assertThat(rejected.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+            assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(virtual.exists("slow.jpg").get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            virtual.shutdown();
+        }
+    }
+}
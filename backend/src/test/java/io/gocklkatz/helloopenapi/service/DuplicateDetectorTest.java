@@ -0,0 +1,82 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateDetectorTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+
+    private SimpleMeterRegistry meterRegistry;
+    private DuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        detector = new DuplicateDetector(meterRegistry, true, 6, Duration.ofMinutes(10), 3);
+    }
+
+    /** Horizontal shading with stripes every 20 rows, scaled to the given size. */
+    private static GrayImage scene(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = (x * 180 / width + (y * 30 / height % 2) * 60) % 256;
+            }
+        }
+        return new GrayImage(width, height, pixels);
+    }
+
+    @Test
+    void hash_sameSceneAtDifferentSizes_isFoundAsDuplicate() {
+        long large = detector.hash(scene(400, 300)).orElseThrow();
+        long small = detector.hash(scene(200, 150)).orElseThrow();
+
+        detector.remember(large, TIMESTAMP, 1);
+
+        assertThat(detector.findDuplicate(small, TIMESTAMP.plusMinutes(1))).contains(1);
+        assertThat(meterRegistry.counter("dedup.duplicates").count()).isEqualTo(1);
+    }
+
+    @Test
+    void hash_disabled_isEmpty() {
+        DuplicateDetector disabled = new DuplicateDetector(meterRegistry, false, 6, Duration.ofMinutes(10), 3);
+
+        assertThat(disabled.hash(scene(80, 60))).isEmpty();
+    }
+
+    @Test
+    void findDuplicate_outsideWindowOrTooManyBitsApart_isEmpty() {
+        detector.remember(0L, TIMESTAMP, 1);
+
+        assertThat(detector.findDuplicate(0L, TIMESTAMP.plusMinutes(11))).isEmpty();
+        assertThat(detector.findDuplicate(0L, TIMESTAMP.minusMinutes(11))).isEmpty();
+        assertThat(detector.findDuplicate(0b1111111L, TIMESTAMP)).isEmpty();
+        assertThat(detector.findDuplicate(0b111111L, TIMESTAMP.minusMinutes(10))).contains(1);
+    }
+
+    @Test
+    void findDuplicate_prefersMostRecentMatch() {
+        detector.remember(0L, TIMESTAMP, 1);
+        detector.remember(1L, TIMESTAMP, 2);
+
+        assertThat(detector.findDuplicate(0L, TIMESTAMP)).contains(2);
+    }
+
+    @Test
+    void remember_beyondCapacity_evictsOldestEntry() {
+        detector.remember(0L, TIMESTAMP, 1);
+        detector.remember(-1L, TIMESTAMP, 2);
+        detector.remember(-1L, TIMESTAMP, 3);
+        detector.remember(-1L, TIMESTAMP, 4);
+
+        assertThat(detector.findDuplicate(0L, TIMESTAMP)).isEmpty();
+    }
+}
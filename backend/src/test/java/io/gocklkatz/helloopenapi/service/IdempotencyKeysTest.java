@@ -0,0 +1,150 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyKeysTest {
+
+    private static final String FINGERPRINT = "2026-02-19T08:00:00Z";
+
+    /** A clock that only moves when told to. */
+    private static final class TestClock extends Clock {
+        private Instant now = Instant.parse("2026-02-19T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final TestClock clock = new TestClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger created = new AtomicInteger();
+
+    private IdempotencyKeys keys(int maxKeys) {
+        return new IdempotencyKeys(clock, meterRegistry, Duration.ofHours(24), maxKeys);
+    }
+
+    private Reading create() {
+        return new Reading(created.incrementAndGet(), OffsetDateTime.parse(FINGERPRINT), "a.jpg");
+    }
+
+    @Test
+    void execute_repeatedKey_returnsFirstReadingWithoutCreatingAgain() {
+        IdempotencyKeys keys = keys(10);
+
+        IdempotencyKeys.Outcome first = keys.execute("upload-1", FINGERPRINT, this::create);
+        IdempotencyKeys.Outcome retry = keys.execute("upload-1", FINGERPRINT, this::create);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.reading()).isSameAs(first.reading());
+        assertThat(created).hasValue(1);
+        assertThat(meterRegistry.counter("idempotency.replays").count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_keyOfRunningRequest_throwsInProgress() throws Exception {
+        IdempotencyKeys keys = keys(10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyKeys.Outcome> first = CompletableFuture.supplyAsync(() ->
+                keys.execute("upload-1", FINGERPRINT, () -> {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return create();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> keys.execute("upload-1", FINGERPRINT, this::create))
+                .isInstanceOfSatisfying(IdempotencyKeyException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(IdempotencyKeyException.Reason.IN_PROGRESS));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        assertThat(keys.execute("upload-1", FINGERPRINT, this::create).replayed()).isTrue();
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void execute_failedRequest_releasesKeyForRetry() {
+        IdempotencyKeys keys = keys(10);
+
+        assertThatThrownBy(() -> keys.execute("upload-1", FINGERPRINT, () -> {
+            throw new IllegalStateException("storage down");
+        })).isInstanceOf(IllegalStateException.class);
+        IdempotencyKeys.Outcome retry = keys.execute("upload-1", FINGERPRINT, this::create);
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void execute_keyReusedWithOtherFingerprint_throwsMismatch() {
+        IdempotencyKeys keys = keys(10);
+        keys.execute("upload-1", FINGERPRINT, this::create);
+
+        assertThatThrownBy(() -> keys.execute("upload-1", "2026-02-20T08:00:00Z", this::create))
+                .isInstanceOfSatisfying(IdempotencyKeyException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(IdempotencyKeyException.Reason.MISMATCH));
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void execute_afterTtl_forgetsKey() {
+        IdempotencyKeys keys = keys(10);
+        keys.execute("upload-1", FINGERPRINT, this::create);
+
+        clock.advance(Duration.ofHours(24).plusSeconds(1));
+        IdempotencyKeys.Outcome later = keys.execute("upload-2", FINGERPRINT, this::create);
+
+        assertThat(later.replayed()).isFalse();
+        assertThat(keys.size()).isEqualTo(1);
+        assertThat(keys.execute("upload-1", FINGERPRINT, this::create).replayed()).isFalse();
+    }
+
+    @Test
+    void execute_beyondMaxKeys_forgetsOldest() {
+        IdempotencyKeys keys = keys(2);
+        keys.execute("upload-1", FINGERPRINT, this::create);
+        keys.execute("upload-2", FINGERPRINT, this::create);
+        keys.execute("upload-3", FINGERPRINT, this::create);
+
+        assertThat(keys.size()).isEqualTo(2);
+        assertThat(keys.execute("upload-3", FINGERPRINT, this::create).replayed()).isTrue();
+        assertThat(keys.execute("upload-1", FINGERPRINT, this::create).replayed()).isFalse();
+    }
+}
@@ -0,0 +1,57 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageFormatTest {
+
+    @Test
+    void detect_jpegSignature_returnsJpeg() {
+        byte[] header = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0, 0, 'E', 'x', 'i', 'f', 0, 0};
+
+        assertThat(ImageFormat.detect(header)).contains(ImageFormat.JPEG);
+    }
+
+    @Test
+    void detect_pngSignature_returnsPng() {
+        byte[] header = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0x0D};
+
+        assertThat(ImageFormat.detect(header)).contains(ImageFormat.PNG);
+    }
+
+    @Test
+    void detect_gif87AndGif89Signatures_returnGif() {
+        assertThat(ImageFormat.detect("GIF87a......".getBytes())).contains(ImageFormat.GIF);
+        assertThat(ImageFormat.detect("GIF89a......".getBytes())).contains(ImageFormat.GIF);
+    }
+
+    @Test
+    void detect_webpSignature_returnsWebp() {
+        byte[] header = {'R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'E', 'B', 'P'};
+
+        assertThat(ImageFormat.detect(header)).contains(ImageFormat.WEBP);
+    }
+
+    @Test
+    void detect_riffWithoutWebpMarker_returnsEmpty() {
+        byte[] header = {'R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'A', 'V', 'E'};
+
+        assertThat(ImageFormat.detect(header)).isEmpty();
+    }
+
+    @Test
+    void detect_unknownOrTruncatedHeader_returnsEmpty() {
+        assertThat(ImageFormat.detect("%PDF-1.7".getBytes())).isEmpty();
+        assertThat(ImageFormat.detect(new byte[]{(byte) 0xFF, (byte) 0xD8})).isEmpty();
+        assertThat(ImageFormat.detect(new byte[0])).isEmpty();
+    }
+
+    @Test
+    void contentTypeAndExtension_matchFormat() {
+        assertThat(ImageFormat.JPEG.contentType()).isEqualTo("image/jpeg");
+        assertThat(ImageFormat.JPEG.extension()).isEqualTo(".jpg");
+        assertThat(ImageFormat.WEBP.contentType()).isEqualTo("image/webp");
+        assertThat(ImageFormat.WEBP.extension()).isEqualTo(".webp");
+    }
+}
@@ -0,0 +1,101 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.gocklkatz.helloopenapi.recognition.GrayImage;
+import io.gocklkatz.helloopenapi.recognition.GrayImageDecoder.Decoded;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageQualityGateTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 300;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageQualityGate gate = new ImageQualityGate(meterRegistry, true, 640, 480, 100, 20, 235, 0.5);
+
+    private static Decoded preview(int[] pixels, int sourceWidth, int sourceHeight) {
+        return new Decoded(new GrayImage(WIDTH, HEIGHT, pixels), sourceWidth, sourceHeight, 4,
+                new Rectangle(0, 0, sourceWidth, sourceHeight));
+    }
+
+    /** Mid-gray with hard-edged 8-pixel squares, like printed digits. */
+    private static int[] checkerboard() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                pixels[y * WIDTH + x] = (x / 8 + y / 8) % 2 == 0 ? 60 : 190;
+            }
+        }
+        return pixels;
+    }
+
+    private static int[] gradient() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                pixels[y * WIDTH + x] = 60 + x * 130 / WIDTH;
+            }
+        }
+        return pixels;
+    }
+
+    private static int[] filled(int level) {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        Arrays.fill(pixels, level);
+        return pixels;
+    }
+
+    @Test
+    void check_sharpWellExposedPhoto_passes() {
+        assertThatCode(() -> gate.check(preview(checkerboard(), 1600, 1200))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_tooFewPixels_rejectsForResolution() {
+        assertThatThrownBy(() -> gate.check(preview(checkerboard(), 600, 450)))
+                .isInstanceOf(ImageQualityException.class)
+                .hasMessageContaining("600x450")
+                .extracting(e -> ((ImageQualityException) e).getReason())
+                .isEqualTo(ImageQualityException.Reason.RESOLUTION);
+        assertThat(meterRegistry.counter("quality.rejections", "reason", "resolution").count()).isEqualTo(1);
+    }
+
+    @Test
+    void check_portraitPhoto_comparesLongAndShortSide() {
+        assertThatCode(() -> gate.check(preview(checkerboard(), 1200, 1600))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_blurredPhoto_rejectsForBlur() {
+        assertThatThrownBy(() -> gate.check(preview(gradient(), 1600, 1200)))
+                .isInstanceOf(ImageQualityException.class)
+                .hasMessageContaining("blurred")
+                .extracting(e -> ((ImageQualityException) e).getReason())
+                .isEqualTo(ImageQualityException.Reason.BLUR);
+    }
+
+    @Test
+    void check_darkOrBlownOutPhoto_rejectsForExposure() {
+        assertThatThrownBy(() -> gate.check(preview(filled(5), 1600, 1200)))
+                .hasMessageContaining("underexposed")
+                .extracting(e -> ((ImageQualityException) e).getReason())
+                .isEqualTo(ImageQualityException.Reason.EXPOSURE);
+        assertThatThrownBy(() -> gate.check(preview(filled(250), 1600, 1200)))
+                .hasMessageContaining("overexposed");
+        assertThat(meterRegistry.counter("quality.rejections", "reason", "exposure").count()).isEqualTo(2);
+    }
+
+    @Test
+    void check_disabled_acceptsAnything() {
+        ImageQualityGate disabled = new ImageQualityGate(meterRegistry, false, 640, 480, 100, 20, 235, 0.5);
+
+        assertThatCode(() -> disabled.check(preview(filled(0), 10, 10))).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,167 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.gocklkatz.helloopenapi.series.ConsumptionSeries;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageScrubberTest {
+
+    private static final byte[] JPEG_BYTES = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1};
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private ReadingRepositoryImpl repository;
+    private UploadActivity uploadActivity;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageScrubber scrubber;
+    private ReadingServiceImpl readingService;
+
+    @BeforeEach
+    void setUp() {
+        ImageStorageServiceLocal storage = new ImageStorageServiceLocal(tempDir.toString());
+        repository = new ReadingRepositoryImpl();
+        uploadActivity = new UploadActivity();
+        meterRegistry = new SimpleMeterRegistry();
+        readingService = new ReadingServiceImpl(storage, repository, uploadActivity, mock(RecognitionService.class),
+                mock(DuplicateDetector.class), mock(ImageQualityGate.class), mock(ConsumptionSeries.class),
+                mock(ReadingListCache.class), mock(ReadingStream.class));
+        scrubber = new ImageScrubber(storage, repository, uploadActivity, meterRegistry, 0, 100);
+    }
+
+    private Reading upload() {
+        return readingService.createReading(
+                new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES), TIMESTAMP);
+    }
+
+    @Test
+    void verify_untouchedImage_isIntact() {
+        Reading reading = upload();
+
+        assertThat(scrubber.verify(reading)).isEqualTo(ImageScrubber.Outcome.INTACT);
+        assertThat(scrubber.getCorruptReadingIds()).isEmpty();
+        assertThat(meterRegistry.counter("scrubber.bytes.read").count()).isEqualTo(JPEG_BYTES.length);
+    }
+
+    @Test
+    void verify_modifiedImage_isReportedCorrupt() throws IOException {
+        Reading reading = upload();
+        Files.write(tempDir.resolve(reading.getImagePath()), "bit rot".getBytes());
+
+        assertThat(scrubber.verify(reading)).isEqualTo(ImageScrubber.Outcome.CORRUPT);
+        assertThat(scrubber.getCorruptReadingIds()).containsExactly(reading.getId());
+        assertThat(meterRegistry.counter("scrubber.verifications", "result", "corrupt").count()).isEqualTo(1);
+    }
+
+    @Test
+    void verify_missingImage_isReportedCorrupt() throws IOException {
+        Reading reading = upload();
+        Files.delete(tempDir.resolve(reading.getImagePath()));
+
+        assertThat(scrubber.verify(reading)).isEqualTo(ImageScrubber.Outcome.CORRUPT);
+        assertThat(scrubber.getCorruptReadingIds()).containsExactly(reading.getId());
+    }
+
+    @Test
+    void verify_transientReadFailure_isUnavailableNotCorrupt() {
+        Reading reading = upload();
+        ImageStorageService flaky = mock(ImageStorageService.class);
+        when(flaky.open(reading.getImagePath())).thenThrow(new RuntimeException("Failed to read image from S3"));
+        when(flaky.exists(reading.getImagePath())).thenReturn(true);
+        ImageScrubber flakyScrubber = new ImageScrubber(flaky, repository, uploadActivity, meterRegistry, 0, 100);
+
+        assertThat(flakyScrubber.verify(reading)).isEqualTo(ImageScrubber.Outcome.UNAVAILABLE);
+        assertThat(flakyScrubber.getCorruptReadingIds()).isEmpty();
+        assertThat(meterRegistry.counter("scrubber.verifications", "result", "unavailable").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("scrubber.verifications", "result", "corrupt").count()).isZero();
+    }
+
+    @Test
+    void verify_repairedImage_isTakenOffCorruptList() throws IOException {
+        Reading reading = upload();
+        Path file = tempDir.resolve(reading.getImagePath());
+        Files.write(file, "bit rot".getBytes());
+        scrubber.verify(reading);
+
+        Files.write(file, JPEG_BYTES);
+
+        assertThat(scrubber.verify(reading)).isEqualTo(ImageScrubber.Outcome.INTACT);
+        assertThat(scrubber.getCorruptReadingIds()).isEmpty();
+    }
+
+    @Test
+    void verify_uploadInFlight_isInterrupted() {
+        Reading reading = upload();
+        uploadActivity.begin();
+
+        assertThat(scrubber.verify(reading)).isEqualTo(ImageScrubber.Outcome.INTERRUPTED);
+        assertThat(meterRegistry.counter("scrubber.verifications", "result", "intact").count()).isZero();
+    }
+
+    @Test
+    void dueReadings_neverVerifiedComeFirstThenOldestVerification() {
+        Reading first = upload();
+        Reading second = upload();
+        Reading third = upload();
+        scrubber.verify(second);
+        scrubber.verify(first);
+
+        assertThat(scrubber.dueReadings())
+                .extracting(Reading::getId)
+                .containsExactly(third.getId(), second.getId(), first.getId());
+    }
+
+    @Test
+    void scrub_uploadInFlight_yieldsWithoutVerifying() {
+        upload();
+        uploadActivity.begin();
+
+        scrubber.scrub();
+
+        assertThat(meterRegistry.counter("scrubber.yields").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("scrubber.bytes.read").count()).isZero();
+    }
+
+    @Test
+    void scrub_verifiesAllDueReadings() {
+        upload();
+        upload();
+
+        scrubber.scrub();
+
+        assertThat(meterRegistry.counter("scrubber.verifications", "result", "intact").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("scrubber.readings.verified").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void scrub_deletedReadings_areForgotten() throws IOException {
+        Reading kept = upload();
+        Reading deleted = upload();
+        Files.delete(tempDir.resolve(deleted.getImagePath()));
+        scrubber.scrub();
+        assertThat(scrubber.getCorruptReadingIds()).containsExactly(deleted.getId());
+
+        repository.deleteAllById(List.of(deleted.getId()));
+        scrubber.scrub();
+
+        assertThat(scrubber.getCorruptReadingIds()).isEmpty();
+        assertThat(meterRegistry.get("scrubber.readings.verified").gauge().value()).isEqualTo(1);
+        assertThat(scrubber.dueReadings()).extracting(Reading::getId).containsExactly(kept.getId());
+    }
+}
@@ -0,0 +1,163 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link ImageStorageService} backend must share. The S3 backend runs against an
+ * in-memory bucket that answers range reads the way S3 does.
+ */
+class ImageStorageServiceContractTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @TempDir
+    Path tempDir;
+
+    private ImageStorageService backend(String name) {
+        return switch (name) {
+            case "local" -> new ImageStorageServiceLocal(tempDir.toString());
+            case "s3" -> new ImageStorageServiceS3(new InMemoryS3(), "gas-meter-bucket");
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    private static String store(ImageStorageService service) {
+        return service.store(new MockMultipartFile("image", "meter.jpg", "image/jpeg", CONTENT),
+                ImageFormat.JPEG, TIMESTAMP);
+    }
+
+    private static byte[] readRange(ImageStorageService service, String path, long offset, long length) {
+        try (InputStream in = service.openRange(path, offset, length)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "s3"})
+    void openRange_withinImage_returnsSlice(String name) {
+        ImageStorageService service = backend(name);
+        String path = store(service);
+
+        assertThat(readRange(service, path, 3, 4)).isEqualTo("3456".getBytes());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "s3"})
+    void openRange_endingPastImage_returnsRemainingBytes(String name) {
+        ImageStorageService service = backend(name);
+        String path = store(service);
+
+        assertThat(readRange(service, path, 8, 100)).isEqualTo("89".getBytes());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "s3"})
+    void openRange_startingAtOrPastEnd_isEmpty(String name) {
+        ImageStorageService service = backend(name);
+        String path = store(service);
+
+        assertThat(readRange(service, path, CONTENT.length, 10)).isEmpty();
+        assertThat(readRange(service, path, 1000, 10)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "s3"})
+    void openRange_zeroLength_isEmpty(String name) {
+        ImageStorageService service = backend(name);
+        String path = store(service);
+
+        assertThat(readRange(service, path, 0, 0)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "s3"})
+    void openRange_missingImage_throws(String name) {
+        ImageStorageService service = backend(name);
+
+        assertThatThrownBy(() -> service.openRange("2026/02/19/reading_missing.jpg", 0, 10))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    /** Just enough of S3 for storing and reading objects, including its range semantics. */
+    private static final class InMemoryS3 implements S3Client {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                objects.put(request.key(), in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return PutObjectResponse.builder().build();
+        }
+
+        @Override
+        public <T> T getObject(GetObjectRequest request, ResponseTransformer<GetObjectResponse, T> transformer) {
+            byte[] object = objects.get(request.key());
+            if (object == null) {
+                throw NoSuchKeyException.builder().statusCode(404).message("The specified key does not exist.").build();
+            }
+            int from = 0;
+            int to = object.length - 1;
+            if (request.range() != null) {
+                String[] bounds = request.range().substring("bytes=".length()).split("-");
+                from = Integer.parseInt(bounds[0]);
+                to = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+                if (from >= object.length) {
+                    throw S3Exception.builder()
+                            .statusCode(416)
+                            .awsErrorDetails(AwsErrorDetails.builder().errorCode("InvalidRange").build())
+                            .message("The requested range is not satisfiable")
+                            .build();
+                }
+            }
+            int length = to - from + 1;
+            try {
+                return transformer.transform(GetObjectResponse.builder().contentLength((long) length).build(),
+                        AbortableInputStream.create(new ByteArrayInputStream(object, from, length)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
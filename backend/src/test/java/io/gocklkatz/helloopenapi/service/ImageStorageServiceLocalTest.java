@@ -6,11 +6,16 @@ import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ImageStorageServiceLocalTest {
 
@@ -30,7 +35,7 @@ class ImageStorageServiceLocalTest {
     void store_createsDateBasedDirectory() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        service.store(image, TIMESTAMP);
+        service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(tempDir.resolve("2026/02/19")).isDirectory();
     }
@@ -39,7 +44,7 @@ class ImageStorageServiceLocalTest {
     void store_writesFileToCorrectLocation() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        String relativePath = service.store(image, TIMESTAMP);
+        String relativePath = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(tempDir.resolve(relativePath)).exists();
     }
@@ -48,35 +53,35 @@ class ImageStorageServiceLocalTest {
     void store_returnsRelativePathWithDatePrefix() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        String path = service.store(image, TIMESTAMP);
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(path).startsWith("2026/02/19/reading_");
         assertThat(path).endsWith(".jpg");
     }
 
     @Test
-    void store_preservesOriginalFileExtension() {
+    void store_usesExtensionOfDetectedFormat() {
         MockMultipartFile image = new MockMultipartFile("image", "photo.png", "image/png", "content".getBytes());
 
-        String path = service.store(image, TIMESTAMP);
+        String path = service.store(image, ImageFormat.PNG, TIMESTAMP);
 
         assertThat(path).endsWith(".png");
     }
 
     @Test
-    void store_usesFallbackExtensionWhenFilenameHasNoDot() {
-        MockMultipartFile image = new MockMultipartFile("image", "noextension", "image/jpeg", "content".getBytes());
+    void store_ignoresExtensionOfClientFilename() {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.exe", "image/jpeg", "content".getBytes());
 
-        String path = service.store(image, TIMESTAMP);
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(path).endsWith(".jpg");
     }
 
     @Test
-    void store_usesFallbackExtensionWhenFilenameIsNull() {
+    void store_whenFilenameIsNull_usesFormatExtension() {
         MockMultipartFile image = new MockMultipartFile("image", null, "image/jpeg", "content".getBytes());
 
-        String path = service.store(image, TIMESTAMP);
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(path).endsWith(".jpg");
     }
@@ -85,8 +90,8 @@ class ImageStorageServiceLocalTest {
     void store_generatesUniqueFilenamesForMultipleCalls() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        String path1 = service.store(image, TIMESTAMP);
-        String path2 = service.store(image, TIMESTAMP);
+        String path1 = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+        String path2 = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(path1).isNotEqualTo(path2);
     }
@@ -96,7 +101,7 @@ class ImageStorageServiceLocalTest {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
         OffsetDateTime timestampWithSingleDigits = OffsetDateTime.parse("2026-01-05T08:00:00Z");
 
-        String path = service.store(image, timestampWithSingleDigits);
+        String path = service.store(image, ImageFormat.JPEG, timestampWithSingleDigits);
 
         assertThat(path).startsWith("2026/01/05/");
         assertThat(tempDir.resolve("2026/01/05")).isDirectory();
@@ -135,8 +140,79 @@ class ImageStorageServiceLocalTest {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
         service.clearStorage();
-        String path = service.store(image, TIMESTAMP);
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(tempDir.resolve(path)).exists();
     }
+
+    @Test
+    void open_returnsStoredBytes() throws IOException {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+
+        try (InputStream in = service.open(path)) {
+            assertThat(in.readAllBytes()).isEqualTo("content".getBytes());
+        }
+    }
+
+    @Test
+    void open_missingFile_throwsUncheckedIOException() {
+        assertThatThrownBy(() -> service.open("2026/02/19/reading_missing.jpg"))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void open_pathOutsideBasePath_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> service.open("../../etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void openRange_returnsRequestedSlice() throws IOException {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "0123456789".getBytes());
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+
+        try (InputStream in = service.openRange(path, 3, 4)) {
+            assertThat(in.readAllBytes()).isEqualTo("3456".getBytes());
+        }
+    }
+
+    @Test
+    void openRange_beyondEndOfFile_returnsRemainingBytes() throws IOException {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "0123456789".getBytes());
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+
+        try (InputStream in = service.openRange(path, 8, 100)) {
+            assertThat(in.readAllBytes()).isEqualTo("89".getBytes());
+        }
+    }
+
+    @Test
+    void exists_reflectsStoredFiles() {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+        String path = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+
+        assertThat(service.exists(path)).isTrue();
+        assertThat(service.exists("2026/02/19/reading_missing.jpg")).isFalse();
+    }
+
+    @Test
+    void delete_removesFilesAndReportsMissingOnesAsGone() {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+        String path1 = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+        String path2 = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+
+        Set<String> deleted = service.delete(List.of(path1, path2, "2026/02/19/reading_missing.jpg"));
+
+        assertThat(deleted).containsExactlyInAnyOrder(path1, path2, "2026/02/19/reading_missing.jpg");
+        assertThat(tempDir.resolve(path1)).doesNotExist();
+        assertThat(tempDir.resolve(path2)).doesNotExist();
+    }
+
+    @Test
+    void delete_pathOutsideBasePath_isLeftOutOfResult() {
+        Set<String> deleted = service.delete(List.of("../outside.jpg"));
+
+        assertThat(deleted).isEmpty();
+    }
 }
@@ -0,0 +1,34 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IoRateLimiterTest {
+
+    @Test
+    void acquire_pacesReadsToConfiguredRate() throws InterruptedException {
+        IoRateLimiter limiter = new IoRateLimiter(10_000);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(1_000);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(450);
+    }
+
+    @Test
+    void acquire_nonPositiveRate_neverBlocks() throws InterruptedException {
+        IoRateLimiter limiter = new IoRateLimiter(0);
+
+        long start = System.nanoTime();
+        limiter.acquire(Long.MAX_VALUE / 2);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isLessThan(100);
+    }
+}
@@ -0,0 +1,92 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The body of {@code GET /readings}: serialising every reading with Jackson, against copying the
+ * bytes held by {@link ReadingListCache}: JSON, gzipped JSON or CBOR.
+ *
+ * Run with {@code mvn test-compile exec:exec -Pbenchmark -Dbenchmark=ReadingListBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadingListBenchmark {
+
+    @Param({"100", "10000"})
+    public int readings;
+
+    private ReadingRepositoryImpl repository;
+    private JsonMapper jsonMapper;
+    private ReadingListCache cache;
+    private ByteArrayOutputStream body;
+
+    @Setup
+    public void setUp() {
+        repository = new ReadingRepositoryImpl();
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-01T06:00:00Z");
+        for (int i = 0; i < readings; i++) {
+            Reading reading = new Reading();
+            reading.setTimestamp(start.plusDays(i));
+            reading.setImagePath(String.format("2026/01/01/reading_%08d.jpg", i));
+            reading.setChecksum("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+            reading.setMeterValue(1000 + i * 3.217);
+            reading.setConfidence(0.93);
+            repository.save(reading);
+        }
+        jsonMapper = JsonMapper.builder().build();
+        cache = new ReadingListCache(repository, jsonMapper, CBORMapper.builder().build(), new SimpleMeterRegistry());
+        body = new ByteArrayOutputStream(readings * 300);
+    }
+
+    @Benchmark
+    public int serialize() {
+        body.reset();
+        jsonMapper.writeValue(body, repository.findAll());
+        return body.size();
+    }
+
+    @Benchmark
+    public int cachedJson() throws IOException {
+        body.reset();
+        cache.get().writeJson(body);
+        return body.size();
+    }
+
+    @Benchmark
+    public int cachedGzip() throws IOException {
+        body.reset();
+        cache.get().writeGzip(body);
+        return body.size();
+    }
+
+    @Benchmark
+    public int cachedCbor() throws IOException {
+        body.reset();
+        cache.get().writeCbor(body);
+        return body.size();
+    }
+}
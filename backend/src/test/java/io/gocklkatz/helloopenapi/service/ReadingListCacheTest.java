@@ -0,0 +1,147 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReadingListCacheTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+
+    private final ReadingRepositoryImpl repository = new ReadingRepositoryImpl();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadingListCache cache = new ReadingListCache(repository, jsonMapper, cborMapper, meterRegistry);
+
+    private void save(int hour) {
+        Reading reading = new Reading();
+        reading.setTimestamp(TIMESTAMP.plusHours(hour));
+        reading.setImagePath("2026/02/19/reading_" + hour + ".jpg");
+        repository.save(reading);
+    }
+
+    private static byte[] json(SerializedReadings readings) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        readings.writeJson(out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(SerializedReadings readings) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        readings.writeGzip(out);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] cbor(SerializedReadings readings) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        readings.writeCbor(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void get_holdsReadingsAndTheirJsonPlainAndGzipped() throws Exception {
+        save(0);
+        save(1);
+
+        SerializedReadings readings = cache.get();
+
+        assertThat(readings).containsExactlyElementsOf(repository.findAll());
+        assertThat(json(readings)).isEqualTo(jsonMapper.writeValueAsBytes(repository.findAll()));
+        assertThat(gunzip(readings)).isEqualTo(json(readings));
+        assertThat(readings.jsonLength()).isEqualTo(json(readings).length);
+    }
+
+    @Test
+    void get_holdsCborDecodingToTheSameReadings() throws Exception {
+        save(0);
+        save(1);
+
+        SerializedReadings readings = cache.get();
+
+        assertThat(cborMapper.readValue(cbor(readings), Reading[].class)).containsExactlyElementsOf(repository.findAll());
+        assertThat(readings.cborLength()).isLessThan(readings.jsonLength());
+    }
+
+    @Test
+    void get_encodesCborOnlyOnceItIsAskedFor() throws Exception {
+        CBORMapper spiedMapper = spy(CBORMapper.builder().build());
+        ReadingListCache lazyCache = new ReadingListCache(repository, jsonMapper, spiedMapper, meterRegistry);
+        save(0);
+
+        SerializedReadings readings = lazyCache.get();
+
+        verify(spiedMapper, never()).writeValueAsBytes(any());
+        cbor(readings);
+        readings.cborLength();
+        verify(spiedMapper, times(1)).writeValueAsBytes(any());
+    }
+
+    @Test
+    void get_unchangedRepository_reusesList() {
+        save(0);
+
+        SerializedReadings first = cache.get();
+
+        assertThat(cache.get()).isSameAs(first);
+        assertThat(meterRegistry.counter("readings.list.rebuilds").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_afterChange_rebuildsWithNewEtag() {
+        save(0);
+        SerializedReadings before = cache.get();
+
+        save(1);
+        SerializedReadings after = cache.get();
+
+        assertThat(after).hasSize(2);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+    }
+
+    @Test
+    void get_concurrentRequestsAfterChange_rebuildOnce() throws Exception {
+        save(0);
+        cache.get();
+        save(1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                cache.get();
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(meterRegistry.counter("readings.list.rebuilds").count()).isEqualTo(2);
+    }
+}
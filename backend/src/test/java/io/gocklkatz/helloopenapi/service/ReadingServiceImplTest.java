@@ -1,24 +1,42 @@
 package io.gocklkatz.helloopenapi.service;
 
+import com.example.model.Consumption;
+import com.example.model.Crossing;
 import com.example.model.Reading;
+import com.example.model.ReadingChanges;
+import com.example.model.SeriesPoint;
 import io.gocklkatz.helloopenapi.repository.ReadingRepository;
+import io.gocklkatz.helloopenapi.series.ConsumptionSeries;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.security.MessageDigest;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -32,16 +50,52 @@ class ReadingServiceImplTest {
     @Mock
     private ReadingRepository readingRepository;
 
+    @Spy
+    private UploadActivity uploadActivity = new UploadActivity();
+
+    @Mock
+    private RecognitionService recognitionService;
+
+    @Mock
+    private DuplicateDetector duplicateDetector;
+
+    @Mock
+    private ImageQualityGate imageQualityGate;
+
+    @Mock
+    private ConsumptionSeries consumptionSeries;
+
+    @Mock
+    private ReadingListCache readingListCache;
+
+    @Mock
+    private ReadingStream readingStream;
+
     @InjectMocks
     private ReadingServiceImpl readingService;
 
+    private static final byte[] JPEG_BYTES = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1};
+    private static final byte[] PNG_BYTES = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0x0D};
+    private static final byte[] WEBP_BYTES = {'R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'E', 'B', 'P', 'V', 'P', '8', ' '};
+    private static final byte[] GIF_BYTES = {'G', 'I', 'F', '8', '9', 'a', 1, 0, 1, 0, 0, 0};
+
+    private static byte[] decodablePng() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB), "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
     @Test
     void createReading_validInput_storesImageAndSavesReading() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
-        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
         Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.jpg");
 
-        when(imageStorageService.store(image, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
+        when(imageStorageService.store(image, ImageFormat.JPEG, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
         when(readingRepository.save(any(Reading.class))).thenReturn(saved);
 
         Reading result = readingService.createReading(image, timestamp);
@@ -49,17 +103,78 @@ class ReadingServiceImplTest {
         assertThat(result.getId()).isEqualTo(1);
         assertThat(result.getImagePath()).isEqualTo("2026/02/19/reading_abc.jpg");
         assertThat(result.getTimestamp()).isEqualTo(timestamp);
-        verify(imageStorageService).store(image, timestamp);
+        verify(imageStorageService).store(image, ImageFormat.JPEG, timestamp);
         verify(readingRepository).save(any(Reading.class));
+        verify(recognitionService).submit(saved);
+        verify(readingStream).publish(saved);
+    }
+
+    @Test
+    void createReading_nearDuplicateOfRecentReading_returnsItWithoutStoringOrRecognising() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:30Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter.png", "image/png", decodablePng());
+        Reading existing = new Reading(1, OffsetDateTime.parse("2026-02-19T08:00:00Z"), "2026/02/19/reading_abc.png");
+
+        when(duplicateDetector.hash(any())).thenReturn(OptionalLong.of(42L));
+        when(duplicateDetector.findDuplicate(42L, timestamp)).thenReturn(Optional.of(1));
+        when(readingRepository.findById(1)).thenReturn(Optional.of(existing));
+
+        Reading result = readingService.createReading(image, timestamp);
+
+        assertThat(result).isSameAs(existing);
+        verifyNoInteractions(imageStorageService, recognitionService, readingStream);
+        verify(readingRepository, never()).save(any(Reading.class));
+    }
+
+    @Test
+    void createReading_newImage_remembersItsHash() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter.png", "image/png", decodablePng());
+        Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.png");
+
+        when(duplicateDetector.hash(any())).thenReturn(OptionalLong.of(42L));
+        when(duplicateDetector.findDuplicate(42L, timestamp)).thenReturn(Optional.empty());
+        when(imageStorageService.store(image, ImageFormat.PNG, timestamp)).thenReturn("2026/02/19/reading_abc.png");
+        when(readingRepository.save(any(Reading.class))).thenReturn(saved);
+
+        readingService.createReading(image, timestamp);
+
+        verify(imageQualityGate).check(any());
+        verify(duplicateDetector).remember(42L, timestamp, 1);
+        verify(recognitionService).submit(saved);
+    }
+
+    @Test
+    void createReading_rejectedByQualityGate_storesAndRecognisesNothing() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter.png", "image/png", decodablePng());
+        doThrow(new ImageQualityException(ImageQualityException.Reason.EXPOSURE, "Image is underexposed"))
+                .when(imageQualityGate).check(any());
+
+        assertThatThrownBy(() -> readingService.createReading(image, timestamp))
+                .isInstanceOf(ImageQualityException.class);
+        verifyNoInteractions(imageStorageService, readingRepository, recognitionService, duplicateDetector);
+    }
+
+    @Test
+    void createReading_undecodableImage_skipsQualityGateAndDuplicateDetection() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
+        when(imageStorageService.store(image, ImageFormat.JPEG, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
+        when(readingRepository.save(any(Reading.class))).thenReturn(new Reading(1, timestamp, "2026/02/19/reading_abc.jpg"));
+
+        readingService.createReading(image, timestamp);
+
+        verifyNoInteractions(imageQualityGate, duplicateDetector);
     }
 
     @Test
     void createReading_passesCorrectDataToRepository() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
-        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
         Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.jpg");
 
-        when(imageStorageService.store(image, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
+        when(imageStorageService.store(image, ImageFormat.JPEG, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
         when(readingRepository.save(any(Reading.class))).thenReturn(saved);
 
         readingService.createReading(image, timestamp);
@@ -70,6 +185,54 @@ class ReadingServiceImplTest {
         assertThat(captor.getValue().getImagePath()).isEqualTo("2026/02/19/reading_abc.jpg");
     }
 
+    @Test
+    void createReading_recordsSha256ChecksumOfImageBytes() throws Exception {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(JPEG_BYTES));
+
+        when(imageStorageService.store(image, ImageFormat.JPEG, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
+        when(readingRepository.save(any(Reading.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Reading result = readingService.createReading(image, timestamp);
+
+        assertThat(result.getChecksum()).isEqualTo(expected);
+    }
+
+    @Test
+    void createReading_streamsUploadWithoutBufferingItWhole() throws Exception {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        byte[] large = Arrays.copyOf(JPEG_BYTES, 300_000);
+        new Random(7).nextBytes(large);
+        System.arraycopy(JPEG_BYTES, 0, large, 0, JPEG_BYTES.length);
+        MockMultipartFile image = spy(new MockMultipartFile("image", "meter.jpg", "image/jpeg", large));
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(large));
+        when(imageStorageService.store(image, ImageFormat.JPEG, timestamp)).thenReturn("2026/02/19/reading_abc.jpg");
+        when(readingRepository.save(any(Reading.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Reading result = readingService.createReading(image, timestamp);
+
+        assertThat(result.getChecksum()).isEqualTo(expected);
+        verify(image, never()).getBytes();
+        verify(image, times(1)).getInputStream();
+    }
+
+    @Test
+    void createReading_marksUploadInFlightUntilDone() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
+
+        when(imageStorageService.store(image, ImageFormat.JPEG, timestamp)).thenAnswer(invocation -> {
+            assertThat(uploadActivity.isIdle()).isFalse();
+            return "2026/02/19/reading_abc.jpg";
+        });
+        when(readingRepository.save(any(Reading.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        readingService.createReading(image, timestamp);
+
+        assertThat(uploadActivity.isIdle()).isTrue();
+    }
+
     @Test
     void createReading_unsupportedContentType_throwsIllegalArgumentException() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
@@ -92,34 +255,103 @@ class ReadingServiceImplTest {
         verifyNoInteractions(imageStorageService);
     }
 
+    @Test
+    void createReading_declaredImageTypeButForeignBytes_throwsIllegalArgumentException() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile disguised = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "%PDF-1.7".getBytes());
+
+        assertThatThrownBy(() -> readingService.createReading(disguised, timestamp))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(imageStorageService);
+        verifyNoInteractions(readingRepository);
+    }
+
+    @Test
+    void createReading_formatIsDetectedFromBytesNotDeclaredType() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile image = new MockMultipartFile("image", "meter", "application/octet-stream", PNG_BYTES);
+        Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.png");
+
+        when(imageStorageService.store(image, ImageFormat.PNG, timestamp)).thenReturn("2026/02/19/reading_abc.png");
+        when(readingRepository.save(any(Reading.class))).thenReturn(saved);
+
+        Reading result = readingService.createReading(image, timestamp);
+
+        assertThat(result.getImagePath()).isEqualTo("2026/02/19/reading_abc.png");
+        verify(imageStorageService).store(image, ImageFormat.PNG, timestamp);
+    }
+
+    @Test
+    void createReading_emptyImage_throwsIllegalArgumentException() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+        MockMultipartFile empty = new MockMultipartFile("image", "meter.jpg", "image/jpeg", new byte[0]);
+
+        assertThatThrownBy(() -> readingService.createReading(empty, timestamp))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(imageStorageService);
+    }
+
     @Test
     void createReading_storageFailure_propagatesExceptionWithoutCallingRepository() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
-        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
 
-        when(imageStorageService.store(any(), any()))
+        when(imageStorageService.store(any(), any(), any()))
                 .thenThrow(new UncheckedIOException("disk full", new IOException("disk full")));
 
         assertThatThrownBy(() -> readingService.createReading(image, timestamp))
                 .isInstanceOf(UncheckedIOException.class);
         verifyNoInteractions(readingRepository);
+        assertThat(uploadActivity.isIdle()).isTrue();
     }
 
     @Test
-    void getAllReadings_delegatesToRepository() {
+    void getAllReadings_returnsCachedSerializedList() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
         List<Reading> readings = List.of(new Reading(1, timestamp, "2026/02/19/reading_abc.jpg"));
-        when(readingRepository.findAll()).thenReturn(readings);
+        SerializedReadings cached = new SerializedReadings(3, readings, new byte[0], new byte[0], () -> new byte[0]);
+        when(readingListCache.get()).thenReturn(cached);
 
         List<Reading> result = readingService.getAllReadings();
 
-        assertThat(result).isEqualTo(readings);
-        verify(readingRepository).findAll();
+        assertThat(result).isSameAs(cached).isEqualTo(readings);
+        verifyNoInteractions(readingRepository);
+    }
+
+    @Test
+    void getChanges_withinLog_returnsChangedReadingsAndDeletedIds() {
+        Reading changed = new Reading(1, OffsetDateTime.parse("2026-02-19T08:00:00Z"), "2026/02/19/reading_abc.jpg");
+        when(readingRepository.changesSince(40L))
+                .thenReturn(Optional.of(new ReadingRepository.Changes(45L, List.of(1, 2), List.of(3))));
+        when(readingRepository.findById(1)).thenReturn(Optional.of(changed));
+        when(readingRepository.findById(2)).thenReturn(Optional.empty());
+
+        ReadingChanges result = readingService.getChanges(40L);
+
+        assertThat(result.getVersion()).isEqualTo(45L);
+        assertThat(result.getResync()).isFalse();
+        assertThat(result.getReadings()).containsExactly(changed);
+        assertThat(result.getDeleted()).containsExactly(3, 2);
+        verifyNoInteractions(readingListCache);
+    }
+
+    @Test
+    void getChanges_beyondLog_returnsAllReadingsAsResync() {
+        List<Reading> readings = List.of(new Reading(1, OffsetDateTime.parse("2026-02-19T08:00:00Z"), "a.jpg"));
+        when(readingRepository.changesSince(0L)).thenReturn(Optional.empty());
+        when(readingListCache.get()).thenReturn(new SerializedReadings(45L, readings, new byte[0], new byte[0], () -> new byte[0]));
+
+        ReadingChanges result = readingService.getChanges(0L);
+
+        assertThat(result.getVersion()).isEqualTo(45L);
+        assertThat(result.getResync()).isTrue();
+        assertThat(result.getReadings()).isEqualTo(readings);
+        assertThat(result.getDeleted()).isEmpty();
     }
 
     @Test
     void getAllReadings_noReadings_returnsEmptyList() {
-        when(readingRepository.findAll()).thenReturn(List.of());
+        when(readingListCache.get()).thenReturn(new SerializedReadings(0, List.of(), new byte[0], new byte[0], () -> new byte[0]));
 
         List<Reading> result = readingService.getAllReadings();
 
@@ -149,13 +381,42 @@ class ReadingServiceImplTest {
         verify(readingRepository).findById(99);
     }
 
+    @Test
+    void getSeries_delegatesToConsumptionSeries() {
+        OffsetDateTime from = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2026-02-01T00:00:00Z");
+        List<SeriesPoint> points = List.of(new SeriesPoint(from, 1200.0, 0.0));
+        when(consumptionSeries.query(from, to, 500)).thenReturn(points);
+
+        assertThat(readingService.getSeries(from, to, 500)).isEqualTo(points);
+    }
+
+    @Test
+    void getConsumption_delegatesToConsumptionSeries() {
+        OffsetDateTime from = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2026-04-01T00:00:00Z");
+        Consumption consumption = new Consumption(from, to, 412.5, true);
+        when(consumptionSeries.consumption(from, to)).thenReturn(consumption);
+
+        assertThat(readingService.getConsumption(from, to)).isEqualTo(consumption);
+    }
+
+    @Test
+    void getCrossing_delegatesToConsumptionSeries() {
+        OffsetDateTime at = OffsetDateTime.parse("2026-03-14T15:00:00Z");
+        Crossing crossing = new Crossing(12345.0, at, at.minusDays(1), at.plusDays(1));
+        when(consumptionSeries.crossing(12345.0)).thenReturn(Optional.of(crossing));
+
+        assertThat(readingService.getCrossing(12345.0)).contains(crossing);
+    }
+
     @Test
     void createReading_imagePng_isAccepted() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
-        MockMultipartFile image = new MockMultipartFile("image", "meter.png", "image/png", "content".getBytes());
+        MockMultipartFile image = new MockMultipartFile("image", "meter.png", "image/png", PNG_BYTES);
         Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.png");
 
-        when(imageStorageService.store(image, timestamp)).thenReturn("2026/02/19/reading_abc.png");
+        when(imageStorageService.store(image, ImageFormat.PNG, timestamp)).thenReturn("2026/02/19/reading_abc.png");
         when(readingRepository.save(any(Reading.class))).thenReturn(saved);
 
         Reading result = readingService.createReading(image, timestamp);
@@ -167,10 +428,10 @@ class ReadingServiceImplTest {
     @Test
     void createReading_imageWebp_isAccepted() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
-        MockMultipartFile image = new MockMultipartFile("image", "meter.webp", "image/webp", "content".getBytes());
+        MockMultipartFile image = new MockMultipartFile("image", "meter.webp", "image/webp", WEBP_BYTES);
         Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.webp");
 
-        when(imageStorageService.store(image, timestamp)).thenReturn("2026/02/19/reading_abc.webp");
+        when(imageStorageService.store(image, ImageFormat.WEBP, timestamp)).thenReturn("2026/02/19/reading_abc.webp");
         when(readingRepository.save(any(Reading.class))).thenReturn(saved);
 
         Reading result = readingService.createReading(image, timestamp);
@@ -182,10 +443,10 @@ class ReadingServiceImplTest {
     @Test
     void createReading_imageGif_isAccepted() {
         OffsetDateTime timestamp = OffsetDateTime.parse("2026-02-19T08:00:00Z");
-        MockMultipartFile image = new MockMultipartFile("image", "meter.gif", "image/gif", "content".getBytes());
+        MockMultipartFile image = new MockMultipartFile("image", "meter.gif", "image/gif", GIF_BYTES);
         Reading saved = new Reading(1, timestamp, "2026/02/19/reading_abc.gif");
 
-        when(imageStorageService.store(image, timestamp)).thenReturn("2026/02/19/reading_abc.gif");
+        when(imageStorageService.store(image, ImageFormat.GIF, timestamp)).thenReturn("2026/02/19/reading_abc.gif");
         when(readingRepository.save(any(Reading.class))).thenReturn(saved);
 
         Reading result = readingService.createReading(image, timestamp);
@@ -0,0 +1,177 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.auth.StreamTickets;
+import io.gocklkatz.helloopenapi.controller.ReadingStreamController;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ReadingStreamTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+
+    private final ReadingRepositoryImpl repository = new ReadingRepositoryImpl();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadingStream stream =
+            new ReadingStream(repository, JsonMapper.builder().build(), meterRegistry, Duration.ofMinutes(1), 16);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ReadingStreamController(stream, new StreamTickets(Duration.ofSeconds(30), 10))).build();
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    private Reading save(int hour) {
+        Reading reading = new Reading();
+        reading.setTimestamp(TIMESTAMP.plusHours(hour));
+        reading.setImagePath("2026/02/19/reading_" + hour + ".jpg");
+        return repository.save(reading);
+    }
+
+    private MvcResult subscribe(Integer lastEventId) throws Exception {
+        return subscribe(mockMvc, lastEventId);
+    }
+
+    private static MvcResult subscribe(MockMvc mockMvc, Integer lastEventId) throws Exception {
+        var request = get("/readings/stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        awaitTrue(() -> content(result).contains(expected));
+        return content(result);
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void publish_sendsReadingEventToSubscribers() throws Exception {
+        MvcResult result = subscribe(null);
+
+        stream.publish(save(0));
+
+        String content = awaitContent(result, "id:1\n");
+        assertThat(content).contains("event:reading\n");
+        assertThat(content).contains("\"imagePath\":\"2026/02/19/reading_0.jpg\"");
+        assertThat(meterRegistry.get("readings.stream.subscribers").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_withLastEventId_replaysMissedReadingsBeforeNewOnes() throws Exception {
+        save(0);
+        save(1);
+        Reading third = save(2);
+
+        MvcResult result = subscribe(1);
+        stream.publish(third);
+        stream.publish(save(3));
+
+        String content = awaitContent(result, "id:4\n");
+        assertThat(content).doesNotContain("id:1\n");
+        assertThat(content.indexOf("id:2\n")).isLessThan(content.indexOf("id:3\n"));
+        assertThat(content.split("id:3\n", -1)).hasSize(2);
+    }
+
+    @Test
+    void subscribe_withLastEventId_skipsReplayedReadingPublishedAfterAHeartbeat() throws Exception {
+        save(0);
+        Reading second = save(1);
+
+        MvcResult result = subscribe(0);
+        awaitContent(result, "id:2\n");
+        stream.heartbeat();
+        awaitContent(result, ":ping\n");
+        stream.publish(second);
+        stream.publish(save(2));
+
+        String content = awaitContent(result, "id:3\n");
+        assertThat(content.split("id:2\n", -1)).hasSize(2);
+    }
+
+    @Test
+    void publish_whileOneSubscriberIsStuckInReplay_reachesOthersAndDropsItOnceItFallsBehind() throws Exception {
+        ReadingRepositoryImpl slowRepository = spy(new ReadingRepositoryImpl());
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(slowRepository).findAfterId(anyInt(), anyInt());
+        ReadingStream small = new ReadingStream(slowRepository, JsonMapper.builder().build(), meterRegistry,
+                Duration.ofMinutes(1), 2);
+        MockMvc smallMvc = MockMvcBuilders.standaloneSetup(new ReadingStreamController(small, new StreamTickets(Duration.ofSeconds(30), 10))).build();
+        try {
+            MvcResult live = subscribe(smallMvc, null);
+            subscribe(smallMvc, 0);
+            awaitTrue(() -> small.subscriberCount() == 2);
+
+            for (int hour = 0; hour < 4; hour++) {
+                Reading reading = new Reading();
+                reading.setTimestamp(TIMESTAMP.plusHours(hour));
+                reading.setImagePath("2026/02/19/reading_" + hour + ".jpg");
+                small.publish(slowRepository.save(reading));
+                awaitContent(live, "id:" + (hour + 1) + "\n");
+            }
+
+            assertThat(small.subscriberCount()).isEqualTo(1);
+            assertThat(meterRegistry.get("readings.stream.dropped").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void heartbeat_writesCommentToSubscribers() throws Exception {
+        MvcResult result = subscribe(null);
+
+        stream.heartbeat();
+
+        assertThat(awaitContent(result, ":ping\n")).startsWith(":ping\n");
+    }
+
+    @Test
+    void shutdown_completesSubscribers() throws Exception {
+        subscribe(null);
+        awaitTrue(() -> stream.subscriberCount() == 1);
+
+        stream.shutdown();
+
+        assertThat(stream.subscriberCount()).isZero();
+    }
+}
@@ -0,0 +1,102 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecognitionCacheTest {
+
+    private static final double[][] RESULT = {{0.05, 0.9, 0.05}, {1.0 / 3, 1.0 / 3, 1.0 / 3}};
+    private static final double[][] NOT_FOUND = new double[0][];
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RecognitionCache cache(int maxEntries) {
+        return new RecognitionCache(meterRegistry, true, maxEntries, tempDir.resolve("recognition.cache").toString());
+    }
+
+    @Test
+    void get_afterPut_returnsResultAndCountsHitsAndMisses() {
+        RecognitionCache cache = cache(10);
+
+        assertThat(cache.get("a")).isEmpty();
+        cache.put("a", RESULT);
+
+        assertThat(cache.get("a").orElseThrow()).isDeepEqualTo(RESULT);
+        assertThat(meterRegistry.counter("recognition.cache", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("recognition.cache", "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("recognition.cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void put_survivesRestartIncludingUnrecognisedResults() {
+        RecognitionCache cache = cache(10);
+        cache.put("a", RESULT);
+        cache.put("b", NOT_FOUND);
+        cache.shutdown();
+
+        RecognitionCache reloaded = cache(10);
+
+        assertThat(reloaded.get("a").orElseThrow()).isDeepEqualTo(RESULT);
+        assertThat(reloaded.get("b").orElseThrow()).isDeepEqualTo(NOT_FOUND);
+    }
+
+    @Test
+    void put_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        RecognitionCache cache = cache(2);
+        cache.put("a", RESULT);
+        cache.put("b", RESULT);
+        cache.get("a");
+        cache.put("c", RESULT);
+
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("a")).isPresent();
+        assertThat(cache.get("c")).isPresent();
+    }
+
+    @Test
+    void put_fileAtTwiceMaxEntries_isCompactedToCurrentEntries() throws IOException {
+        RecognitionCache cache = cache(2);
+        for (String key : new String[]{"a", "b", "c", "d", "e"}) {
+            cache.put(key, RESULT);
+        }
+        cache.shutdown();
+
+        assertThat(Files.readAllLines(tempDir.resolve("recognition.cache")))
+                .extracting(line -> line.split("\t")[0])
+                .containsExactly("d", "e");
+        assertThat(cache(2).get("e").orElseThrow()).isDeepEqualTo(RESULT);
+    }
+
+    @Test
+    void load_corruptFile_startsEmpty() throws IOException {
+        Files.writeString(tempDir.resolve("recognition.cache"), "a\t0.1,not-a-number;0.5,0.5\n");
+
+        assertThat(cache(10).get("a")).isEmpty();
+    }
+
+    @Test
+    void disabled_neverStoresOrPersists() {
+        RecognitionCache cache = new RecognitionCache(meterRegistry, false, 10, tempDir.resolve("recognition.cache").toString());
+        cache.put("a", RESULT);
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(tempDir.resolve("recognition.cache")).doesNotExist();
+    }
+
+    @Test
+    void key_distinguishesChecksumAndRecognizerVersion() {
+        assertThat(RecognitionCache.key("ab12", "1/8.3/1280"))
+                .isNotEqualTo(RecognitionCache.key("ab12", "2/8.3/1280"))
+                .isNotEqualTo(RecognitionCache.key("cd34", "1/8.3/1280"));
+    }
+}
@@ -0,0 +1,262 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.recognition.MeterRecognizer;
+import io.gocklkatz.helloopenapi.recognition.RecognitionResult;
+import io.gocklkatz.helloopenapi.recognition.ValueRange;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.gocklkatz.helloopenapi.series.AnomalyDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecognitionServiceTest {
+
+    private static final double[][] PROBABILITIES = {{0.1, 0.9}, {0.8, 0.2}};
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private MeterRecognizer meterRecognizer;
+
+    @Mock
+    private AnomalyDetector anomalyDetector;
+
+    @TempDir
+    Path tempDir;
+
+    private ReadingRepositoryImpl repository;
+    private SimpleMeterRegistry meterRegistry;
+    private RecognitionService recognitionService;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReadingRepositoryImpl();
+        meterRegistry = new SimpleMeterRegistry();
+        RecognitionCache cache = new RecognitionCache(meterRegistry, true, 100, tempDir.resolve("cache").toString());
+        recognitionService = new RecognitionService(imageStorageService, repository, meterRecognizer, cache,
+                anomalyDetector, meterRegistry, 1, 1, 50, 0.5);
+    }
+
+    private static MeterRecognizer.Outcome fullFrame(RecognitionResult result) {
+        return new MeterRecognizer.Outcome(result, PROBABILITIES);
+    }
+
+    private Reading saveReading() {
+        return saveReading("2026-02-19T08:00:00Z", null, null);
+    }
+
+    private Reading saveReading(String timestamp, Double meterValue, Double confidence) {
+        Reading reading = new Reading();
+        reading.setTimestamp(OffsetDateTime.parse(timestamp));
+        reading.setImagePath("2026/02/19/reading_abc.jpg");
+        reading.setMeterValue(meterValue);
+        reading.setConfidence(confidence);
+        return repository.save(reading);
+    }
+
+    @Test
+    void recognize_digitsFound_storesValueAndConfidenceOnReading() throws IOException {
+        Reading reading = saveReading();
+        when(imageStorageService.open(reading.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any()))
+                .thenReturn(fullFrame(new RecognitionResult("01234567", 1234.567, 0.93)));
+
+        recognitionService.recognize(reading);
+
+        Reading updated = repository.findById(reading.getId()).orElseThrow();
+        assertThat(updated.getMeterValue()).isEqualTo(1234.567);
+        assertThat(updated.getConfidence()).isEqualTo(0.93);
+        assertThat(updated.getImagePath()).isEqualTo(reading.getImagePath());
+        assertThat(meterRegistry.counter("recognition.results", "outcome", "recognized").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("recognition.duration").count()).isEqualTo(1);
+        verify(anomalyDetector).accept(updated);
+    }
+
+    @Test
+    void recognize_noDigitsFound_leavesReadingUnchanged() throws IOException {
+        Reading reading = saveReading();
+        when(imageStorageService.open(reading.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenReturn(fullFrame(new RecognitionResult(null, null, 0)));
+
+        recognitionService.recognize(reading);
+
+        assertThat(repository.findById(reading.getId()).orElseThrow().getMeterValue()).isNull();
+        assertThat(meterRegistry.counter("recognition.results", "outcome", "unrecognized").count()).isEqualTo(1);
+        verifyNoInteractions(anomalyDetector);
+    }
+
+    @Test
+    void recognize_unreadableImage_countsFailureWithoutThrowing() throws IOException {
+        Reading reading = saveReading();
+        when(imageStorageService.open(reading.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenThrow(new IOException("Unsupported image format"));
+
+        recognitionService.recognize(reading);
+
+        assertThat(repository.findById(reading.getId()).orElseThrow().getMeterValue()).isNull();
+        assertThat(meterRegistry.counter("recognition.results", "outcome", "failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_queueFull_runsOnCallingThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        AtomicBoolean ranOnCaller = new AtomicBoolean();
+        when(imageStorageService.open(any())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenAnswer(invocation -> {
+            if (Thread.currentThread() == caller) {
+                ranOnCaller.set(true);
+            } else {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return fullFrame(new RecognitionResult(null, null, 0));
+        });
+
+        recognitionService.submit(saveReading()); // occupies the single worker
+        recognitionService.submit(saveReading()); // fills the queue
+        recognitionService.submit(saveReading()); // rejected by the queue, runs here
+
+        assertThat(ranOnCaller).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void plausibleRange_previousTrustedReading_boundsByElapsedDays() {
+        saveReading("2026-02-17T08:00:00Z", 1200.0, 0.9);
+        saveReading("2026-02-18T08:00:00Z", 1210.0, 0.1);
+        Reading reading = saveReading("2026-02-19T20:00:00Z", null, null);
+
+        ValueRange range = recognitionService.plausibleRange(reading);
+
+        assertThat(range.min()).isEqualTo(1200.0);
+        assertThat(range.max()).isEqualTo(1200.0 + 50 * 2.5);
+    }
+
+    @Test
+    void plausibleRange_noEarlierReading_isNull() {
+        saveReading("2026-02-20T08:00:00Z", 1200.0, 0.9);
+        Reading reading = saveReading("2026-02-19T08:00:00Z", null, null);
+
+        assertThat(recognitionService.plausibleRange(reading)).isNull();
+    }
+
+    @Test
+    void recognize_passesPlausibleRangeToRecognizer() throws IOException {
+        saveReading("2026-02-18T08:00:00Z", 1200.0, 0.9);
+        Reading reading = saveReading();
+        when(imageStorageService.open(reading.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenReturn(fullFrame(new RecognitionResult(null, null, 0)));
+
+        recognitionService.recognize(reading);
+
+        verify(meterRecognizer).read(any(InputStream.class), eq(new ValueRange(1200.0, 1250.0)), any());
+    }
+
+    @Test
+    void readWithoutPrior_trustedEarlierReading_readsWithoutRangeOrWindow() throws IOException {
+        saveReading("2026-02-18T08:00:00Z", 1200.0, 0.9);
+        Reading reading = saveReading();
+        when(imageStorageService.open(reading.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenReturn(fullFrame(new RecognitionResult(null, null, 0)));
+
+        recognitionService.readWithoutPrior(reading);
+
+        verify(meterRecognizer).read(any(InputStream.class), isNull(), isNull());
+    }
+
+    @Test
+    void read_sameImageContentTwice_recognisesOnceAndDecodesCachedProbabilities() throws IOException {
+        Reading first = saveReading();
+        first.setChecksum("ab12");
+        Reading reupload = saveReading();
+        reupload.setChecksum("ab12");
+        RecognitionResult result = new RecognitionResult("01234567", 1234.567, 0.93);
+        when(meterRecognizer.version()).thenReturn("1/8.3/1280");
+        when(imageStorageService.open(first.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenReturn(fullFrame(result));
+        when(meterRecognizer.decode(PROBABILITIES, null)).thenReturn(result);
+
+        RecognitionResult original = recognitionService.read(first);
+        RecognitionResult cached = recognitionService.read(reupload);
+
+        assertThat(cached).isEqualTo(original);
+        verify(meterRecognizer, times(1)).read(any(InputStream.class), any(), any());
+        verify(imageStorageService, times(1)).open(any());
+        assertThat(meterRegistry.counter("recognition.cache", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void read_cachedImageWithOtherRange_appliesNewRangeToCachedProbabilities() throws IOException {
+        saveReading("2026-02-18T08:00:00Z", 1200.0, 0.9);
+        Reading reading = saveReading();
+        reading.setChecksum("ab12");
+        when(meterRecognizer.version()).thenReturn("1/8.3/1280");
+        when(imageStorageService.open(reading.getImagePath())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any()))
+                .thenReturn(fullFrame(new RecognitionResult("01234567", 1234.567, 0.93)));
+        when(meterRecognizer.decode(any(), any())).thenReturn(new RecognitionResult("01201234", 1201.234, 0.2));
+
+        recognitionService.readWithoutPrior(reading);
+        RecognitionResult bounded = recognitionService.read(reading);
+
+        assertThat(bounded.value()).isEqualTo(1201.234);
+        verify(meterRecognizer, times(1)).read(any(InputStream.class), any(), any());
+        verify(meterRecognizer).decode(PROBABILITIES, new ValueRange(1200.0, 1250.0));
+    }
+
+    @Test
+    void read_answeredFromWindow_isNotCached() throws IOException {
+        Reading reading = saveReading();
+        reading.setChecksum("ab12");
+        when(meterRecognizer.version()).thenReturn("1/8.3/1280");
+        when(imageStorageService.open(reading.getImagePath()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any()))
+                .thenReturn(new MeterRecognizer.Outcome(new RecognitionResult("01234567", 1234.567, 0.93), null));
+
+        recognitionService.read(reading);
+        recognitionService.read(reading);
+
+        verify(meterRecognizer, times(2)).read(any(InputStream.class), any(), any());
+    }
+
+    @Test
+    void read_otherRecognizerVersion_missesCache() throws IOException {
+        Reading reading = saveReading();
+        reading.setChecksum("ab12");
+        when(meterRecognizer.version()).thenReturn("1/8.3/1280", "2/8.3/1280");
+        when(imageStorageService.open(reading.getImagePath()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+        when(meterRecognizer.read(any(InputStream.class), any(), any())).thenReturn(fullFrame(new RecognitionResult(null, null, 0)));
+
+        recognitionService.read(reading);
+        recognitionService.read(reading);
+
+        verify(meterRecognizer, times(2)).read(any(InputStream.class), any(), any());
+    }
+}
@@ -0,0 +1,209 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.recognition.RecognitionResult;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReprocessingJobTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Mock
+    private RecognitionService recognitionService;
+
+    @TempDir
+    Path tempDir;
+
+    private ReadingRepositoryImpl repository;
+    private UploadActivity uploadActivity;
+    private SimpleMeterRegistry meterRegistry;
+    private Path checkpointFile;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReadingRepositoryImpl();
+        uploadActivity = new UploadActivity();
+        meterRegistry = new SimpleMeterRegistry();
+        checkpointFile = tempDir.resolve("reprocess.checkpoint");
+    }
+
+    private ReprocessingJob job(int chunkSize) {
+        return new ReprocessingJob(repository, recognitionService, uploadActivity, meterRegistry,
+                2, chunkSize, checkpointFile.toString());
+    }
+
+    private void saveReadings(int count) {
+        for (int i = 0; i < count; i++) {
+            Reading reading = new Reading();
+            reading.setTimestamp(OffsetDateTime.parse("2026-02-01T08:00:00Z").plusDays(i));
+            reading.setImagePath("reading_" + i + ".jpg");
+            repository.save(reading);
+        }
+    }
+
+    @Test
+    void start_recognisesEveryReadingAndRemovesCheckpoint() throws Exception {
+        saveReadings(10);
+        when(recognitionService.readWithoutPrior(any())).thenAnswer(invocation -> {
+            Reading reading = invocation.getArgument(0);
+            return new RecognitionResult("00001234", 1000.0 + reading.getId(), 0.9);
+        });
+        ReprocessingJob job = job(3);
+
+        assertThat(job.start()).isTrue();
+        assertThat(job.awaitCompletion(TIMEOUT)).isTrue();
+
+        ReprocessingJob.Progress progress = job.progress();
+        assertThat(progress.state()).isEqualTo(ReprocessingJob.State.COMPLETED);
+        assertThat(progress.processed()).isEqualTo(10);
+        assertThat(progress.recognized()).isEqualTo(10);
+        assertThat(progress.checkpoint()).isEqualTo(10);
+        assertThat(repository.findAll()).allSatisfy(r -> assertThat(r.getMeterValue()).isEqualTo(1000.0 + r.getId()));
+        assertThat(checkpointFile).doesNotExist();
+        assertThat(meterRegistry.counter("reprocess.images").count()).isEqualTo(10);
+    }
+
+    @Test
+    void start_unrecognisedOrFailedImage_keepsPreviousValue() throws Exception {
+        saveReadings(2);
+        repository.update(1, r -> r.setMeterValue(500.0));
+        repository.update(2, r -> r.setMeterValue(600.0));
+        when(recognitionService.readWithoutPrior(any())).thenAnswer(invocation -> {
+            Reading reading = invocation.getArgument(0);
+            if (reading.getId() == 1) {
+                return new RecognitionResult(null, null, 0);
+            }
+            throw new IOException("missing");
+        });
+        ReprocessingJob job = job(10);
+
+        job.start();
+        job.awaitCompletion(TIMEOUT);
+
+        assertThat(repository.findAll()).extracting(Reading::getMeterValue).containsExactly(500.0, 600.0);
+        assertThat(job.progress().failed()).isEqualTo(1);
+        assertThat(job.progress().state()).isEqualTo(ReprocessingJob.State.COMPLETED);
+    }
+
+    @Test
+    void start_withCheckpoint_resumesAfterIt() throws Exception {
+        saveReadings(5);
+        when(recognitionService.readWithoutPrior(any())).thenReturn(new RecognitionResult("00001234", 1.234, 0.9));
+        ReprocessingJob job = job(10);
+        Files.writeString(checkpointFile, job.startupId() + " 3");
+
+        job.start();
+        job.awaitCompletion(TIMEOUT);
+
+        assertThat(job.progress().resumedAfter()).isEqualTo(3);
+        assertThat(job.progress().processed()).isEqualTo(2);
+        assertThat(repository.findAll()).extracting(Reading::getMeterValue).containsExactly(null, null, null, 1.234, 1.234);
+    }
+
+    @Test
+    void cancel_keepsCheckpointOfLastWrittenChunkForTheNextRun() throws Exception {
+        saveReadings(6);
+        CountDownLatch secondChunk = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(recognitionService.readWithoutPrior(any())).thenAnswer(invocation -> {
+            Reading reading = invocation.getArgument(0);
+            if (reading.getId() > 2) {
+                secondChunk.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return new RecognitionResult("00001234", 1.234, 0.9);
+        });
+        ReprocessingJob job = job(2);
+
+        job.start();
+        assertThat(secondChunk.await(10, TimeUnit.SECONDS)).isTrue();
+        job.cancel();
+        release.countDown();
+        assertThat(job.awaitCompletion(TIMEOUT)).isTrue();
+
+        assertThat(job.progress().state()).isEqualTo(ReprocessingJob.State.CANCELLED);
+        assertThat(Files.readString(checkpointFile)).isEqualTo(job.startupId() + " 2");
+
+        job.start();
+        job.awaitCompletion(TIMEOUT);
+
+        assertThat(job.progress().resumedAfter()).isEqualTo(2);
+        assertThat(job.progress().state()).isEqualTo(ReprocessingJob.State.COMPLETED);
+        assertThat(repository.findAll()).allSatisfy(r -> assertThat(r.getMeterValue()).isEqualTo(1.234));
+    }
+
+    @Test
+    void start_afterRestartWithFreshRepository_ignoresOldCheckpoint() throws Exception {
+        saveReadings(4);
+        when(recognitionService.readWithoutPrior(any())).thenReturn(new RecognitionResult("00001234", 1.234, 0.9));
+        ReprocessingJob beforeRestart = job(2);
+        Files.writeString(checkpointFile, beforeRestart.startupId() + " 3");
+
+        repository = new ReadingRepositoryImpl();
+        saveReadings(4);
+        ReprocessingJob afterRestart = job(2);
+        afterRestart.start();
+        afterRestart.awaitCompletion(TIMEOUT);
+
+        assertThat(afterRestart.progress().resumedAfter()).isZero();
+        assertThat(afterRestart.progress().processed()).isEqualTo(4);
+        assertThat(repository.findAll()).allSatisfy(r -> assertThat(r.getMeterValue()).isEqualTo(1.234));
+        assertThat(checkpointFile).doesNotExist();
+    }
+
+    @Test
+    void start_whileUploadInFlight_waitsForIngestToFinish() throws Exception {
+        saveReadings(1);
+        uploadActivity.begin();
+        ReprocessingJob job = job(10);
+
+        job.start();
+        Thread.sleep(200);
+
+        verify(recognitionService, never()).readWithoutPrior(any());
+        assertThat(meterRegistry.counter("reprocess.yields").count()).isPositive();
+
+        when(recognitionService.readWithoutPrior(any())).thenReturn(new RecognitionResult(null, null, 0));
+        uploadActivity.end();
+        assertThat(job.awaitCompletion(TIMEOUT)).isTrue();
+        verify(recognitionService, atLeastOnce()).readWithoutPrior(any());
+    }
+
+    @Test
+    void start_whileRunning_returnsFalse() throws Exception {
+        saveReadings(1);
+        uploadActivity.begin();
+        ReprocessingJob job = job(10);
+
+        assertThat(job.start()).isTrue();
+        assertThat(job.start()).isFalse();
+
+        job.cancel();
+        assertThat(job.awaitCompletion(TIMEOUT)).isTrue();
+        assertThat(job.progress().state()).isEqualTo(ReprocessingJob.State.CANCELLED);
+        assertThat(checkpointFile).doesNotExist();
+    }
+}
@@ -0,0 +1,135 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent requests handled on Tomcat's default worker pool of 200 platform threads,
+ * against one virtual thread per request as with {@code spring.threads.virtual.enabled}.
+ *
+ * <p>With {@code storage=local} an upload stores a 16 KiB photo with
+ * {@link ImageStorageServiceLocal} and then removes it again so the disk does not fill up. With
+ * {@code storage=s3} it waits 50 ms instead, standing in for the round trip of an S3 PUT, which
+ * blocks on a socket rather than on the disk. A list read serialises all readings to JSON, like
+ * {@code GET /readings}, and does not touch the storage.
+ *
+ * Run with {@code mvn test-compile exec:exec -Pbenchmark -Dbenchmark=RequestThreadsBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestThreadsBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int REQUESTS = 1000;
+    private static final int READINGS = 1000;
+    private static final long S3_ROUND_TRIP_MILLIS = 50;
+    private static final OffsetDateTime START = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"local", "s3"})
+    public String storage;
+
+    private Path basePath;
+    private ImageStorageServiceLocal localStorage;
+    private ReadingRepositoryImpl repository;
+    private JsonMapper jsonMapper;
+    private MultipartFile image;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        basePath = Files.createTempDirectory("request-threads-benchmark");
+        localStorage = new ImageStorageServiceLocal(basePath.toString());
+        repository = new ReadingRepositoryImpl();
+        for (int i = 0; i < READINGS; i++) {
+            Reading reading = new Reading();
+            reading.setTimestamp(START.plusHours(i));
+            reading.setImagePath("2026/01/01/reading_" + i + ".jpg");
+            reading.setMeterValue(1000.0 + i * 0.1);
+            reading.setConfidence(0.9);
+            repository.save(reading);
+        }
+        jsonMapper = JsonMapper.builder().build();
+        image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", new byte[16 * 1024]);
+        executor = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        localStorage.clearStorage();
+        Files.delete(basePath);
+    }
+
+    @Benchmark
+    public int uploads() throws Exception {
+        if (storage.equals("s3")) {
+            return burst(i -> {
+                Thread.sleep(S3_ROUND_TRIP_MILLIS);
+                return i;
+            });
+        }
+        return burst(i -> {
+            String path = localStorage.store(image, ImageFormat.JPEG, START.plusMinutes(i));
+            localStorage.delete(List.of(path));
+            return path.length();
+        });
+    }
+
+    @Benchmark
+    public int listReads() throws Exception {
+        return burst(i -> jsonMapper.writeValueAsBytes(repository.findAll()).length);
+    }
+
+    private interface Request {
+        int handle(int index) throws Exception;
+    }
+
+    /** Submits {@link #REQUESTS} requests at once and waits for all of them. */
+    private int burst(Request request) throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            responses.add(executor.submit(() -> request.handle(index)));
+        }
+        int total = 0;
+        for (Future<Integer> response : responses) {
+            total += response.get();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,146 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import io.gocklkatz.helloopenapi.config.RetentionConfig;
+import io.gocklkatz.helloopenapi.config.RetentionConfig.Rule;
+import io.gocklkatz.helloopenapi.repository.ReadingRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    private ReadingRepositoryImpl repository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReadingRepositoryImpl();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private RetentionService serviceWith(Rule... rules) {
+        RetentionConfig config = new RetentionConfig();
+        config.setRules(List.of(rules));
+        return new RetentionService(imageStorageService, repository, config, meterRegistry);
+    }
+
+    private Reading saveAt(String timestamp) {
+        Reading reading = new Reading();
+        reading.setTimestamp(OffsetDateTime.parse(timestamp));
+        reading.setImagePath("img-" + timestamp + ".jpg");
+        return repository.save(reading);
+    }
+
+    private void storageDeletesEverything() {
+        when(imageStorageService.delete(any())).thenAnswer(invocation -> new HashSet<>(invocation.<Collection<String>>getArgument(0)));
+    }
+
+    @Test
+    void apply_keepsEverythingYoungerThanRule() {
+        saveAt("2025-06-01T08:00:00Z");
+        saveAt("2026-02-28T08:00:00Z");
+
+        int deleted = serviceWith(new Rule(Period.ofYears(2), Duration.ofDays(7))).apply(NOW);
+
+        assertThat(deleted).isZero();
+        verifyNoInteractions(imageStorageService);
+    }
+
+    @Test
+    void apply_keepsEarliestReadingPerWeekBeyondRuleAge() {
+        // 2023-01-05 is a Thursday, the start of an epoch-aligned week
+        Reading kept = saveAt("2023-01-05T08:00:00Z");
+        Reading sameWeek1 = saveAt("2023-01-06T08:00:00Z");
+        Reading sameWeek2 = saveAt("2023-01-11T08:00:00Z");
+        Reading nextWeek = saveAt("2023-01-12T08:00:00Z");
+        Reading recent = saveAt("2026-01-01T08:00:00Z");
+        storageDeletesEverything();
+
+        int deleted = serviceWith(new Rule(Period.ofYears(2), Duration.ofDays(7))).apply(NOW);
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(repository.findAll()).extracting(Reading::getId)
+                .containsExactlyInAnyOrder(kept.getId(), nextWeek.getId(), recent.getId());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(imageStorageService).delete(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder(sameWeek1.getImagePath(), sameWeek2.getImagePath());
+        assertThat(meterRegistry.counter("retention.readings.deleted").count()).isEqualTo(2);
+    }
+
+    @Test
+    void apply_ruleWithoutKeepOnePer_deletesEverythingOlder() {
+        saveAt("2015-01-01T08:00:00Z");
+        saveAt("2015-01-01T09:00:00Z");
+        Reading recent = saveAt("2025-01-01T08:00:00Z");
+        storageDeletesEverything();
+
+        int deleted = serviceWith(new Rule(Period.ofYears(10), null)).apply(NOW);
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(repository.findAll()).extracting(Reading::getId).containsExactly(recent.getId());
+    }
+
+    @Test
+    void apply_longestMatchingRuleWins() {
+        Reading veryOld = saveAt("2015-01-05T08:00:00Z");
+        Reading old1 = saveAt("2023-01-05T08:00:00Z");
+        Reading old2 = saveAt("2023-01-06T08:00:00Z");
+        storageDeletesEverything();
+
+        int deleted = serviceWith(
+                new Rule(Period.ofYears(2), Duration.ofDays(7)),
+                new Rule(Period.ofYears(10), null)).apply(NOW);
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(repository.findById(veryOld.getId())).isEmpty();
+        assertThat(repository.findById(old1.getId())).isPresent();
+        assertThat(repository.findById(old2.getId())).isEmpty();
+    }
+
+    @Test
+    void apply_imageNotDeleted_keepsReading() {
+        saveAt("2015-01-01T08:00:00Z");
+        Reading failing = saveAt("2015-01-01T09:00:00Z");
+        when(imageStorageService.delete(any())).thenReturn(Set.of("img-2015-01-01T08:00:00Z.jpg"));
+
+        int deleted = serviceWith(new Rule(Period.ofYears(10), null)).apply(NOW);
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(repository.findAll()).extracting(Reading::getId).containsExactly(failing.getId());
+    }
+
+    @Test
+    void apply_noRules_doesNothing() {
+        saveAt("2015-01-01T08:00:00Z");
+
+        assertThat(serviceWith().apply(NOW)).isZero();
+        verifyNoInteractions(imageStorageService);
+    }
+}
@@ -11,15 +11,26 @@ import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,7 +54,7 @@ class S3ImageStorageServiceLocalTest {
     void store_uploadsToCorrectBucketAndKey() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        String key = service.store(image, TIMESTAMP);
+        String key = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
         verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
@@ -55,7 +66,7 @@ class S3ImageStorageServiceLocalTest {
     void store_returnsKeyWithDatePrefix() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        String key = service.store(image, TIMESTAMP);
+        String key = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(key).startsWith("2026/02/19/reading_");
         assertThat(key).endsWith(".jpg");
@@ -65,7 +76,7 @@ class S3ImageStorageServiceLocalTest {
     void store_setsContentTypeOnRequest() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        service.store(image, TIMESTAMP);
+        service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
         verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
@@ -73,28 +84,50 @@ class S3ImageStorageServiceLocalTest {
     }
 
     @Test
-    void store_preservesOriginalFileExtension() {
+    void store_contentTypeComesFromDetectedFormatNotClient() {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "application/octet-stream", "content".getBytes());
+
+        service.store(image, ImageFormat.PNG, TIMESTAMP);
+
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
+        assertThat(requestCaptor.getValue().contentType()).isEqualTo("image/png");
+    }
+
+    @Test
+    void store_streamsContentWithKnownLength() {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
+
+        service.store(image, ImageFormat.JPEG, TIMESTAMP);
+
+        ArgumentCaptor<RequestBody> bodyCaptor = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3Client).putObject(any(PutObjectRequest.class), bodyCaptor.capture());
+        assertThat(bodyCaptor.getValue().optionalContentLength()).contains((long) "content".length());
+    }
+
+    @Test
+    void store_usesExtensionOfDetectedFormat() {
         MockMultipartFile image = new MockMultipartFile("image", "photo.png", "image/png", "content".getBytes());
 
-        String key = service.store(image, TIMESTAMP);
+        String key = service.store(image, ImageFormat.PNG, TIMESTAMP);
 
         assertThat(key).endsWith(".png");
     }
 
     @Test
-    void store_usesFallbackExtensionWhenFilenameHasNoDot() {
-        MockMultipartFile image = new MockMultipartFile("image", "noextension", "image/jpeg", "content".getBytes());
+    void store_ignoresExtensionOfClientFilename() {
+        MockMultipartFile image = new MockMultipartFile("image", "meter.exe", "image/jpeg", "content".getBytes());
 
-        String key = service.store(image, TIMESTAMP);
+        String key = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(key).endsWith(".jpg");
     }
 
     @Test
-    void store_usesFallbackExtensionWhenFilenameIsNull() {
+    void store_whenFilenameIsNull_usesFormatExtension() {
         MockMultipartFile image = new MockMultipartFile("image", null, "image/jpeg", "content".getBytes());
 
-        String key = service.store(image, TIMESTAMP);
+        String key = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(key).endsWith(".jpg");
     }
@@ -104,7 +137,7 @@ class S3ImageStorageServiceLocalTest {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
         OffsetDateTime timestampWithSingleDigits = OffsetDateTime.parse("2026-01-05T08:00:00Z");
 
-        String key = service.store(image, timestampWithSingleDigits);
+        String key = service.store(image, ImageFormat.JPEG, timestampWithSingleDigits);
 
         assertThat(key).startsWith("2026/01/05/");
     }
@@ -113,8 +146,8 @@ class S3ImageStorageServiceLocalTest {
     void store_generatesUniqueKeysForMultipleCalls() {
         MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", "content".getBytes());
 
-        String key1 = service.store(image, TIMESTAMP);
-        String key2 = service.store(image, TIMESTAMP);
+        String key1 = service.store(image, ImageFormat.JPEG, TIMESTAMP);
+        String key2 = service.store(image, ImageFormat.JPEG, TIMESTAMP);
 
         assertThat(key1).isNotEqualTo(key2);
     }
@@ -125,7 +158,7 @@ class S3ImageStorageServiceLocalTest {
         when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
                 .thenThrow(SdkException.create("S3 unavailable", null));
 
-        assertThatThrownBy(() -> service.store(image, TIMESTAMP))
+        assertThatThrownBy(() -> service.store(image, ImageFormat.JPEG, TIMESTAMP))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Failed to upload image to S3");
     }
@@ -133,12 +166,94 @@ class S3ImageStorageServiceLocalTest {
     @Test
     void store_ioException_throwsUncheckedIOException() throws IOException {
         MultipartFile image = org.mockito.Mockito.mock(MultipartFile.class);
-        when(image.getOriginalFilename()).thenReturn("meter.jpg");
-        when(image.getContentType()).thenReturn("image/jpeg");
-        when(image.getBytes()).thenThrow(new IOException("read error"));
+        when(image.getInputStream()).thenThrow(new IOException("read error"));
 
-        assertThatThrownBy(() -> service.store(image, TIMESTAMP))
+        assertThatThrownBy(() -> service.store(image, ImageFormat.JPEG, TIMESTAMP))
                 .isInstanceOf(UncheckedIOException.class)
                 .hasMessageContaining("Failed to upload image to S3");
     }
+
+    @Test
+    void open_requestsObjectFromBucket() {
+        service.open("2026/02/19/reading_abc.jpg");
+
+        ArgumentCaptor<GetObjectRequest> requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(requestCaptor.capture());
+        assertThat(requestCaptor.getValue().bucket()).isEqualTo(BUCKET);
+        assertThat(requestCaptor.getValue().key()).isEqualTo("2026/02/19/reading_abc.jpg");
+    }
+
+    @Test
+    void open_sdkException_throwsRuntimeException() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenThrow(SdkException.create("S3 unavailable", null));
+
+        assertThatThrownBy(() -> service.open("2026/02/19/reading_abc.jpg"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to read image from S3");
+    }
+
+    @Test
+    void openRange_requestsInclusiveByteRange() {
+        service.openRange("2026/02/19/reading_abc.jpg", 100, 50);
+
+        ArgumentCaptor<GetObjectRequest> requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(requestCaptor.capture());
+        assertThat(requestCaptor.getValue().range()).isEqualTo("bytes=100-149");
+    }
+
+    @Test
+    void exists_existingKey_returnsTrue() {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder().build());
+
+        assertThat(service.exists("2026/02/19/reading_abc.jpg")).isTrue();
+    }
+
+    @Test
+    void exists_missingKey_returnsFalse() {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThat(service.exists("2026/02/19/reading_abc.jpg")).isFalse();
+    }
+
+    @Test
+    void delete_batchesKeysIntoRequestsOfAtMostOneThousand() {
+        List<String> keys = IntStream.range(0, 2500).mapToObj(i -> "2026/02/19/reading_" + i + ".jpg").toList();
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        Set<String> deleted = service.delete(keys);
+
+        ArgumentCaptor<DeleteObjectsRequest> requestCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(3)).deleteObjects(requestCaptor.capture());
+        assertThat(requestCaptor.getAllValues())
+                .extracting(r -> r.delete().objects().size())
+                .containsExactly(1000, 1000, 500);
+        assertThat(requestCaptor.getAllValues()).allSatisfy(r -> {
+            assertThat(r.bucket()).isEqualTo(BUCKET);
+            assertThat(r.delete().quiet()).isTrue();
+        });
+        assertThat(deleted).hasSize(2500);
+    }
+
+    @Test
+    void delete_keysReportedAsErrors_areLeftOutOfResult() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("b.jpg").message("AccessDenied").build())
+                .build());
+
+        Set<String> deleted = service.delete(List.of("a.jpg", "b.jpg"));
+
+        assertThat(deleted).containsExactly("a.jpg");
+    }
+
+    @Test
+    void delete_failedBatch_isLeftOutButLaterBatchesProceed() {
+        List<String> keys = IntStream.range(0, 1001).mapToObj(i -> "reading_" + i + ".jpg").toList();
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenThrow(SdkException.create("S3 unavailable", null))
+                .thenReturn(DeleteObjectsResponse.builder().build());
+
+        Set<String> deleted = service.delete(keys);
+
+        assertThat(deleted).containsExactly("reading_1000.jpg");
+    }
 }
@@ -0,0 +1,80 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubtasksTest {
+
+    @Test
+    void join_allSucceed_runsSubtasksConcurrentlyAndGivesTheirResults() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (Subtasks subtasks = new Subtasks()) {
+            Supplier<String> first = subtasks.fork(() -> awaitOther(bothStarted, "a"));
+            Supplier<Integer> second = subtasks.fork(() -> awaitOther(bothStarted, 2));
+            subtasks.join();
+
+            assertThat(first.get()).isEqualTo("a");
+            assertThat(second.get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void join_oneFails_interruptsTheOthersAndRethrowsWithoutWaitingForThem() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> {
+            try (Subtasks subtasks = new Subtasks()) {
+                subtasks.fork(() -> sleepUntilInterrupted(started, interrupted));
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+                subtasks.fork(() -> {
+                    throw new ImageQualityException(ImageQualityException.Reason.BLUR, "Photo is too blurred to read");
+                });
+                subtasks.join();
+            }
+        }).isInstanceOf(ImageQualityException.class).hasMessage("Photo is too blurred to read");
+
+        assertThat(interrupted.getCount()).isZero();
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+    }
+
+    @Test
+    void close_withoutJoin_interruptsRunningSubtasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try (Subtasks subtasks = new Subtasks()) {
+            subtasks.fork(() -> sleepUntilInterrupted(started, interrupted));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(interrupted.getCount()).isZero();
+    }
+
+    private static String sleepUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return "slow";
+    }
+
+    private static <T> T awaitOther(CountDownLatch bothStarted, T result) {
+        bothStarted.countDown();
+        try {
+            assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+}
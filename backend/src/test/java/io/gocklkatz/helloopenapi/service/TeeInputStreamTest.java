@@ -0,0 +1,71 @@
+package io.gocklkatz.helloopenapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TeeInputStreamTest {
+
+    @Test
+    void copy_readConcurrently_seesEveryByteInOrder() throws Exception {
+        byte[] data = new byte[500_000];
+        new Random(3).nextBytes(data);
+        TeeInputStream tee = new TeeInputStream(new ByteArrayInputStream(data), 4);
+
+        CompletableFuture<byte[]> copied = CompletableFuture.supplyAsync(() -> {
+            try (InputStream copy = tee.copy()) {
+                return copy.readAllBytes();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        byte[] head = tee.readNBytes(100);
+        tee.skip(1000);
+        tee.drain();
+
+        assertThat(head).isEqualTo(Arrays.copyOf(data, 100));
+        assertThat(copied.get(5, TimeUnit.SECONDS)).isEqualTo(data);
+    }
+
+    @Test
+    void read_copyFallsBehind_blocksUntilInterrupted() throws Exception {
+        TeeInputStream tee = new TeeInputStream(new ByteArrayInputStream(new byte[10]), 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try {
+                tee.read(new byte[1]);
+                blocked.countDown();
+                tee.read(new byte[1]);
+                failure.complete(null);
+            } catch (Exception e) {
+                failure.complete(e);
+            }
+        });
+
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        reader.interrupt();
+
+        assertThat(failure.get(5, TimeUnit.SECONDS)).isInstanceOf(InterruptedIOException.class);
+    }
+
+    @Test
+    void copy_interruptedWhileWaiting_throwsInterruptedIOException() throws Exception {
+        TeeInputStream tee = new TeeInputStream(new ByteArrayInputStream(new byte[10]), 1);
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(() -> tee.copy().read())
+                .isInstanceOf(InterruptedIOException.class);
+        assertThat(Thread.interrupted()).isTrue();
+    }
+}
@@ -0,0 +1,181 @@
+package io.gocklkatz.helloopenapi.service;
+
+import com.example.model.Reading;
+import com.example.model.UploadJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UploadJobServiceTest {
+
+    private static final byte[] JPEG_BYTES = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1};
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00+01:00");
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path spoolDir;
+
+    @Mock
+    private ReadingService readingService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UploadJobService service;
+
+    private UploadJobService service(int maxPending, int retained) {
+        service = new UploadJobService(readingService, meterRegistry, spoolDir.toString(), 1, maxPending, retained);
+        service.recover();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private static MockMultipartFile image() {
+        return new MockMultipartFile("image", "meter.jpg", "image/jpeg", JPEG_BYTES);
+    }
+
+    @Test
+    void submit_returnsPendingJob_thenCreatesReadingFromSpoolAndCleansUp() throws Exception {
+        ArgumentCaptor<MultipartFile> spooled = ArgumentCaptor.forClass(MultipartFile.class);
+        when(readingService.createReading(spooled.capture(), eq(TIMESTAMP))).thenAnswer(invocation -> {
+            assertThat(spooled.getValue().getBytes()).isEqualTo(JPEG_BYTES);
+            return new Reading(5, TIMESTAMP, "2026/02/19/reading_abc.jpg");
+        });
+        UploadJobService service = service(10, 10);
+
+        UploadJob accepted = service.submit(image(), TIMESTAMP);
+        UploadJob finished = service.find(accepted.getId(), WAIT).orElseThrow();
+
+        assertThat(accepted.getStatus()).isEqualTo(UploadJob.StatusEnum.PENDING);
+        assertThat(finished.getStatus()).isEqualTo(UploadJob.StatusEnum.DONE);
+        assertThat(finished.getReadingId()).isEqualTo(5);
+        assertThat(finished.getFinishedAt()).isNotNull();
+        assertThat(spooled.getValue().getOriginalFilename()).isEqualTo("meter.jpg");
+        assertThat(spooled.getValue().getContentType()).isEqualTo("image/jpeg");
+        assertThat(spoolDir).isEmptyDirectory();
+        assertThat(meterRegistry.counter("upload.jobs", "outcome", "done").count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_unsupportedImageType_throwsWithoutSpooling() {
+        UploadJobService service = service(10, 10);
+
+        assertThatThrownBy(() -> service.submit(
+                new MockMultipartFile("image", "notes.txt", "text/plain", "not an image".getBytes()), TIMESTAMP))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("text/plain");
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void submit_creationFails_jobFailsWithReason() throws Exception {
+        when(readingService.createReading(any(), any()))
+                .thenThrow(new ImageQualityException(ImageQualityException.Reason.BLUR, "Photo is too blurred to read"));
+        UploadJobService service = service(10, 10);
+
+        UploadJob finished = service.find(service.submit(image(), TIMESTAMP).getId(), WAIT).orElseThrow();
+
+        assertThat(finished.getStatus()).isEqualTo(UploadJob.StatusEnum.FAILED);
+        assertThat(finished.getError()).isEqualTo("Photo is too blurred to read");
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void submit_maxPendingReached_rejectsUntilAJobFinishes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(readingService.createReading(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new Reading(1, TIMESTAMP, "a.jpg");
+        });
+        UploadJobService service = service(1, 10);
+
+        UploadJob first = service.submit(image(), TIMESTAMP);
+        assertThatThrownBy(() -> service.submit(image(), TIMESTAMP)).isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        service.find(first.getId(), WAIT);
+
+        assertThat(service.submit(image(), TIMESTAMP).getStatus()).isEqualTo(UploadJob.StatusEnum.PENDING);
+    }
+
+    @Test
+    void find_runningJobWithoutWait_returnsPending() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(readingService.createReading(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new Reading(1, TIMESTAMP, "a.jpg");
+        });
+        UploadJobService service = service(10, 10);
+
+        UploadJob job = service.submit(image(), TIMESTAMP);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(service.find(job.getId(), Duration.ZERO).orElseThrow().getStatus())
+                .isEqualTo(UploadJob.StatusEnum.PENDING);
+        release.countDown();
+    }
+
+    @Test
+    void find_beyondRetainedJobs_forgetsOldest() throws Exception {
+        when(readingService.createReading(any(), any())).thenReturn(new Reading(1, TIMESTAMP, "a.jpg"));
+        UploadJobService service = service(10, 1);
+
+        String first = service.submit(image(), TIMESTAMP).getId();
+        service.find(first, WAIT);
+        String second = service.submit(image(), TIMESTAMP).getId();
+        service.find(second, WAIT);
+
+        assertThat(service.find(first, Duration.ZERO)).isEmpty();
+        assertThat(service.find(second, Duration.ZERO)).isPresent();
+        assertThat(service.find("unknown", Duration.ZERO)).isEmpty();
+    }
+
+    @Test
+    void recover_resumesCompleteJobsAndDropsPartialOnes() throws Exception {
+        Files.write(spoolDir.resolve("job-1.image"), JPEG_BYTES);
+        Files.writeString(spoolDir.resolve("job-1.properties"),
+                "timestamp=" + TIMESTAMP + "\nacceptedAt=2026-02-19T07:00:00Z\nfilename=meter.jpg\n");
+        Files.write(spoolDir.resolve("job-2.image"), JPEG_BYTES);
+        Files.write(spoolDir.resolve("job-3.image.part"), JPEG_BYTES);
+        when(readingService.createReading(any(), eq(TIMESTAMP))).thenReturn(new Reading(9, TIMESTAMP, "a.jpg"));
+
+        UploadJobService service = service(10, 10);
+        UploadJob resumed = service.find("job-1", WAIT).orElseThrow();
+
+        assertThat(resumed.getStatus()).isEqualTo(UploadJob.StatusEnum.DONE);
+        assertThat(resumed.getReadingId()).isEqualTo(9);
+        assertThat(resumed.getAcceptedAt()).isEqualTo(OffsetDateTime.parse("2026-02-19T07:00:00Z"));
+        assertThat(service.find("job-2", Duration.ZERO)).isEmpty();
+        verify(readingService, timeout(5000)).createReading(any(), eq(TIMESTAMP));
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+}
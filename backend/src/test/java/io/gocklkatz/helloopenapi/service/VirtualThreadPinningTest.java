@@ -0,0 +1,161 @@
+package io.gocklkatz.helloopenapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the storage code on many virtual threads at once and records every time one of them held
+ * up its carrier thread. On Java 21 that happens in two ways, and JFR reports each with its own
+ * event, recorded here without a duration threshold:
+ * <ul>
+ *   <li>{@code jdk.VirtualThreadPinned}: the thread parked inside a {@code synchronized} block.</li>
+ *   <li>{@code jdk.JavaMonitorEnter}: the thread waited to enter a monitor. Only monitors of this
+ *       application's classes are counted, so contention inside the JDK does not make the test
+ *       flaky.</li>
+ * </ul>
+ */
+class VirtualThreadPinningTest {
+
+    private static final int THREADS = 32;
+    private static final String APPLICATION_PACKAGE = "io.gocklkatz.helloopenapi.";
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2026-02-19T08:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void pinnedEvents_blockingInsideMonitor_isDetected() throws Exception {
+        Object monitor = new Object();
+
+        List<RecordedEvent> pinned = pinnedEvents(i -> {
+            synchronized (monitor) {
+                sleep(Duration.ofMillis(1));
+            }
+        });
+
+        assertThat(pinned).extracting(e -> e.getEventType().getName()).contains("jdk.VirtualThreadPinned");
+    }
+
+    @Test
+    void pinnedEvents_contendedMonitorAroundIo_isDetected() throws Exception {
+        Monitor monitor = new Monitor();
+        Path file = tempDir.resolve("contended");
+
+        List<RecordedEvent> pinned = pinnedEvents(i -> {
+            synchronized (monitor) {
+                try {
+                    Files.write(file, new byte[256 * 1024]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+
+        assertThat(pinned).extracting(e -> e.getEventType().getName()).contains("jdk.JavaMonitorEnter");
+    }
+
+    @Test
+    void localStorage_onVirtualThreads_neverPins() throws Exception {
+        ImageStorageServiceLocal storage = new ImageStorageServiceLocal(tempDir.resolve("images").toString());
+        storage.clearStorage();
+
+        List<RecordedEvent> pinned = pinnedEvents(i -> {
+            MockMultipartFile image = new MockMultipartFile("image", "meter.jpg", "image/jpeg", new byte[64 * 1024]);
+            String path = storage.store(image, ImageFormat.JPEG, TIMESTAMP.plusMinutes(i));
+            try (InputStream in = storage.open(path); InputStream range = storage.openRange(path, 1024, 1024)) {
+                in.readAllBytes();
+                range.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            assertThat(storage.exists(path)).isTrue();
+            assertThat(storage.delete(List.of(path))).containsExactly(path);
+        });
+
+        assertThat(pinned).isEmpty();
+    }
+
+    @Test
+    void recognitionCache_contendedOnVirtualThreads_neverPins() throws Exception {
+        RecognitionCache cache = new RecognitionCache(new SimpleMeterRegistry(), true, 8,
+                tempDir.resolve("recognition.cache").toString());
+
+        List<RecordedEvent> pinned = pinnedEvents(i -> {
+            for (int j = 0; j < 50; j++) {
+                String key = "image-" + (i * 50 + j);
+                cache.put(key, new double[][]{{0.1, 0.9}});
+                cache.get(key);
+            }
+        });
+        cache.shutdown();
+
+        assertThat(pinned).isEmpty();
+    }
+
+    /**
+     * Runs {@code task} on {@link #THREADS} virtual threads, each given its own index, and returns
+     * the pinning events recorded meanwhile.
+     */
+    private static List<RecordedEvent> pinnedEvents(IntConsumer task) throws InterruptedException {
+        List<RecordedEvent> events = new CopyOnWriteArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", events::add);
+            recording.onEvent("jdk.JavaMonitorEnter", event -> {
+                if (event.getThread().isVirtual()
+                        && event.getClass("monitorClass").getName().startsWith(APPLICATION_PACKAGE)) {
+                    events.add(event);
+                }
+            });
+            recording.startAsync();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                threads.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        task.accept(index);
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            recording.stop();
+        }
+        assertThat(failures).isEmpty();
+        return events;
+    }
+
+    private static final class Monitor {}
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Context
 import android.graphics.Bitmap
 import android.graphics.Canvas
 import android.graphics.Color
+import android.graphics.Paint
 import androidx.compose.ui.test.hasSetTextAction
 import androidx.compose.ui.test.junit4.createAndroidComposeRule
 import androidx.compose.ui.test.onAllNodesWithText
@@ -39,7 +40,8 @@ class UploadE2ETest {
             composeTestRule.onAllNodesWithText("Logout").fetchSemanticsNodes().isNotEmpty()
         }
 
-        // 3. Create a valid JPEG programmatically (bypasses CameraX — Option A)
+        // 3. Create a JPEG programmatically (bypasses CameraX — Option A). It has to pass the
+        //    backend's photo quality gate, which is on by default.
         val context = InstrumentationRegistry.getInstrumentation().targetContext
         val testFile = createTestJpeg(context)
 
@@ -60,10 +62,28 @@ class UploadE2ETest {
     // Helpers
     // ---------------------------------------------------------------------------
 
-    /** Creates a 200×200 grey JPEG in the app's cache directory. */
+    /**
+     * Creates a 1280×960 JPEG of dark digits over a grid on light grey in the app's cache
+     * directory. A flat image is rejected by the backend's quality gate: it needs at least
+     * 640×480 pixels and enough edges to count as sharp.
+     */
     private fun createTestJpeg(context: Context): File {
-        val bitmap = Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888)
-        Canvas(bitmap).drawColor(Color.DKGRAY)
+        val bitmap = Bitmap.createBitmap(1280, 960, Bitmap.Config.ARGB_8888)
+        val canvas = Canvas(bitmap)
+        canvas.drawColor(Color.rgb(200, 200, 200))
+        val ink = Paint().apply {
+            color = Color.rgb(40, 40, 40)
+            strokeWidth = 3f
+            textSize = 180f
+            isAntiAlias = true
+        }
+        for (x in 0 until bitmap.width step 32) {
+            canvas.drawLine(x.toFloat(), 0f, x.toFloat(), bitmap.height.toFloat(), ink)
+        }
+        for (y in 0 until bitmap.height step 32) {
+            canvas.drawLine(0f, y.toFloat(), bitmap.width.toFloat(), y.toFloat(), ink)
+        }
+        canvas.drawText("01234567", 160f, 540f, ink)
         val file = File(context.cacheDir, "test_meter_${System.currentTimeMillis()}.jpg")
         FileOutputStream(file).use { bitmap.compress(Bitmap.CompressFormat.JPEG, 85, it) }
         return file
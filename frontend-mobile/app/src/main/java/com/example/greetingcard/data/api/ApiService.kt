@@ -26,6 +26,7 @@ interface ApiService {
     @POST("readings")
     suspend fun uploadReading(
         @Header("Authorization") token: String,
+        @Header("Idempotency-Key") idempotencyKey: String,
         @Part image: MultipartBody.Part,
         @Part("timestamp") timestamp: RequestBody
     ): Response<ReadingDto>
@@ -4,6 +4,8 @@ import android.content.Context
 import androidx.hilt.work.HiltWorker
 import androidx.work.CoroutineWorker
 import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import com.example.greetingcard.data.upload.UploadHttpException
 import com.example.greetingcard.data.upload.UploadRepository
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
@@ -30,17 +32,24 @@ class UploadWorker @AssistedInject constructor(
             return Result.failure()
         }
 
-        val result = uploadRepository.upload(file, pending.timestamp)
-        return if (result.isSuccess) {
+        // The work request id stays the same across retries, so it identifies the upload to the server
+        val result = uploadRepository.upload(file, pending.timestamp, idempotencyKey = id.toString())
+        if (result.isSuccess) {
             pendingUploadDao.updateStatus(uploadId, UploadStatus.DONE.name)
-            Result.success()
-        } else {
+            return Result.success()
+        }
+        val error = result.exceptionOrNull()
+        if (error is UploadHttpException && error.isFinal) {
+            // Retrying would send the same bytes and get the same answer
             pendingUploadDao.updateStatus(uploadId, UploadStatus.FAILED.name)
-            Result.retry()
+            return Result.failure(workDataOf(KEY_ERROR_CODE to error.code))
         }
+        pendingUploadDao.updateStatus(uploadId, UploadStatus.PENDING.name)
+        return Result.retry()
     }
 
     companion object {
         const val KEY_UPLOAD_ID = "upload_id"
+        const val KEY_ERROR_CODE = "error_code"
     }
 }
@@ -0,0 +1,11 @@
+package com.example.greetingcard.data.upload
+
+/**
+ * The server answered an upload with an error status. A client error other than 408 or 429 is
+ * final ([isFinal]): sending the same photo again gets the same answer, as with a 422 quality rejection or
+ * an Idempotency-Key reused for another upload.
+ */
+class UploadHttpException(val code: Int) : Exception("Upload failed: $code") {
+    val isFinal: Boolean
+        get() = code in 400..499 && code != 408 && code != 429
+}
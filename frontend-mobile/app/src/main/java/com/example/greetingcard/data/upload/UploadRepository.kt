@@ -20,7 +20,11 @@ class UploadRepository @Inject constructor(
     private val apiService: ApiService,
     private val authRepository: AuthRepository
 ) {
-    suspend fun upload(imageFile: File, timestamp: String): Result<ReadingDto> {
+    /**
+     * [idempotencyKey] must be the same on every attempt of one upload, so that a retry after a
+     * lost response returns the reading created by the first attempt instead of a second one.
+     */
+    suspend fun upload(imageFile: File, timestamp: String, idempotencyKey: String): Result<ReadingDto> {
         return withContext(Dispatchers.IO) {
             try {
                 val token = authRepository.getToken()
@@ -34,11 +38,11 @@ class UploadRepository @Inject constructor(
                 )
                 val timestampBody = timestamp.toRequestBody("text/plain".toMediaType())
 
-                val response = apiService.uploadReading("Bearer $token", imagePart, timestampBody)
+                val response = apiService.uploadReading("Bearer $token", idempotencyKey, imagePart, timestampBody)
                 if (response.isSuccessful) {
                     Result.success(response.body()!!)
                 } else {
-                    Result.failure(Exception("Upload failed: ${response.code()}"))
+                    Result.failure(UploadHttpException(response.code()))
                 }
             } catch (e: Exception) {
                 Result.failure(e)
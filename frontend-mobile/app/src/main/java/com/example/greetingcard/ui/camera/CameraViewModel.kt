@@ -82,10 +82,18 @@ class CameraViewModel @Inject constructor(
                     when (workInfo?.state) {
                         WorkInfo.State.SUCCEEDED ->
                             _uiState.value = _uiState.value.copy(uploadState = UploadState.Success)
-                        WorkInfo.State.FAILED ->
-                            _uiState.value = _uiState.value.copy(
-                                uploadState = UploadState.Error("Upload failed — will retry when online")
-                            )
+                        WorkInfo.State.FAILED -> {
+                            val code = workInfo.outputData.getInt(UploadWorker.KEY_ERROR_CODE, -1)
+                            val message = if (code == 422) "Photo rejected — take a sharper, well-lit photo"
+                                else "Upload rejected by the server"
+                            _uiState.value = _uiState.value.copy(uploadState = UploadState.Error(message))
+                        }
+                        WorkInfo.State.ENQUEUED ->
+                            if (workInfo.runAttemptCount > 0) {
+                                _uiState.value = _uiState.value.copy(
+                                    uploadState = UploadState.Error("Upload failed — will retry when online")
+                                )
+                            }
                         WorkInfo.State.RUNNING ->
                             _uiState.value = _uiState.value.copy(uploadState = UploadState.Uploading)
                         else -> Unit
@@ -0,0 +1,28 @@
+package com.example.greetingcard.data.upload
+
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class UploadHttpExceptionTest {
+
+    @Test
+    fun isFinal_clientErrors_areFinal() {
+        for (code in listOf(400, 401, 409, 413, 422)) {
+            assertTrue("$code", UploadHttpException(code).isFinal)
+        }
+    }
+
+    @Test
+    fun isFinal_timeoutAndTooManyRequests_areRetried() {
+        assertFalse(UploadHttpException(408).isFinal)
+        assertFalse(UploadHttpException(429).isFinal)
+    }
+
+    @Test
+    fun isFinal_serverErrors_areRetried() {
+        for (code in listOf(500, 502, 503)) {
+            assertFalse("$code", UploadHttpException(code).isFinal)
+        }
+    }
+}